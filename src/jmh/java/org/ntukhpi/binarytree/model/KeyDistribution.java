@@ -0,0 +1,89 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Random;
+
+/**
+ * Распределение ключей для бенчмарков.
+ * <br>Ключи генерируются детерминированно (с фиксированным зерном), поэтому прогоны сравнимы между собой.
+ */
+public enum KeyDistribution {
+
+    /**
+     * Ключи 0, 1, ..., n - 1 по возрастанию - худший случай для несбалансированного дерева.
+     */
+    SORTED {
+        @Override
+        Integer[] keys(final int size, final Random random) {
+            Integer[] keys = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = i;
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * Перестановка ключей 0, 1, ..., n - 1 в случайном порядке.
+     */
+    RANDOM {
+        @Override
+        Integer[] keys(final int size, final Random random) {
+            Integer[] keys = SORTED.keys(size, random);
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Integer swap = keys[i];
+                keys[i] = keys[j];
+                keys[j] = swap;
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * Ключи из диапазона [0, n) с распределением Ципфа (s = 1): небольшая часть ключей повторяется очень часто.
+     */
+    ZIPFIAN {
+        @Override
+        Integer[] keys(final int size, final Random random) {
+            double[] cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 0; rank < size; rank++) {
+                sum += 1.0 / (rank + 1);
+                cumulative[rank] = sum;
+            }
+
+            Integer[] ranks = RANDOM.keys(size, random); //случайное соответствие ранга и ключа
+            Integer[] keys = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                double point = random.nextDouble() * sum;
+                int low = 0;
+                int high = size - 1;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (cumulative[mid] < point) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                keys[i] = ranks[low];
+            }
+            return keys;
+        }
+    };
+
+    private static final long SEED = 42;
+
+    /**
+     * Генерация ключей.
+     *
+     * @param size количество ключей.
+     * @return массив ключей; для {@link #ZIPFIAN} ключи могут повторяться.
+     */
+    Integer[] keys(final int size) {
+        return keys(size, new Random(SEED));
+    }
+
+    abstract Integer[] keys(int size, Random random);
+
+}
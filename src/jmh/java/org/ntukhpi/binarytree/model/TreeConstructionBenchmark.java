@@ -0,0 +1,105 @@
+package org.ntukhpi.binarytree.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки методов построения деревьев {@link TreeFactory}.
+ * <br>Каждый метод строит дерево из одного и того же набора ключей заданного размера и распределения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TreeConstructionBenchmark {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    @Param({"SORTED", "RANDOM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    private Integer[] keys;
+
+    private Integer[] sortedKeys;
+
+    private int[] primitiveKeys;
+
+    private int[] sortedPrimitiveKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = distribution.keys(size);
+        sortedKeys = Arrays.stream(keys).sorted().distinct().toArray(Integer[]::new);
+        primitiveKeys = Arrays.stream(keys).mapToInt(Integer::intValue).toArray();
+        sortedPrimitiveKeys = Arrays.stream(sortedKeys).mapToInt(Integer::intValue).toArray();
+    }
+
+    @Benchmark
+    public Tree<Integer> immutableTree() {
+        return FACTORY.immutableTree(keys);
+    }
+
+    @Benchmark
+    public Tree<Integer> compactTree() {
+        return FACTORY.compactTree(keys);
+    }
+
+    @Benchmark
+    public Tree<Integer> balancedTree() {
+        return FACTORY.balancedTree(keys);
+    }
+
+    @Benchmark
+    public Tree<Integer> sortedTree() {
+        return FACTORY.sortedTree(Arrays.asList(sortedKeys).iterator());
+    }
+
+    @Benchmark
+    public Tree<Integer> insertAll() {
+        return FACTORY.<Integer>immutableTree().insertAll(Arrays.asList(keys));
+    }
+
+    @Benchmark
+    public Tree<Integer> redBlackTree() {
+        return FACTORY.redBlackTree(keys);
+    }
+
+    @Benchmark
+    public Tree<Integer> avlTree() {
+        return FACTORY.avlTree(keys);
+    }
+
+    @Benchmark
+    public Tree<Integer> arenaTree() {
+        return FACTORY.arenaTree(keys);
+    }
+
+    @Benchmark
+    public IntTree intTree() {
+        return FACTORY.intTree(primitiveKeys);
+    }
+
+    @Benchmark
+    public IntTree sortedIntTree() {
+        return FACTORY.sortedIntTree(sortedPrimitiveKeys);
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Семейства деревьев, сравниваемые в бенчмарках операций.
+ * <br>{@link #IMMUTABLE} и {@link #COMPACT} - одно и то же несбалансированное дерево
+ * в двух представлениях узлов: иерархия классов по форме узла и единственный final-класс.
+ */
+public enum TreeKind {
+
+    IMMUTABLE {
+        @Override
+        Tree<Integer> build(final TreeFactory factory, final Integer[] keys) {
+            return factory.immutableTree(keys);
+        }
+    },
+
+    COMPACT {
+        @Override
+        Tree<Integer> build(final TreeFactory factory, final Integer[] keys) {
+            return factory.compactTree(keys);
+        }
+    },
+
+    RED_BLACK {
+        @Override
+        Tree<Integer> build(final TreeFactory factory, final Integer[] keys) {
+            return factory.redBlackTree(keys);
+        }
+    },
+
+    AVL {
+        @Override
+        Tree<Integer> build(final TreeFactory factory, final Integer[] keys) {
+            return factory.avlTree(keys);
+        }
+    },
+
+    ARENA {
+        @Override
+        Tree<Integer> build(final TreeFactory factory, final Integer[] keys) {
+            return factory.arenaTree(keys);
+        }
+    },
+
+    B_PLUS {
+        @Override
+        Tree<Integer> build(final TreeFactory factory, final Integer[] keys) {
+            return factory.bPlusTree(keys);
+        }
+    };
+
+    abstract Tree<Integer> build(TreeFactory factory, Integer[] keys);
+
+}
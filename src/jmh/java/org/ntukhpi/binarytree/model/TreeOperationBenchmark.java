@@ -0,0 +1,103 @@
+package org.ntukhpi.binarytree.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки операций чтения {@link Tree} для каждого семейства деревьев.
+ * <br>Дерево строится один раз на прогон; поиск перебирает ключи дерева по кругу в случайном порядке.
+ * <br>Сравнение {@link TreeKind#IMMUTABLE} и {@link TreeKind#COMPACT} показывает разницу между
+ * иерархией классов узлов и единственным final-классом узла на одинаковых по форме деревьях.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TreeOperationBenchmark {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Param({"IMMUTABLE", "COMPACT", "RED_BLACK", "AVL", "ARENA", "B_PLUS"})
+    private TreeKind kind;
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    @Param({"SORTED", "RANDOM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    private Tree<Integer> tree;
+
+    private Integer[] probes;
+
+    private Integer absent;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Integer[] keys = distribution.keys(size);
+        tree = kind.build(FACTORY, keys);
+        probes = KeyDistribution.RANDOM.keys(size);
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = keys[probes[i]];
+        }
+        absent = size + 1;
+    }
+
+    private Integer probe() {
+        Integer key = probes[next];
+        next = next + 1 == probes.length ? 0 : next + 1;
+        return key;
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return tree.contains(probe());
+    }
+
+    @Benchmark
+    public boolean containsAbsent() {
+        return tree.contains(absent);
+    }
+
+    @Benchmark
+    public int rank() {
+        return tree.rank(probe());
+    }
+
+    @Benchmark
+    public List<Integer> traverse() {
+        return tree.traverse(Traversal.IN_ORDER);
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole blackhole) {
+        for (Iterator<Integer> iterator = tree.iterator(Traversal.IN_ORDER); iterator.hasNext(); ) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return tree.stream(Traversal.IN_ORDER).parallel().mapToLong(Integer::longValue).sum();
+    }
+
+}
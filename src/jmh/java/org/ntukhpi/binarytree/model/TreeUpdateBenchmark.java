@@ -0,0 +1,117 @@
+package org.ntukhpi.binarytree.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки изменяющих операций {@link Tree}.
+ * <br>Изменения применяются к одному и тому же исходному дереву: оно персистентно,
+ * поэтому состояние между вызовами не накапливается, а измеряется стоимость копирования пути.
+ * <br>{@link TreeKind#ARENA} не участвует: каждое изменение дописывает узлы в общее хранилище,
+ * и за время измерения оно выросло бы на гигабайты.
+ * <br>Для {@link TreeKind#IMMUTABLE} и {@link TreeKind#COMPACT} с {@link KeyDistribution#SORTED} дерево вырождено в цепочку,
+ * поэтому пакетные операции и операции над множествами измеряют последовательный путь
+ * {@link AbstractNavigableTree} (см. {@link SetOperations#MAX_DEPTH}), а не разбиение и слияние.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TreeUpdateBenchmark {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"IMMUTABLE", "COMPACT", "RED_BLACK", "AVL", "B_PLUS"})
+    private TreeKind kind;
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    @Param({"SORTED", "RANDOM", "ZIPFIAN"})
+    private KeyDistribution distribution;
+
+    private Tree<Integer> tree;
+
+    private Integer[] probes;
+
+    private Integer absent;
+
+    private List<Integer> batch;
+
+    private Tree<Integer> other;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Integer[] keys = distribution.keys(size);
+        tree = kind.build(FACTORY, keys);
+        probes = KeyDistribution.RANDOM.keys(size);
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = keys[probes[i]];
+        }
+        absent = size + 1;
+
+        Integer[] extra = KeyDistribution.RANDOM.keys(BATCH_SIZE);
+        for (int i = 0; i < extra.length; i++) {
+            extra[i] = extra[i] * (size / BATCH_SIZE) + 1;
+        }
+        batch = Arrays.asList(extra);
+        other = kind.build(FACTORY, extra);
+    }
+
+    private Integer probe() {
+        Integer key = probes[next];
+        next = next + 1 == probes.length ? 0 : next + 1;
+        return key;
+    }
+
+    @Benchmark
+    public Tree<Integer> insert() {
+        return tree.insert(absent);
+    }
+
+    @Benchmark
+    public Tree<Integer> remove() {
+        return tree.remove(probe());
+    }
+
+    @Benchmark
+    public Tree<Integer> insertAll() {
+        return tree.insertAll(batch);
+    }
+
+    @Benchmark
+    public Tree<Integer> removeAll() {
+        return tree.removeAll(batch);
+    }
+
+    @Benchmark
+    public Tree<Integer> union() {
+        return tree.union(other);
+    }
+
+    @Benchmark
+    public Tree<Integer> difference() {
+        return tree.difference(other);
+    }
+
+}
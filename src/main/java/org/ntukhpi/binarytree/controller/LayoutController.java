@@ -17,17 +17,24 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
+import javafx.stage.FileChooser;
 import javafx.util.Duration;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.URL;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Контроллер элементов раскладки "layout.fxml", отображаемых на основном окне.
@@ -36,7 +43,7 @@ import java.util.stream.Collectors;
  *
  * @author Alexander Gorbunov
  */
-public class LayoutController implements Initializable { //todo implement export/import in json format //todo UI tests
+public class LayoutController implements Initializable { //todo UI tests
 
     /**
      * Генератор случайных чисел.
@@ -68,6 +75,12 @@ public class LayoutController implements Initializable { //todo implement export
 
     private static final String IN_ORDER_ID = "in";
 
+    /**
+     * Фильтр файлов двоичных снимков дерева.
+     */
+    private static final FileChooser.ExtensionFilter SNAPSHOT_FILTER =
+            new FileChooser.ExtensionFilter("Снимок дерева (*.btsn)", "*.btsn");
+
     /**
      * Визуальное представление бинарного дерева поиска
      */
@@ -355,6 +368,38 @@ public class LayoutController implements Initializable { //todo implement export
         updateTraversal();
     }
 
+    /**
+     * Сохранить дерево в файл, выбранный пользователем.
+     */
+    @FXML
+    public void exportTree() {
+        File file = snapshotChooser().showSaveDialog(board.getScene().getWindow());
+        if (file == null) return;
+
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            treeGraph.exportTree(out);
+        } catch (IOException e) {
+            showError("Не удалось сохранить дерево", e);
+        }
+    }
+
+    /**
+     * Загрузить дерево из файла, выбранного пользователем.
+     */
+    @FXML
+    public void importTree() {
+        File file = snapshotChooser().showOpenDialog(board.getScene().getWindow());
+        if (file == null) return;
+
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            treeGraph.importTree(in);
+            cache.drop();
+            updateTraversal();
+        } catch (IOException | IllegalArgumentException e) {
+            showError("Не удалось загрузить дерево", e);
+        }
+    }
+
     /**
      * Завершить работу программы.
      */
@@ -396,6 +441,18 @@ public class LayoutController implements Initializable { //todo implement export
         animation.jumpTo(Duration.ZERO);
     }
 
+    private static FileChooser snapshotChooser() {
+        FileChooser chooser = new FileChooser();
+        chooser.getExtensionFilters().add(SNAPSHOT_FILTER);
+        return chooser;
+    }
+
+    private static void showError(String header, Exception e) {
+        Alert alert = new Alert(Alert.AlertType.ERROR, e.getMessage());
+        alert.setHeaderText(header);
+        alert.showAndWait();
+    }
+
     /**
      * Подсветить текст.
      */
@@ -535,8 +592,8 @@ public class LayoutController implements Initializable { //todo implement export
      * @return карту с ключами - индексами значений массива и значениями - соответствующими значениями элементов массива.
      */
     private static <T extends Comparable<T>> Map<Integer, T> mapArrayValuesToPositions(T[] values) {
-        List<T> asList = Arrays.asList(values);
-        return asList.stream().collect(Collectors.toMap(asList::indexOf, Function.identity()));
+        return IntStream.range(0, values.length).boxed()
+                .collect(Collectors.toMap(Function.identity(), index -> values[index]));
     }
 
     private static final class TextCache {
@@ -4,12 +4,18 @@ import javafx.scene.Node;
 import org.ntukhpi.binarytree.model.NavigableTree;
 import org.ntukhpi.binarytree.model.Traversal;
 import org.ntukhpi.binarytree.model.Tree;
+import org.ntukhpi.binarytree.model.TreeCodecs;
 import org.ntukhpi.binarytree.model.TreeFactory;
+import org.ntukhpi.binarytree.model.TreeHistory;
+import org.ntukhpi.binarytree.model.TreeSnapshot;
 import javafx.collections.ObservableList;
 import javafx.scene.Group;
 import javafx.scene.control.Label;
 import javafx.scene.shape.Line;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.function.Predicate;
@@ -43,6 +49,11 @@ public class BTreeGraph { //todo re-implement concurrency
      */
     private static final double VERTICAL_GAP = CELL_RADIUS * 3;
 
+    /**
+     * Количество версий дерева, которые хранятся в истории.
+     */
+    private static final int HISTORY_RETENTION = 64;
+
     /**
      * Ячейки - группа вершин графа, предстваленных стилизованным {@link Label}.
      */
@@ -67,10 +78,16 @@ public class BTreeGraph { //todo re-implement concurrency
      * Модель данных - структура из целочисленных значений в виде бинарного дерева.
      * Иммутабельная, персистентная, неавтосбалансированная реализация.
      * <br>При каждом изменении модели содержимое групп визуальных компонентов очищается и визуализация повторяется сначала.
+     * <br>Каждая новая версия модели сохраняется в {@link BTreeGraph#history}.
      *
      * @see Tree
      */
-    private Tree<Integer> tree; //todo implement version control
+    private Tree<Integer> tree;
+
+    /**
+     * История версий модели данных. Версии разделяют общие узлы, поэтому хранение истории почти ничего не стоит.
+     */
+    private final TreeHistory<Integer> history;
 
     /**
      * Базовый конструктор - задает композицию групп визуальных компонентов.
@@ -80,13 +97,16 @@ public class BTreeGraph { //todo re-implement concurrency
         vertexes = new Group();
         content = new Group(vertexes, cells);
         tree = TREE_FACTORY.immutableTree();
+        history = TREE_FACTORY.treeHistory(tree, HISTORY_RETENTION);
     }
 
     /**
-     * Метод очистки графа: очищает модель, визуальное предстваление и даже память!
+     * Метод очистки графа: очищает модель, историю версий, визуальное предстваление и даже память!
+     * <br>После очистки в истории остается только пустое дерево, поэтому прежние версии больше не удерживаются.
      */
     public void clear() {
-        tree = tree.clear();
+        update(tree.clear());
+        history.truncate();
         scrap();
         cache.drop();
         System.gc(); //не делайте этого дома без надзора взрослых
@@ -111,7 +131,7 @@ public class BTreeGraph { //todo re-implement concurrency
      * @param value целое число.
      */
     public void addNode(int value) {
-        tree = tree.insert(value);
+        update(tree.insert(value));
         draw();
         findNode(value);
     }
@@ -125,17 +145,14 @@ public class BTreeGraph { //todo re-implement concurrency
 
     /**
      * Изменить значение выделенной вершины графа,
-     * перестроить бинарное дерево и выделить измененную ячейку.
+     * заменить ее значение в бинарном дереве (удаление и вставка, без перестроения) и выделить измененную ячейку.
      *
      * @param newValue новое значение.
      */
     public void mutateNode(int newValue) {
         getSelected().ifPresent(selected -> {
             int oldValue = Integer.parseInt(selected.getId());
-            Integer[] values = tree.traverse(Traversal.PRE_ORDER).stream()
-                    .map(e -> (e == oldValue) ? newValue : e)
-                    .toArray(Integer[]::new);
-            tree = TREE_FACTORY.immutableTree(values);
+            update(tree.remove(oldValue).insert(newValue));
             draw();
             findNode(newValue);
         });
@@ -145,14 +162,64 @@ public class BTreeGraph { //todo re-implement concurrency
      * Перестроить дерево в сбалансированное и перерисовать граф.
      */
     public void balance() {
-        Integer[] values = tree.traverse(Traversal.IN_ORDER).stream()
+        Integer[] values = tree.stream(Traversal.IN_ORDER)
                 .toArray(Integer[]::new);
-        tree = TREE_FACTORY.balancedTree(values);
+        update(TREE_FACTORY.balancedTree(values));
         Optional<Label> selected = getSelected();
         draw();
         selected.ifPresent(label -> findNode(Integer.parseInt(label.getId())));
     }
 
+    /**
+     * Вернуть модель к сохраненной версии и перерисовать граф.
+     * <br>Возврат сам по себе сохраняется как новая версия, поэтому его тоже можно отменить.
+     *
+     * @param version номер версии.
+     * @return результат: найдена/не найдена версия в истории.
+     */
+    public boolean checkout(long version) {
+        Optional<Tree<Integer>> snapshot = history.checkout(version);
+        snapshot.ifPresent(restored -> {
+            update(restored);
+            draw();
+        });
+        return snapshot.isPresent();
+    }
+
+    /**
+     * Сохранить дерево в поток в виде двоичного снимка вместе с формой, чтобы при загрузке граф выглядел так же.
+     *
+     * @param out поток, в который записывается снимок.
+     * @throws IOException если запись не удалась.
+     * @see TreeSnapshot
+     */
+    public void exportTree(OutputStream out) throws IOException {
+        TreeSnapshot.writeShaped((NavigableTree<Integer>) tree, TreeCodecs.integerKeys(), out);
+    }
+
+    /**
+     * Загрузить дерево из двоичного снимка и перерисовать граф.
+     * <br>Загрузка сохраняется в истории как новая версия.
+     *
+     * @param in поток со снимком.
+     * @throws IOException если чтение не удалось или снимок поврежден.
+     * @see TreeSnapshot
+     */
+    public void importTree(InputStream in) throws IOException {
+        update(TreeSnapshot.read(in, TreeCodecs.integerKeys()));
+        cache.drop();
+        draw();
+    }
+
+    /**
+     * Получить номер текущей версии модели.
+     *
+     * @return номер версии в истории.
+     */
+    public long getVersion() {
+        return history.headVersion();
+    }
+
     /**
      * Найти максимальное значение в дереве и выделить его на графе.
      */
@@ -220,7 +287,7 @@ public class BTreeGraph { //todo re-implement concurrency
      * @return массив целых чисел.
      */
     private Integer[] getTraversal(Traversal traversal) {
-        return tree.traverse(traversal).stream()
+        return tree.stream(traversal)
                 .toArray(Integer[]::new);
     }
 
@@ -241,11 +308,21 @@ public class BTreeGraph { //todo re-implement concurrency
      */
     private void removeNode(int value) {
         if (tree.contains(value)) {
-            tree = tree.remove(value);
+            update(tree.remove(value));
             draw();
         }
     }
 
+    /**
+     * Заменить модель новой версией и сохранить ее в истории.
+     *
+     * @param newTree новая версия дерева.
+     */
+    private void update(Tree<Integer> newTree) {
+        tree = newTree;
+        history.commit(newTree);
+    }
+
     /**
      * Метод перерисовки графа.
      */
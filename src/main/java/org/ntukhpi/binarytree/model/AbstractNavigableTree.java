@@ -0,0 +1,375 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Скелетная реализация интерфейса {@link NavigableTree}.
+ * <br>Содержит алгоритмы чтения, общие для всех семейств бинарных деревьев поиска в данном пакете
+ * (поиск, минимум и максимум, порядковые статистики, обход, высота, строковое представление).
+ * <br>Все алгоритмы выражены через навигацию по дереву ({@link #left()}, {@link #right()})
+ * и значение корня ({@link #value()}), поэтому не зависят от стратегии балансировки конкретной реализации.
+ * <br>Порядковые статистики опираются на размер поддерева ({@link #size()}), который реализации хранят в узлах.
+ *
+ * @see ImmutableBinaryTree
+ * @see RedBlackTree
+ */
+abstract class AbstractNavigableTree<T extends Comparable<? super T>> implements NavigableTree<T> {
+
+    /**
+     * Значение корня дерева без обертки в {@link Optional}.
+     *
+     * @return значение корня или {@code null}, если дерево пустое.
+     */
+    abstract T value();
+
+    /**
+     * Проверка, что дерево - та же версия, что и переданное: одни и те же узлы.
+     * <br>По умолчанию сравниваются ссылки; семейства, в которых объект дерева - лишь дескриптор корня
+     * и {@link #left()} создает новый дескриптор, сравнивают корни.
+     *
+     * @param other другое дерево того же семейства.
+     * @return результат проверки.
+     */
+    boolean sameVersion(final AbstractNavigableTree<T> other) {
+        return this == other;
+    }
+
+    @Override
+    public abstract AbstractNavigableTree<T> left();
+
+    @Override
+    public abstract AbstractNavigableTree<T> right();
+
+    @Override
+    public boolean contains(final T element) {
+        if (element == null) return false;
+
+        AbstractNavigableTree<T> node = this;
+        while (!node.isEmpty()) {
+            int comparison = element.compareTo(node.value());
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.left() : node.right();
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<T> min() {
+        if (isEmpty()) return Optional.empty();
+
+        AbstractNavigableTree<T> node = this;
+        while (!node.left().isEmpty()) {
+            node = node.left();
+        }
+        return node.getRoot();
+    }
+
+    @Override
+    public Optional<T> max() {
+        if (isEmpty()) return Optional.empty();
+
+        AbstractNavigableTree<T> node = this;
+        while (!node.right().isEmpty()) {
+            node = node.right();
+        }
+        return node.getRoot();
+    }
+
+    @Override
+    public int rank(final T element) {
+        return rank(element, false);
+    }
+
+    @Override
+    public Optional<T> select(final int index) {
+        if (index < 0 || index >= size()) return Optional.empty();
+
+        AbstractNavigableTree<T> node = this;
+        int position = index;
+        while (true) {
+            int leftSize = node.left().size();
+            if (position < leftSize) {
+                node = node.left();
+            } else if (position > leftSize) {
+                position -= leftSize + 1;
+                node = node.right();
+            } else {
+                return node.getRoot();
+            }
+        }
+    }
+
+    @Override
+    public int count(final T from, final T to) {
+        if (from == null || to == null || from.compareTo(to) > 0) return 0;
+        return rank(to, true) - rank(from, false);
+    }
+
+    /**
+     * Спуск от корня к значению с подсчетом размеров поддеревьев, оставшихся слева от пути.
+     *
+     * @param element   значение, для которого вычисляется ранг.
+     * @param inclusive учитывать ли в результате элемент, равный искомому.
+     * @return количество элементов, меньших (или меньших либо равных) указанному значению.
+     */
+    int rank(final T element, final boolean inclusive) {
+        if (element == null) return 0;
+
+        AbstractNavigableTree<T> node = this;
+        int rank = 0;
+        while (!node.isEmpty()) {
+            int comparison = element.compareTo(node.value());
+            if (comparison < 0) {
+                node = node.left();
+            } else if (comparison > 0) {
+                rank += node.left().size() + 1;
+                node = node.right();
+            } else {
+                rank += node.left().size() + (inclusive ? 1 : 0);
+                break;
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public Optional<T> floor(final T element) {
+        return Optional.ofNullable(below(element, true));
+    }
+
+    @Override
+    public Optional<T> lower(final T element) {
+        return Optional.ofNullable(below(element, false));
+    }
+
+    @Override
+    public Optional<T> ceiling(final T element) {
+        return Optional.ofNullable(above(element, true));
+    }
+
+    @Override
+    public Optional<T> higher(final T element) {
+        return Optional.ofNullable(above(element, false));
+    }
+
+    /**
+     * Спуск от корня к значению с запоминанием последнего узла, после которого путь свернул вправо.
+     *
+     * @param element   искомое значение.
+     * @param inclusive допускается ли результат, равный искомому значению.
+     * @return наибольшее значение, меньшее (или меньшее либо равное) указанному, или null.
+     */
+    private T below(final T element, final boolean inclusive) {
+        if (element == null) return null;
+
+        AbstractNavigableTree<T> node = this;
+        T result = null;
+        while (!node.isEmpty()) {
+            T value = node.value();
+            int comparison = element.compareTo(value);
+            if (comparison > 0 || comparison == 0 && inclusive) {
+                result = value;
+                if (comparison == 0) break;
+                node = node.right();
+            } else {
+                node = node.left();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Спуск от корня к значению с запоминанием последнего узла, после которого путь свернул влево.
+     *
+     * @param element   искомое значение.
+     * @param inclusive допускается ли результат, равный искомому значению.
+     * @return наименьшее значение, большее (или большее либо равное) указанному, или null.
+     */
+    private T above(final T element, final boolean inclusive) {
+        if (element == null) return null;
+
+        AbstractNavigableTree<T> node = this;
+        T result = null;
+        while (!node.isEmpty()) {
+            T value = node.value();
+            int comparison = element.compareTo(value);
+            if (comparison < 0 || comparison == 0 && inclusive) {
+                result = value;
+                if (comparison == 0) break;
+                node = node.left();
+            } else {
+                node = node.right();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public NavigableTree<T> subTree(final T from, final boolean fromInclusive, final T to, final boolean toInclusive) {
+        return RangeTree.of(this, from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public NavigableTree<T> headTree(final T to, final boolean inclusive) {
+        return subTree(null, false, to, inclusive);
+    }
+
+    @Override
+    public NavigableTree<T> tailTree(final T from, final boolean inclusive) {
+        return subTree(from, inclusive, null, false);
+    }
+
+    @Override
+    public Tree<T> insertAll(final Collection<? extends T> values) {
+        return applyBatch(values, Collections.<T>emptyList());
+    }
+
+    @Override
+    public Tree<T> removeAll(final Collection<? extends T> values) {
+        return applyBatch(Collections.<T>emptyList(), values);
+    }
+
+    /**
+     * Пакет изменений через последовательные удаления и вставки.
+     * <br>Семейства, поддерживающие слияние деревьев, переопределяют метод через {@link SetOperations}.
+     */
+    @Override
+    public Tree<T> applyBatch(final Collection<? extends T> insertions, final Collection<? extends T> removals) {
+        Tree<T> tree = this;
+        for (T value : removals) {
+            tree = tree.remove(value);
+        }
+        for (T value : insertions) {
+            tree = tree.insert(value);
+        }
+        return tree;
+    }
+
+    @Override
+    public TransientTree<T> asTransient() {
+        return new TransientAdapter<>(this);
+    }
+
+    /**
+     * Объединение через последовательную вставку значений второго дерева: O(m * log(n + m)).
+     * <br>Семейства, поддерживающие слияние деревьев, переопределяют метод через {@link SetOperations}.
+     */
+    @Override
+    public Tree<T> union(final Tree<T> other) {
+        Tree<T> tree = this;
+        for (Iterator<T> iterator = other.iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+            tree = tree.insert(iterator.next());
+        }
+        return tree;
+    }
+
+    /**
+     * Пересечение через проверку значений меньшего из деревьев: O(min(n, m) * log(max(n, m))).
+     */
+    @Override
+    public Tree<T> intersection(final Tree<T> other) {
+        Tree<T> tree;
+        if (size() <= other.size()) {
+            tree = this;
+            for (Iterator<T> iterator = iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+                T value = iterator.next();
+                if (!other.contains(value)) tree = tree.remove(value);
+            }
+        } else {
+            tree = clear();
+            for (Iterator<T> iterator = other.iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+                T value = iterator.next();
+                if (contains(value)) tree = tree.insert(value);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Разность через удаление значений, перебирая меньшее из деревьев: O(min(n, m) * log(max(n, m))).
+     */
+    @Override
+    public Tree<T> difference(final Tree<T> other) {
+        Tree<T> tree = this;
+        if (size() <= other.size()) {
+            for (Iterator<T> iterator = iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+                T value = iterator.next();
+                if (other.contains(value)) tree = tree.remove(value);
+            }
+        } else {
+            for (Iterator<T> iterator = other.iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+                tree = tree.remove(iterator.next());
+            }
+        }
+        return tree;
+    }
+
+    @Override
+    public Optional<T> getRoot() {
+        return Optional.ofNullable(value());
+    }
+
+    /**
+     * Высота через обход в ширину: число уровней, на которых есть хотя бы один узел.
+     * <br>Не использует рекурсию, поэтому не ограничена глубиной стека вызовов
+     * даже для вырожденного дерева.
+     */
+    @Override
+    public int height() {
+        int level = 0;
+        Deque<AbstractNavigableTree<T>> queue = new ArrayDeque<>();
+        if (!isEmpty()) queue.add(this);
+        while (!queue.isEmpty()) {
+            level++;
+            for (int width = queue.size(); width > 0; width--) {
+                AbstractNavigableTree<T> node = queue.poll();
+                AbstractNavigableTree<T> left = node.left();
+                AbstractNavigableTree<T> right = node.right();
+                if (!left.isEmpty()) queue.add(left);
+                if (!right.isEmpty()) queue.add(right);
+            }
+        }
+        return level;
+    }
+
+    @Override
+    public List<T> traverse(Traversal order) {
+        List<T> nodeList = new ArrayList<>(size());
+        iterator(order).forEachRemaining(nodeList::add);
+        return nodeList;
+    }
+
+    @Override
+    public Iterator<T> iterator(Traversal order) {
+        return new TreeIterator<>(this, order);
+    }
+
+    @Override
+    public Spliterator<T> spliterator(Traversal order) {
+        return new TreeSpliterator<>(this, order);
+    }
+
+    @Override
+    public Stream<T> stream(Traversal order) {
+        return StreamSupport.stream(spliterator(order), false);
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) return "_";
+        return "(" + left().toString() + " " + value() + " " + right().toString() + ")";
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Скелетная реализация интерфейса {@link TransientTree}: проверка владения.
+ * <br>Токеном владения служит поток, создавший переходную версию.
+ * {@link #release()} сбрасывает токен, после чего любые операции запрещены.
+ */
+abstract class AbstractTransientTree<T extends Comparable<? super T>> implements TransientTree<T> {
+
+    private Thread owner = Thread.currentThread();
+
+    /**
+     * Проверка того, что переходная версия еще действительна и используется потоком-владельцем.
+     *
+     * @throws IllegalStateException если версия уже заморожена или принадлежит другому потоку.
+     */
+    final void ensureEditable() {
+        if (owner == null) {
+            throw new IllegalStateException("Transient tree used after persistent() call");
+        }
+        if (owner != Thread.currentThread()) {
+            throw new IllegalStateException("Transient tree is owned by thread " + owner.getName());
+        }
+    }
+
+    /**
+     * Сброс токена владения при заморозке.
+     */
+    final void release() {
+        ensureEditable();
+        owner = null;
+    }
+
+}
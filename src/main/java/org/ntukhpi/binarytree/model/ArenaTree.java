@@ -0,0 +1,306 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.ntukhpi.binarytree.model.NodeStore.NIL;
+
+/**
+ * Персистентное АВЛ-дерево, узлы которого размещены вне кучи в {@link NodeStore}:
+ * в прямых буферах {@link NodeArena} либо в отображенном в память файле {@link PageStore}.
+ * <br>Объект {@code ArenaTree} - лишь легковесный дескриптор версии: хранилище и номер корня.
+ * Сами узлы не являются объектами, поэтому не имеют заголовков и не нагружают сборщик мусора,
+ * а потомки адресуются номерами типа {@code int} вместо ссылок.
+ * <br>Изменения дописывают в хранилище новые узлы на пути от корня (path copying),
+ * поэтому все версии дерева, полученные из одного хранилища, остаются доступными и разделяют общие узлы.
+ * <br>Поиск, минимум, максимум и обход работают напрямую с номерами узлов;
+ * {@link #left()} и {@link #right()} создают новые дескрипторы и предназначены для навигации, а не для горячих циклов.
+ *
+ * @see TreeFactory#arenaTree(Comparable[])
+ */
+final class ArenaTree<T extends Comparable<? super T>> extends AbstractNavigableTree<T> {
+
+    private final NodeStore<T> arena;
+
+    private final int root;
+
+    ArenaTree(final NodeStore<T> arena, final int root) {
+        this.arena = arena;
+        this.root = root;
+    }
+
+    NodeStore<T> store() {
+        return arena;
+    }
+
+    int rootNode() {
+        return root;
+    }
+
+    @Override
+    T value() {
+        return root == NIL ? null : arena.value(root);
+    }
+
+    @Override
+    public ArenaTree<T> left() {
+        return root == NIL ? this : new ArenaTree<>(arena, arena.left(root));
+    }
+
+    @Override
+    public ArenaTree<T> right() {
+        return root == NIL ? this : new ArenaTree<>(arena, arena.right(root));
+    }
+
+    @Override
+    public ArenaTree<T> insert(final T element) {
+        if (element == null) return this;
+        return withRoot(insert(root, element));
+    }
+
+    @Override
+    public ArenaTree<T> remove(final T element) {
+        if (element == null) return this;
+        return withRoot(remove(root, element));
+    }
+
+    @Override
+    public ArenaTree<T> clear() {
+        return new ArenaTree<>(arena.cleared(), NIL);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    @Override
+    public int size() {
+        return arena.size(root);
+    }
+
+    @Override
+    public int height() {
+        return arena.height(root);
+    }
+
+    @Override
+    public boolean contains(final T element) {
+        if (element == null) return false;
+
+        int node = root;
+        while (node != NIL) {
+            int comparison = element.compareTo(arena.value(node));
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? arena.left(node) : arena.right(node);
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<T> min() {
+        return root == NIL ? Optional.empty() : Optional.of(arena.value(leftmost(root)));
+    }
+
+    @Override
+    public Optional<T> max() {
+        if (root == NIL) return Optional.empty();
+
+        int node = root;
+        while (arena.right(node) != NIL) {
+            node = arena.right(node);
+        }
+        return Optional.of(arena.value(node));
+    }
+
+    @Override
+    public Iterator<T> iterator(final Traversal order) {
+        return new ArenaIterator(order);
+    }
+
+    private ArenaTree<T> withRoot(final int newRoot) {
+        return newRoot == root ? this : new ArenaTree<>(arena, newRoot);
+    }
+
+    private int leftmost(final int subtree) {
+        int node = subtree;
+        while (arena.left(node) != NIL) {
+            node = arena.left(node);
+        }
+        return node;
+    }
+
+    private int insert(final int node, final T element) {
+        if (node == NIL) return arena.allocate(element, NIL, NIL);
+
+        T value = arena.value(node);
+        int comparison = element.compareTo(value);
+        if (comparison == 0) return node;
+
+        int left = arena.left(node);
+        int right = arena.right(node);
+        if (comparison < 0) {
+            int newLeft = insert(left, element);
+            return newLeft == left ? node : balance(value, newLeft, right);
+        } else {
+            int newRight = insert(right, element);
+            return newRight == right ? node : balance(value, left, newRight);
+        }
+    }
+
+    private int remove(final int node, final T element) {
+        if (node == NIL) return NIL;
+
+        T value = arena.value(node);
+        int comparison = element.compareTo(value);
+        int left = arena.left(node);
+        int right = arena.right(node);
+        if (comparison < 0) {
+            int newLeft = remove(left, element);
+            return newLeft == left ? node : balance(value, newLeft, right);
+        } else if (comparison > 0) {
+            int newRight = remove(right, element);
+            return newRight == right ? node : balance(value, left, newRight);
+        } else if (left == NIL) {
+            return right;
+        } else if (right == NIL) {
+            return left;
+        } else {
+            return balance(arena.value(leftmost(right)), left, removeMin(right));
+        }
+    }
+
+    private int removeMin(final int node) {
+        int left = arena.left(node);
+        if (left == NIL) return arena.right(node);
+        return balance(arena.value(node), removeMin(left), arena.right(node));
+    }
+
+    /**
+     * Выделение узла из значения и двух поддеревьев с поворотом при нарушении АВЛ-условия.
+     *
+     * @see AvlNode
+     */
+    private int balance(final T value, final int left, final int right) {
+        int difference = arena.height(left) - arena.height(right);
+        if (difference > 1) {
+            int pivotLeft = arena.left(left);
+            int pivotRight = arena.right(left);
+            if (arena.height(pivotLeft) >= arena.height(pivotRight)) {
+                return arena.allocate(arena.value(left), pivotLeft, arena.allocate(value, pivotRight, right));
+            }
+            return arena.allocate(arena.value(pivotRight),
+                    arena.allocate(arena.value(left), pivotLeft, arena.left(pivotRight)),
+                    arena.allocate(value, arena.right(pivotRight), right));
+        } else if (difference < -1) {
+            int pivotLeft = arena.left(right);
+            int pivotRight = arena.right(right);
+            if (arena.height(pivotRight) >= arena.height(pivotLeft)) {
+                return arena.allocate(arena.value(right), arena.allocate(value, left, pivotLeft), pivotRight);
+            }
+            return arena.allocate(arena.value(pivotLeft),
+                    arena.allocate(value, left, arena.left(pivotLeft)),
+                    arena.allocate(arena.value(right), arena.right(pivotLeft), pivotRight));
+        }
+        return arena.allocate(value, left, right);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ArenaTree)) return false;
+        ArenaTree<?> that = (ArenaTree<?>) o;
+
+        return sameStructure(arena, root, that.arena, that.root);
+    }
+
+    private static boolean sameStructure(final NodeStore<?> arena, final int node,
+                                         final NodeStore<?> otherArena, final int otherNode) {
+        if (node == NIL || otherNode == NIL) return node == otherNode;
+        if (arena == otherArena && node == otherNode) return true;
+
+        return arena.size(node) == otherArena.size(otherNode) &&
+                arena.value(node).equals(otherArena.value(otherNode)) &&
+                sameStructure(arena, arena.left(node), otherArena, otherArena.left(otherNode)) &&
+                sameStructure(arena, arena.right(node), otherArena, otherArena.right(otherNode));
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (Iterator<T> iterator = iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+            hash = 31 * hash + iterator.next().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Итератор по номерам узлов с массивом-стеком, емкость которого известна из высоты дерева.
+     *
+     * @see TreeIterator
+     */
+    private final class ArenaIterator implements Iterator<T> {
+
+        private final Traversal order;
+
+        private final int[] stack = new int[height() + 1];
+
+        private int depth;
+
+        ArenaIterator(final Traversal order) {
+            this.order = order;
+            switch (order) {
+                case PRE_ORDER:
+                case POST_ORDER:
+                    push(root);
+                    break;
+                case IN_ORDER:
+                    pushLeftSpine(root);
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Such order of traversal is not supported: " + order);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public T next() {
+            if (depth == 0) throw new NoSuchElementException();
+
+            int node = stack[--depth];
+            switch (order) {
+                case PRE_ORDER:
+                    push(arena.right(node));
+                    push(arena.left(node));
+                    break;
+                case POST_ORDER:
+                    push(arena.left(node));
+                    push(arena.right(node));
+                    break;
+                default:
+                    pushLeftSpine(arena.right(node));
+            }
+            return arena.value(node);
+        }
+
+        private void push(final int node) {
+            if (node != NIL) stack[depth++] = node;
+        }
+
+        private void pushLeftSpine(final int subtree) {
+            int node = subtree;
+            while (node != NIL) {
+                stack[depth++] = node;
+                node = arena.left(node);
+            }
+        }
+    }
+
+}
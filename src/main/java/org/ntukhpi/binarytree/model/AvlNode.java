@@ -0,0 +1,197 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Objects;
+
+/**
+ * Непустое АВЛ-дерево.
+ * <br>Высота поддерева вычисляется один раз в конструкторе по высотам потомков,
+ * которые, в свою очередь, уже сохранены в них самих.
+ */
+final class AvlNode<T extends Comparable<? super T>> extends AvlTree<T> {
+
+    private final T value;
+
+    private final AvlTree<T> leftChild;
+
+    private final AvlTree<T> rightChild;
+
+    private final int height;
+
+    /**
+     * Структурный хеш дерева с корнем в данном узле, вычисляется при создании узла по хешам потомков.
+     */
+    private final int hash;
+
+    private final int size;
+
+    AvlNode(final T val, final AvlTree<T> left, final AvlTree<T> right) {
+        if (val == null) {
+            throw new TreeNodeValueException("This node shouldn't have null value! Value passed for check: "
+                    + val + "; left child: " + left + "; right child: " + right);
+        }
+        value = val;
+        leftChild = left;
+        rightChild = right;
+        height = Math.max(left.height(), right.height()) + 1;
+        size = left.size() + right.size() + 1;
+        hash = 31 * (31 * value.hashCode() + left.hashCode()) + right.hashCode();
+    }
+
+    @Override
+    T value() {
+        return value;
+    }
+
+    @Override
+    public AvlTree<T> left() {
+        return leftChild;
+    }
+
+    @Override
+    public AvlTree<T> right() {
+        return rightChild;
+    }
+
+    @Override
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public AvlTree<T> insert(final T element) {
+        if (element == null) return this;
+
+        int comparison = element.compareTo(value);
+        if (comparison == 0) return this;
+
+        AvlTree<T> tree;
+        if (comparison < 0) {
+            AvlTree<T> left = leftChild.insert(element);
+            tree = left == leftChild ? this : balance(value, left, rightChild);
+        } else {
+            AvlTree<T> right = rightChild.insert(element);
+            tree = right == rightChild ? this : balance(value, leftChild, right);
+        }
+        return tree;
+    }
+
+    @Override
+    public AvlTree<T> remove(final T element) {
+        if (element == null) return this;
+
+        int comparison = element.compareTo(value);
+        AvlTree<T> tree;
+        if (comparison < 0) {
+            AvlTree<T> left = leftChild.remove(element);
+            tree = left == leftChild ? this : balance(value, left, rightChild);
+        } else if (comparison > 0) {
+            AvlTree<T> right = rightChild.remove(element);
+            tree = right == rightChild ? this : balance(value, leftChild, right);
+        } else if (leftChild.isEmpty()) {
+            tree = rightChild;
+        } else if (rightChild.isEmpty()) {
+            tree = leftChild;
+        } else {
+            T successor = rightChild.min().orElseThrow(() ->
+                    new TreeNodeValueException("This node shouldn't have null value, tree structure: " + toString()));
+            tree = balance(successor, leftChild, rightChild.removeMin());
+        }
+        return tree;
+    }
+
+    @Override
+    AvlTree<T> removeMin() {
+        if (leftChild.isEmpty()) return rightChild;
+        return balance(value, leftChild.removeMin(), rightChild);
+    }
+
+    /**
+     * Слияние двух АВЛ-деревьев произвольной высоты через разделяющее значение за O(|h(left) - h(right)| + 1).
+     * <br>Более низкое дерево подвешивается к краю более высокого на уровне с близкой высотой,
+     * после чего баланс восстанавливается поворотами на обратном пути, как при вставке.
+     *
+     * @param left  левое дерево, все значения которого меньше {@code value}.
+     * @param value разделяющее значение.
+     * @param right правое дерево, все значения которого больше {@code value}.
+     * @param <U>   тип-параметр значений дерева.
+     * @return сбалансированное дерево со всеми значениями.
+     */
+    static <U extends Comparable<? super U>> AvlNode<U> join(final AvlTree<U> left,
+                                                             final U value,
+                                                             final AvlTree<U> right) {
+        AvlNode<U> node;
+        if (left.height() > right.height() + 1) {
+            AvlNode<U> pivot = (AvlNode<U>) left;
+            node = balance(pivot.value, pivot.leftChild, join(pivot.rightChild, value, right));
+        } else if (right.height() > left.height() + 1) {
+            AvlNode<U> pivot = (AvlNode<U>) right;
+            node = balance(pivot.value, join(left, value, pivot.leftChild), pivot.rightChild);
+        } else {
+            node = new AvlNode<>(value, left, right);
+        }
+        return node;
+    }
+
+    /**
+     * Сборка узла из значения и двух поддеревьев, высоты которых отличаются не более чем на 2,
+     * с одинарным или двойным поворотом при нарушении АВЛ-условия.
+     *
+     * @param value значение нового корня.
+     * @param left  левое поддерево.
+     * @param right правое поддерево.
+     * @return сбалансированный узел.
+     */
+    private static <U extends Comparable<? super U>> AvlNode<U> balance(final U value,
+                                                                          final AvlTree<U> left,
+                                                                          final AvlTree<U> right) {
+        int difference = left.height() - right.height();
+        AvlNode<U> node;
+        if (difference > 1) {
+            AvlNode<U> pivot = (AvlNode<U>) left;
+            if (pivot.balanceFactor() >= 0) {
+                node = new AvlNode<>(pivot.value, pivot.leftChild, new AvlNode<>(value, pivot.rightChild, right));
+            } else {
+                AvlNode<U> inner = (AvlNode<U>) pivot.rightChild;
+                node = new AvlNode<>(inner.value,
+                        new AvlNode<>(pivot.value, pivot.leftChild, inner.leftChild),
+                        new AvlNode<>(value, inner.rightChild, right));
+            }
+        } else if (difference < -1) {
+            AvlNode<U> pivot = (AvlNode<U>) right;
+            if (pivot.balanceFactor() <= 0) {
+                node = new AvlNode<>(pivot.value, new AvlNode<>(value, left, pivot.leftChild), pivot.rightChild);
+            } else {
+                AvlNode<U> inner = (AvlNode<U>) pivot.leftChild;
+                node = new AvlNode<>(inner.value,
+                        new AvlNode<>(value, left, inner.leftChild),
+                        new AvlNode<>(pivot.value, inner.rightChild, pivot.rightChild));
+            }
+        } else {
+            node = new AvlNode<>(value, left, right);
+        }
+        return node;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AvlNode)) return false;
+        AvlNode<?> that = (AvlNode<?>) o;
+
+        return hash == that.hash && size == that.size && height == that.height &&
+                Objects.equals(value, that.value) &&
+                Objects.equals(rightChild, that.rightChild) &&
+                Objects.equals(leftChild, that.leftChild);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
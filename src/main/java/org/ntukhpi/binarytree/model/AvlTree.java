@@ -0,0 +1,118 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Класс {@code AvlTree} является вершиной иерархии персистентного АВЛ-дерева.
+ * <br>Каждый узел хранит высоту своего поддерева, вычисленную в момент создания узла,
+ * поэтому {@link #height()} и баланс-фактор узла доступны за O(1),
+ * а повороты после вставки и удаления удерживают высоту в пределах 1.44*log2(n + 2).
+ * <br>Как и в {@link ImmutableBinaryTree}, изменения копируют только путь от корня до затронутого узла,
+ * остальные поддеревья используются совместно всеми версиями дерева.
+ * <p>
+ * <p>Данный абстрактный класс имеет двух потомков:
+ * <br> - {@link EmptyAvlTree} - пустое дерево. Final класс, синглтон.
+ * <br> - {@link AvlNode} - непустое дерево с кэшированной высотой.
+ *
+ * @see TreeFactory#avlTree(Comparable[])
+ */
+abstract class AvlTree<T extends Comparable<? super T>> extends AbstractNavigableTree<T> {
+
+    /**
+     * Рекурсивное удаление минимального значения.
+     *
+     * @return корень нового поддерева.
+     */
+    abstract AvlTree<T> removeMin();
+
+    @Override
+    public abstract AvlTree<T> insert(T value);
+
+    @Override
+    public abstract AvlTree<T> remove(T value);
+
+    @Override
+    public abstract AvlTree<T> left();
+
+    @Override
+    public abstract AvlTree<T> right();
+
+    /**
+     * Высота дерева, сохраненная в узле. Не требует обхода поддеревьев.
+     *
+     * @return высота дерева.
+     */
+    @Override
+    public abstract int height();
+
+    /**
+     * Баланс-фактор дерева - разница высот левого и правого поддеревьев.
+     * <br>Для любого узла АВЛ-дерева находится в пределах [-1, 1].
+     *
+     * @return баланс-фактор.
+     */
+    int balanceFactor() {
+        return left().height() - right().height();
+    }
+
+    @Override
+    public AvlTree<T> insertAll(final Collection<? extends T> values) {
+        return applyBatch(values, Collections.<T>emptyList());
+    }
+
+    @Override
+    public AvlTree<T> removeAll(final Collection<? extends T> values) {
+        return applyBatch(Collections.<T>emptyList(), values);
+    }
+
+    @Override
+    public AvlTree<T> applyBatch(final Collection<? extends T> insertions, final Collection<? extends T> removals) {
+        return (AvlTree<T>) AvlTree.<T>operations().apply(this, insertions, removals);
+    }
+
+    @Override
+    public AvlTree<T> union(final Tree<T> other) {
+        return (AvlTree<T>) AvlTree.<T>operations().union(this, adopt(other));
+    }
+
+    @Override
+    public AvlTree<T> intersection(final Tree<T> other) {
+        return (AvlTree<T>) AvlTree.<T>operations().intersection(this, adopt(other));
+    }
+
+    @Override
+    public AvlTree<T> difference(final Tree<T> other) {
+        return (AvlTree<T>) AvlTree.<T>operations().difference(this, adopt(other));
+    }
+
+    /**
+     * Операции над множествами на основе {@link AvlNode#join(AvlTree, Comparable, AvlTree)}:
+     * O(m * log(n / m + 1)) для деревьев размеров m <= n.
+     */
+    private static <U extends Comparable<? super U>> SetOperations<U> operations() {
+        return new SetOperations<U>((left, value, right) ->
+                AvlNode.join((AvlTree<U>) left, value, (AvlTree<U>) right),
+                EmptyAvlTree.<U>instance());
+    }
+
+    /**
+     * Приведение второго операнда к данному семейству: деревья другого семейства
+     * перестраиваются в идеально сбалансированное АВЛ-дерево за O(m) по их внутреннему обходу.
+     */
+    private static <U extends Comparable<? super U>> AvlTree<U> adopt(final Tree<U> tree) {
+        if (tree instanceof AvlTree) return (AvlTree<U>) tree;
+        return (AvlTree<U>) AvlTree.<U>operations().build(tree.iterator(Traversal.IN_ORDER), tree.size());
+    }
+
+    @Override
+    public AvlTree<T> clear() {
+        return EmptyAvlTree.instance();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this == EmptyAvlTree.instance();
+    }
+
+}
@@ -0,0 +1,687 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Персистентное B+дерево с широкими узлами.
+ * <br>Значения хранятся в листьях - отсортированных массивах длиной до {@code fanout}; внутренний узел хранит
+ * до {@code fanout} потомков и минимальное значение каждого из них. Поиск внутри узла двоичный
+ * (для узлов до {@value #LINEAR_SEARCH_LIMIT} элементов - линейный), поэтому поиск значения проходит
+ * log<sub>fanout</sub>(n) узлов вместо log<sub>2</sub>(n), и каждый узел - это один-два непрерывных массива.
+ * <br>Как и у остальных деревьев пакета, изменения не трогают исходную версию: копируются только узлы пути,
+ * остальные узлы используются совместно. Каждый узел хранит размер поддерева, поэтому ранг, поиск по номеру
+ * и подсчет в диапазоне выполняются за один спуск.
+ * <br>Бинарная навигация ({@link #left()}, {@link #right()}, {@link #getRoot()}) - это неявное идеально
+ * сбалансированное дерево над отсортированной последовательностью значений: корень - средний по номеру элемент,
+ * потомки - представления половин последовательности. Представления не копируют узлы, а изменение представления
+ * строит из его значений новое B+дерево. Высота ({@link #height()}) тоже относится к бинарному представлению.
+ *
+ * @see TreeFactory#bPlusTreeWithFanout(int)
+ */
+final class BPlusTree<T extends Comparable<? super T>> extends AbstractNavigableTree<T> {
+
+    /**
+     * Размер узла по умолчанию: 64 ссылки занимают 4-8 кеш-линий.
+     */
+    static final int DEFAULT_FANOUT = 64;
+
+    static final int MIN_FANOUT = 4;
+
+    static final int MAX_FANOUT = 1024;
+
+    /**
+     * Узлы не длиннее этого значения просматриваются линейно: на коротких массивах это быстрее двоичного поиска.
+     */
+    static final int LINEAR_SEARCH_LIMIT = 16;
+
+    /**
+     * Размер массива значений, начиная с которого объединение, пересечение и разность
+     * строят результат слиянием последовательностей, а не поэлементными изменениями.
+     */
+    private static final int MERGE_RATIO = 16;
+
+    /**
+     * Корень B+дерева; null - пустое дерево.
+     */
+    private final Node root;
+
+    private final int fanout;
+
+    /**
+     * Начало (включительно) и конец (не включительно) представления в последовательности значений корня.
+     */
+    private final int from;
+
+    private final int to;
+
+    BPlusTree(final int fanout) {
+        this(null, checkFanout(fanout), 0, 0);
+    }
+
+    private BPlusTree(final Node root, final int fanout, final int from, final int to) {
+        this.root = root;
+        this.fanout = fanout;
+        this.from = from;
+        this.to = to;
+    }
+
+    private static int checkFanout(final int fanout) {
+        if (fanout < MIN_FANOUT || fanout > MAX_FANOUT) {
+            throw new IllegalArgumentException("Fanout must be in [" + MIN_FANOUT + ", " + MAX_FANOUT + "]: " + fanout);
+        }
+        return fanout;
+    }
+
+    private BPlusTree<T> of(final Node newRoot) {
+        if (newRoot == root && whole()) return this;
+        return new BPlusTree<>(newRoot, fanout, 0, size(newRoot));
+    }
+
+    /**
+     * @return true, если это все дерево, а не представление части последовательности.
+     */
+    private boolean whole() {
+        return from == 0 && to == size(root);
+    }
+
+    /**
+     * Новое B+дерево из значений представления.
+     */
+    private BPlusTree<T> materialize() {
+        if (whole()) return this;
+        return build(toArray(), size());
+    }
+
+    /**
+     * Построение дерева из отсортированного массива без повторов снизу вверх за O(n):
+     * значения поровну распределяются по минимально возможному числу листьев, затем так же - уровни выше.
+     */
+    BPlusTree<T> build(final Object[] sorted, final int count) {
+        if (count == 0) return new BPlusTree<>(null, fanout, 0, 0);
+
+        int leaves = (count + fanout - 1) / fanout;
+        Node[] level = new Node[leaves];
+        for (int i = 0, offset = 0; i < leaves; i++) {
+            int length = share(count, leaves, i);
+            level[i] = new Node(Arrays.copyOfRange(sorted, offset, offset + length), null);
+            offset += length;
+        }
+        while (level.length > 1) {
+            int parents = (level.length + fanout - 1) / fanout;
+            Node[] upper = new Node[parents];
+            for (int i = 0, offset = 0; i < parents; i++) {
+                int length = share(level.length, parents, i);
+                upper[i] = Node.internal(Arrays.copyOfRange(level, offset, offset + length));
+                offset += length;
+            }
+            level = upper;
+        }
+        return new BPlusTree<>(level[0], fanout, 0, count);
+    }
+
+    /**
+     * Доля i-й из {@code parts} частей при равномерном делении {@code total} элементов.
+     */
+    private static int share(final int total, final int parts, final int index) {
+        return total / parts + (index < total % parts ? 1 : 0);
+    }
+
+    @Override
+    T value() {
+        return isEmpty() ? null : element(middle());
+    }
+
+    private int middle() {
+        return (from + to) >>> 1;
+    }
+
+    @Override
+    public BPlusTree<T> left() {
+        return isEmpty() ? this : new BPlusTree<>(root, fanout, from, middle());
+    }
+
+    @Override
+    public BPlusTree<T> right() {
+        return isEmpty() ? this : new BPlusTree<>(root, fanout, middle() + 1, to);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * Высота неявного бинарного представления: ⌈log2(n + 1)⌉.
+     */
+    @Override
+    public int height() {
+        return 32 - Integer.numberOfLeadingZeros(size());
+    }
+
+    @Override
+    public BPlusTree<T> clear() {
+        return new BPlusTree<>(null, fanout, 0, 0);
+    }
+
+    @Override
+    public boolean contains(final T element) {
+        if (element == null || isEmpty()) return false;
+
+        int position = rankInRoot(element, false);
+        return position >= from && position < to && element.compareTo(element(position)) == 0;
+    }
+
+    @Override
+    public Optional<T> min() {
+        return select(0);
+    }
+
+    @Override
+    public Optional<T> max() {
+        return select(size() - 1);
+    }
+
+    @Override
+    int rank(final T element, final boolean inclusive) {
+        if (element == null) return 0;
+        return Math.max(0, Math.min(rankInRoot(element, inclusive), to) - from);
+    }
+
+    @Override
+    public Optional<T> select(final int index) {
+        if (index < 0 || index >= size()) return Optional.empty();
+        return Optional.of(element(from + index));
+    }
+
+    @Override
+    public Optional<T> floor(final T element) {
+        return element == null ? Optional.empty() : select(rank(element, true) - 1);
+    }
+
+    @Override
+    public Optional<T> lower(final T element) {
+        return element == null ? Optional.empty() : select(rank(element, false) - 1);
+    }
+
+    @Override
+    public Optional<T> ceiling(final T element) {
+        return element == null ? Optional.empty() : select(rank(element, false));
+    }
+
+    @Override
+    public Optional<T> higher(final T element) {
+        return element == null ? Optional.empty() : select(rank(element, true));
+    }
+
+    /**
+     * Ранг значения во всей последовательности корня за один спуск.
+     */
+    private int rankInRoot(final T element, final boolean inclusive) {
+        if (root == null) return 0;
+
+        int rank = 0;
+        Node node = root;
+        while (node.children != null) {
+            int child = childIndex(node, element);
+            for (int i = 0; i < child; i++) {
+                rank += node.children[i].size;
+            }
+            node = node.children[child];
+        }
+        int position = search(node.keys, element);
+        return position >= 0 ? rank + position + (inclusive ? 1 : 0) : rank - position - 1;
+    }
+
+    /**
+     * Значение с указанным номером во всей последовательности корня.
+     */
+    @SuppressWarnings("unchecked")
+    private T element(final int position) {
+        Node node = root;
+        int index = position;
+        while (node.children != null) {
+            int child = 0;
+            while (index >= node.children[child].size) {
+                index -= node.children[child++].size;
+            }
+            node = node.children[child];
+        }
+        return (T) node.keys[index];
+    }
+
+    @Override
+    public BPlusTree<T> insert(final T element) {
+        if (element == null) return this;
+        if (!whole()) return materialize().insert(element);
+        if (root == null) return of(new Node(new Object[]{element}, null));
+
+        Node[] result = insert(root, element);
+        if (result == null) return this;
+        return of(result.length == 1 ? result[0] : Node.internal(result));
+    }
+
+    /**
+     * Вставка в поддерево.
+     *
+     * @return null, если значение уже есть; иначе один узел или два, если узел пришлось разделить.
+     */
+    private Node[] insert(final Node node, final T element) {
+        if (node.children == null) {
+            int position = search(node.keys, element);
+            if (position >= 0) return null;
+
+            Object[] keys = insertAt(node.keys, -position - 1, element);
+            if (keys.length <= fanout) return new Node[]{new Node(keys, null)};
+            int half = keys.length / 2;
+            return new Node[]{
+                    new Node(Arrays.copyOfRange(keys, 0, half), null),
+                    new Node(Arrays.copyOfRange(keys, half, keys.length), null)
+            };
+        }
+
+        int child = childIndex(node, element);
+        Node[] replacement = insert(node.children[child], element);
+        if (replacement == null) return null;
+
+        Node[] children = replace(node.children, child, 1, replacement);
+        if (children.length <= fanout) return new Node[]{Node.internal(children)};
+        int half = children.length / 2;
+        return new Node[]{
+                Node.internal(Arrays.copyOfRange(children, 0, half)),
+                Node.internal(Arrays.copyOfRange(children, half, children.length))
+        };
+    }
+
+    @Override
+    public BPlusTree<T> remove(final T element) {
+        if (element == null) return this;
+        if (!whole()) return materialize().remove(element);
+        if (root == null) return this;
+
+        Node result = remove(root, element);
+        if (result == null) return this;
+        if (result.children != null && result.children.length == 1) {
+            result = result.children[0];
+        }
+        return of(result.size == 0 ? null : result);
+    }
+
+    /**
+     * Удаление из поддерева. Результат может содержать меньше {@code fanout / 2} элементов:
+     * такой узел сливается с соседом или забирает у него часть элементов на уровне родителя.
+     *
+     * @return null, если значения нет; иначе новый узел.
+     */
+    private Node remove(final Node node, final T element) {
+        if (node.children == null) {
+            int position = search(node.keys, element);
+            if (position < 0) return null;
+            return new Node(removeAt(node.keys, position), null);
+        }
+
+        int child = childIndex(node, element);
+        Node replacement = remove(node.children[child], element);
+        if (replacement == null) return null;
+
+        Node[] children;
+        if (replacement.entries() >= fanout / 2) {
+            children = replace(node.children, child, 1, new Node[]{replacement});
+        } else {
+            int first = child > 0 ? child - 1 : child;
+            Node left = first == child ? replacement : node.children[first];
+            Node right = first == child ? node.children[child + 1] : replacement;
+            children = replace(node.children, first, 2, redistribute(left, right));
+        }
+        return Node.internal(children);
+    }
+
+    /**
+     * Слияние двух соседних узлов одного уровня либо, если элементов больше {@code fanout}, деление их поровну.
+     */
+    private Node[] redistribute(final Node left, final Node right) {
+        boolean leaves = left.children == null;
+        Object[] entries = leaves ? concat(left.keys, right.keys) : concat(left.children, right.children);
+        if (entries.length <= fanout) return new Node[]{node(entries, leaves)};
+
+        int half = entries.length / 2;
+        return new Node[]{
+                node(Arrays.copyOfRange(entries, 0, half), leaves),
+                node(Arrays.copyOfRange(entries, half, entries.length), leaves)
+        };
+    }
+
+    private static Node node(final Object[] entries, final boolean leaf) {
+        return leaf ? new Node(entries, null) : Node.internal(Arrays.copyOf(entries, entries.length, Node[].class));
+    }
+
+    @Override
+    public Tree<T> applyBatch(final Collection<? extends T> insertions, final Collection<? extends T> removals) {
+        if ((insertions.size() + removals.size()) * MERGE_RATIO < size()) return super.applyBatch(insertions, removals);
+
+        BPlusTree<T> remaining = removals.isEmpty() ? this : (BPlusTree<T>) difference(batch(removals));
+        return insertions.isEmpty() ? remaining : remaining.union(batch(insertions));
+    }
+
+    private BPlusTree<T> batch(final Collection<? extends T> values) {
+        List<T> sorted = new ArrayList<>(values.size());
+        for (T value : values) {
+            if (value != null) sorted.add(value);
+        }
+        sorted.sort(null);
+        Object[] distinct = new Object[sorted.size()];
+        int count = 0;
+        for (T value : sorted) {
+            if (count == 0 || compare(distinct[count - 1], value) != 0) distinct[count++] = value;
+        }
+        return build(distinct, count);
+    }
+
+    /**
+     * Объединение слиянием двух отсортированных последовательностей за O(n + m),
+     * если второе дерево не слишком мало по сравнению с текущим.
+     */
+    @Override
+    public Tree<T> union(final Tree<T> other) {
+        if (other.size() * MERGE_RATIO < size()) return super.union(other);
+        return merge(other, true, true, true);
+    }
+
+    @Override
+    public Tree<T> intersection(final Tree<T> other) {
+        if (other.size() * MERGE_RATIO < size() || size() * MERGE_RATIO < other.size()) return super.intersection(other);
+        return merge(other, false, true, false);
+    }
+
+    @Override
+    public Tree<T> difference(final Tree<T> other) {
+        if (other.size() * MERGE_RATIO < size() || size() * MERGE_RATIO < other.size()) return super.difference(other);
+        return merge(other, true, false, false);
+    }
+
+    /**
+     * Слияние внутренних обходов двух деревьев.
+     * <br>Если результат совпадает с текущим деревом (ни одно значение не отброшено и не добавлено),
+     * возвращается само текущее дерево.
+     *
+     * @param onlyThis  оставлять ли значения, которые есть только в текущем дереве.
+     * @param both      оставлять ли значения, которые есть в обоих деревьях.
+     * @param onlyOther оставлять ли значения, которые есть только во втором дереве.
+     */
+    private BPlusTree<T> merge(final Tree<T> other, final boolean onlyThis, final boolean both, final boolean onlyOther) {
+        Object[] result = new Object[size() + other.size()];
+        int count = 0;
+        Iterator<T> left = iterator(Traversal.IN_ORDER);
+        Iterator<T> right = other.iterator(Traversal.IN_ORDER);
+        T a = left.hasNext() ? left.next() : null;
+        T b = right.hasNext() ? right.next() : null;
+        boolean unchanged = true;
+        while (a != null || b != null) {
+            int comparison = a == null ? 1 : b == null ? -1 : a.compareTo(b);
+            if (comparison < 0) {
+                if (onlyThis) result[count++] = a;
+                unchanged &= onlyThis;
+                a = left.hasNext() ? left.next() : null;
+            } else if (comparison > 0) {
+                if (onlyOther) result[count++] = b;
+                unchanged &= !onlyOther;
+                b = right.hasNext() ? right.next() : null;
+            } else {
+                if (both) result[count++] = a;
+                unchanged &= both;
+                a = left.hasNext() ? left.next() : null;
+                b = right.hasNext() ? right.next() : null;
+            }
+        }
+        return unchanged ? this : build(result, count);
+    }
+
+    private Object[] toArray() {
+        Object[] values = new Object[size()];
+        Iterator<T> iterator = iterator(Traversal.IN_ORDER);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = iterator.next();
+        }
+        return values;
+    }
+
+    /**
+     * Внутренний обход идет по листьям B+дерева; остальные порядки - по бинарному представлению.
+     */
+    @Override
+    public Iterator<T> iterator(final Traversal order) {
+        if (order == Traversal.IN_ORDER) return new LeafIterator<>(root, from, size());
+        return super.iterator(order);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BPlusTree)) return false;
+        BPlusTree<?> that = (BPlusTree<?>) o;
+        if (size() != that.size()) return false;
+
+        Iterator<?> iterator = iterator(Traversal.IN_ORDER);
+        Iterator<?> other = that.iterator(Traversal.IN_ORDER);
+        while (iterator.hasNext()) {
+            if (!iterator.next().equals(other.next())) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (Iterator<T> iterator = iterator(Traversal.IN_ORDER); iterator.hasNext(); ) {
+            hash = 31 * hash + iterator.next().hashCode();
+        }
+        return hash;
+    }
+
+    private static int size(final Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(final Object value, final Object other) {
+        return ((Comparable<Object>) value).compareTo(other);
+    }
+
+    /**
+     * Поиск значения в отсортированном массиве.
+     *
+     * @return номер значения либо (-(точка вставки) - 1), как у {@link Arrays#binarySearch(Object[], Object)}.
+     */
+    private static int search(final Object[] keys, final Object key) {
+        if (keys.length <= LINEAR_SEARCH_LIMIT) {
+            for (int i = 0; i < keys.length; i++) {
+                int comparison = compare(keys[i], key);
+                if (comparison == 0) return i;
+                if (comparison > 0) return -i - 1;
+            }
+            return -keys.length - 1;
+        }
+
+        int low = 0;
+        int high = keys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(keys[mid], key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * Номер потомка внутреннего узла, в поддереве которого может находиться значение:
+     * последний потомок с минимумом не больше значения, либо первый.
+     */
+    private static int childIndex(final Node node, final Object key) {
+        int position = search(node.keys, key);
+        return position >= 0 ? position : Math.max(-position - 2, 0);
+    }
+
+    private static Object[] insertAt(final Object[] keys, final int index, final Object key) {
+        Object[] result = new Object[keys.length + 1];
+        System.arraycopy(keys, 0, result, 0, index);
+        result[index] = key;
+        System.arraycopy(keys, index, result, index + 1, keys.length - index);
+        return result;
+    }
+
+    private static Object[] removeAt(final Object[] keys, final int index) {
+        Object[] result = new Object[keys.length - 1];
+        System.arraycopy(keys, 0, result, 0, index);
+        System.arraycopy(keys, index + 1, result, index, keys.length - index - 1);
+        return result;
+    }
+
+    /**
+     * Замена {@code count} потомков, начиная с {@code index}, на {@code replacement}.
+     */
+    private static Node[] replace(final Node[] children, final int index, final int count, final Node[] replacement) {
+        Node[] result = new Node[children.length - count + replacement.length];
+        System.arraycopy(children, 0, result, 0, index);
+        System.arraycopy(replacement, 0, result, index, replacement.length);
+        System.arraycopy(children, index + count, result, index + replacement.length, children.length - index - count);
+        return result;
+    }
+
+    private static Object[] concat(final Object[] left, final Object[] right) {
+        Object[] result = Arrays.copyOf(left, left.length + right.length, Object[].class);
+        System.arraycopy(right, 0, result, left.length, right.length);
+        return result;
+    }
+
+    /**
+     * Узел B+дерева. У листа {@code children == null}, а {@code keys} - его значения;
+     * у внутреннего узла {@code keys[i]} - минимальное значение поддерева {@code children[i]}.
+     */
+    private static final class Node {
+
+        private final Object[] keys;
+
+        private final Node[] children;
+
+        /**
+         * Количество значений в поддереве.
+         */
+        private final int size;
+
+        Node(final Object[] keys, final Node[] children) {
+            this.keys = keys;
+            this.children = children;
+            int count = keys.length;
+            if (children != null) {
+                count = 0;
+                for (Node child : children) {
+                    count += child.size;
+                }
+            }
+            size = count;
+        }
+
+        static Node internal(final Node[] children) {
+            Object[] keys = new Object[children.length];
+            for (int i = 0; i < children.length; i++) {
+                keys[i] = children[i].keys[0];
+            }
+            return new Node(keys, children);
+        }
+
+        /**
+         * @return количество элементов узла: значений листа или потомков внутреннего узла.
+         */
+        int entries() {
+            return children == null ? keys.length : children.length;
+        }
+    }
+
+    /**
+     * Итератор по значениям листьев, начиная с указанного номера.
+     * <br>Путь от корня до текущего листа хранится в массивах, длина которых равна числу уровней дерева.
+     */
+    private static final class LeafIterator<T> implements Iterator<T> {
+
+        private final Node[] path;
+
+        private final int[] indexes;
+
+        private Node leaf;
+
+        private int index;
+
+        private int remaining;
+
+        LeafIterator(final Node root, final int start, final int count) {
+            int levels = 0;
+            for (Node node = root; node != null && node.children != null; node = node.children[0]) {
+                levels++;
+            }
+            path = new Node[levels];
+            indexes = new int[levels];
+            remaining = count;
+            if (count == 0) return;
+
+            Node node = root;
+            int position = start;
+            for (int level = 0; level < levels; level++) {
+                int child = 0;
+                while (position >= node.children[child].size) {
+                    position -= node.children[child++].size;
+                }
+                path[level] = node;
+                indexes[level] = child;
+                node = node.children[child];
+            }
+            leaf = node;
+            index = position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (remaining == 0) throw new NoSuchElementException();
+
+            if (index == leaf.keys.length) {
+                int level = path.length - 1;
+                while (indexes[level] + 1 == path[level].children.length) {
+                    level--;
+                }
+                indexes[level]++;
+                Node node = path[level].children[indexes[level]];
+                for (level++; level < path.length; level++) {
+                    path[level] = node;
+                    indexes[level] = 0;
+                    node = node.children[0];
+                }
+                leaf = node;
+                index = 0;
+            }
+            remaining--;
+            return (T) leaf.keys[index++];
+        }
+    }
+
+}
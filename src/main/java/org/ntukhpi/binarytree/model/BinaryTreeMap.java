@@ -0,0 +1,498 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Реализация {@link ImmutableTreeMap} на несбалансированном бинарном дереве поиска.
+ * <br>Вставка и удаление ключей повторяют алгоритмы {@link NonEmptyTree} (включая выбор нового корня
+ * в {@link DualBranch#cut()}), поэтому форма дерева ключей совпадает с {@link ImmutableBinaryTree},
+ * построенным той же последовательностью операций.
+ * <br>Как и в {@link CompactTree}, дерево состоит из единственного final-класса узла {@link Node}
+ * с размером и высотой поддерева, а объект {@code BinaryTreeMap} - лишь дескриптор корня.
+ * Узел одновременно является парой {@link Map.Entry}, поэтому обход не создает промежуточных объектов.
+ * <br>Обновление значения копирует только узлы пути к ключу: ключи, размеры и высоты переносятся как есть,
+ * а поддеревья вне пути используются совместно с исходной версией.
+ *
+ * @see TreeFactory#immutableTreeMap()
+ */
+final class BinaryTreeMap<K extends Comparable<? super K>, V> implements ImmutableTreeMap<K, V> {
+
+    @SuppressWarnings("rawtypes")
+    private static final BinaryTreeMap EMPTY = new BinaryTreeMap<>(null);
+
+    /**
+     * Корень дерева; null - пустое отображение.
+     */
+    private final Node<K, V> root;
+
+    private BinaryTreeMap(final Node<K, V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <L extends Comparable<? super L>, W> BinaryTreeMap<L, W> instance() {
+        return EMPTY;
+    }
+
+    private static <L extends Comparable<? super L>, W> BinaryTreeMap<L, W> of(final Node<L, W> root) {
+        return root == null ? BinaryTreeMap.<L, W>instance() : new BinaryTreeMap<>(root);
+    }
+
+    /**
+     * Построение сбалансированного отображения из пар произвольного {@link Map}.
+     * <br>Пары сортируются по ключу (для уже упорядоченных пар это один проход), после чего дерево собирается
+     * из середин отрезков, как в {@link TreeBuilder#balanced(Comparable[], int, int)}, поэтому его высота - log2(n) + 1.
+     * <br>Из пар с равными по {@link Comparable#compareTo} ключами остается значение последней в порядке итерации,
+     * как при последовательных вызовах {@link #put}.
+     *
+     * @param entries исходные пары; ключи и значения не могут быть null.
+     * @param <L>     тип-параметр ключей.
+     * @param <W>     тип-параметр значений.
+     * @return новое отображение.
+     */
+    static <L extends Comparable<? super L>, W> BinaryTreeMap<L, W> balanced(final Map<L, W> entries) {
+        List<Node<L, W>> pairs = new ArrayList<>(entries.size());
+        for (Map.Entry<L, W> entry : entries.entrySet()) {
+            pairs.add(new Node<>(Objects.requireNonNull(entry.getKey()), Objects.requireNonNull(entry.getValue()), null, null));
+        }
+        pairs.sort((pair, other) -> pair.key.compareTo(other.key));
+
+        int distinct = 0;
+        for (Node<L, W> pair : pairs) {
+            if (distinct > 0 && pairs.get(distinct - 1).key.compareTo(pair.key) == 0) {
+                pairs.set(distinct - 1, pairs.get(distinct - 1).withValue(pair.value));
+            } else {
+                pairs.set(distinct++, pair);
+            }
+        }
+        return of(balanced(pairs, 0, distinct));
+    }
+
+    private static <L extends Comparable<? super L>, W> Node<L, W> balanced(final List<Node<L, W>> sorted,
+                                                                            final int from, final int to) {
+        if (from >= to) return null;
+
+        int mid = from + (to - from) / 2;
+        Node<L, W> pair = sorted.get(mid);
+        return new Node<>(pair.key, pair.value, balanced(sorted, from, mid), balanced(sorted, mid + 1, to));
+    }
+
+    @Override
+    public Optional<V> get(final K key) {
+        Node<K, V> node = find(key);
+        return node == null ? Optional.empty() : Optional.of(node.value);
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        return find(key) != null;
+    }
+
+    private Node<K, V> find(final K key) {
+        if (key == null) return null;
+
+        Node<K, V> node = root;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison == 0) {
+                return node;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    @Override
+    public BinaryTreeMap<K, V> put(final K key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        return compute(key, (k, v) -> value);
+    }
+
+    @Override
+    public BinaryTreeMap<K, V> remove(final K key) {
+        if (key == null) return this;
+        return compute(key, (k, v) -> null);
+    }
+
+    @Override
+    public BinaryTreeMap<K, V> compute(final K key, final BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(key);
+
+        Node<K, V>[] path = path(root);
+        boolean[] wentLeft = new boolean[path.length];
+        int depth = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            int comparison = key.compareTo(node.key);
+            if (comparison == 0) break;
+
+            path[depth] = node;
+            wentLeft[depth++] = comparison < 0;
+            node = comparison < 0 ? node.left : node.right;
+        }
+
+        V value = function.apply(key, node == null ? null : node.value);
+        Node<K, V> replacement;
+        if (node == null) {
+            if (value == null) return this;
+            replacement = new Node<>(key, value, null, null);
+        } else if (value == null) {
+            replacement = cut(node);
+        } else if (value == node.value) {
+            return this;
+        } else {
+            replacement = node.withValue(value);
+        }
+        return of(rebuild(path, wentLeft, depth, replacement));
+    }
+
+    /**
+     * Удаление корня поддерева. Новым корнем становится максимум левого поддерева,
+     * если оно не меньше правого, иначе минимум правого.
+     *
+     * @see DualBranch#cut()
+     */
+    private static <L extends Comparable<? super L>, W> Node<L, W> cut(final Node<L, W> node) {
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+
+        if (size(node.left) >= size(node.right)) {
+            Node<L, W> max = rightmost(node.left);
+            return new Node<>(max.key, max.value, removeExtreme(node.left, false), node.right);
+        } else {
+            Node<L, W> min = leftmost(node.right);
+            return new Node<>(min.key, min.value, node.left, removeExtreme(node.right, true));
+        }
+    }
+
+    /**
+     * Удаление минимального (или максимального) узла поддерева с копированием пути к нему.
+     */
+    private static <L extends Comparable<? super L>, W> Node<L, W> removeExtreme(final Node<L, W> subtree,
+                                                                                 final boolean minimum) {
+        Node<L, W>[] path = path(subtree);
+        boolean[] wentLeft = new boolean[path.length];
+        int depth = 0;
+        Node<L, W> node = subtree;
+        while ((minimum ? node.left : node.right) != null) {
+            path[depth] = node;
+            wentLeft[depth++] = minimum;
+            node = minimum ? node.left : node.right;
+        }
+        return rebuild(path, wentLeft, depth, minimum ? node.right : node.left);
+    }
+
+    /**
+     * Буфер пути, емкость которого известна заранее из высоты, сохраненной в корне.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <L extends Comparable<? super L>, W> Node<L, W>[] path(final Node<L, W> root) {
+        return new Node[height(root)];
+    }
+
+    private static <L extends Comparable<? super L>, W> Node<L, W> rebuild(final Node<L, W>[] path,
+                                                                           final boolean[] wentLeft,
+                                                                           final int depth, final Node<L, W> bottom) {
+        Node<L, W> node = bottom;
+        for (int level = depth - 1; level >= 0; level--) {
+            node = path[level].withChild(wentLeft[level], node);
+        }
+        return node;
+    }
+
+    private static <L extends Comparable<? super L>, W> Node<L, W> leftmost(final Node<L, W> subtree) {
+        Node<L, W> node = subtree;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static <L extends Comparable<? super L>, W> Node<L, W> rightmost(final Node<L, W> subtree) {
+        Node<L, W> node = subtree;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    private static int size(final Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(final Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    @Override
+    public BinaryTreeMap<K, V> clear() {
+        return instance();
+    }
+
+    @Override
+    public Optional<Map.Entry<K, V>> min() {
+        return root == null ? Optional.empty() : Optional.of(leftmost(root));
+    }
+
+    @Override
+    public Optional<Map.Entry<K, V>> max() {
+        return root == null ? Optional.empty() : Optional.of(rightmost(root));
+    }
+
+    @Override
+    public List<K> keys(final Traversal order) {
+        List<K> keys = new ArrayList<>(size());
+        for (Iterator<Map.Entry<K, V>> iterator = iterator(order); iterator.hasNext(); ) {
+            keys.add(iterator.next().getKey());
+        }
+        return keys;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator(final Traversal order) {
+        return new NodeIterator<>(root, order);
+    }
+
+    @Override
+    public Stream<Map.Entry<K, V>> stream(final Traversal order) {
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        return StreamSupport.stream(Spliterators.spliterator(iterator(order), size(), characteristics), false);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public int height() {
+        return height(root);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BinaryTreeMap)) return false;
+        BinaryTreeMap<?, ?> that = (BinaryTreeMap<?, ?>) o;
+
+        return sameStructure(root, that.root);
+    }
+
+    /**
+     * Сравнение структуры обходом пар узлов в цикле, как в {@link NonEmptyTree#equals(Object)}:
+     * общие (совпадающие по ссылке) поддеревья не обходятся.
+     */
+    private static boolean sameStructure(final Node<?, ?> root, final Node<?, ?> otherRoot) {
+        Deque<Node<?, ?>> pending = new ArrayDeque<>();
+        if (!schedule(pending, root, otherRoot)) return false;
+        while (!pending.isEmpty()) {
+            Node<?, ?> other = pending.pop();
+            Node<?, ?> node = pending.pop();
+            if (node.size != other.size || !node.key.equals(other.key) || !node.value.equals(other.value)) return false;
+            if (!schedule(pending, node.left, other.left) || !schedule(pending, node.right, other.right)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Добавление пары узлов к сравнению; пара совпадающих по ссылке узлов (в том числе пустых) не добавляется.
+     *
+     * @return false, если пустым оказался только один из узлов.
+     */
+    private static boolean schedule(final Deque<Node<?, ?>> pending, final Node<?, ?> node, final Node<?, ?> other) {
+        if (node == other) return true;
+        if (node == null || other == null) return false;
+
+        pending.push(node);
+        pending.push(other);
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (Iterator<Map.Entry<K, V>> iterator = iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+            hash = 31 * hash + iterator.next().hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toString(root);
+    }
+
+    private static String toString(final Node<?, ?> node) {
+        if (node == null) return "_";
+        return "(" + toString(node.left) + " " + node + " " + toString(node.right) + ")";
+    }
+
+    /**
+     * Узел дерева и одновременно неизменяемая пара ключ-значение.
+     * Размер и высота поддерева вычисляются в конструкторе по потомкам либо переносятся из копируемого узла.
+     */
+    private static final class Node<K, V> implements Map.Entry<K, V> {
+
+        private final K key;
+
+        private final V value;
+
+        private final Node<K, V> left;
+
+        private final Node<K, V> right;
+
+        private final int size;
+
+        private final int height;
+
+        Node(final K key, final V value, final Node<K, V> left, final Node<K, V> right) {
+            this(key, value, left, right,
+                    size(left) + size(right) + 1, Math.max(height(left), height(right)) + 1);
+        }
+
+        private Node(final K key, final V value, final Node<K, V> left, final Node<K, V> right,
+                     final int size, final int height) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size;
+            this.height = height;
+        }
+
+        /**
+         * Копия узла с другим значением: ключ, потомки, размер и высота не меняются.
+         */
+        Node<K, V> withValue(final V newValue) {
+            return new Node<>(key, newValue, left, right, size, height);
+        }
+
+        Node<K, V> withChild(final boolean leftChild, final Node<K, V> child) {
+            if (child == (leftChild ? left : right)) return this;
+            return leftChild ? new Node<>(key, value, child, right) : new Node<>(key, value, left, child);
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            throw new UnsupportedOperationException("Tree map entries are immutable");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+
+            return key.equals(that.getKey()) && value.equals(that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * Итератор по узлам с массивом-стеком, емкость которого известна из высоты дерева.
+     *
+     * @see TreeIterator
+     */
+    private static final class NodeIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        private final Traversal order;
+
+        private final Node<K, V>[] stack;
+
+        private int depth;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        NodeIterator(final Node<K, V> root, final Traversal order) {
+            this.order = order;
+            stack = new Node[height(root) + 1];
+            switch (order) {
+                case PRE_ORDER:
+                case POST_ORDER:
+                    push(root);
+                    break;
+                case IN_ORDER:
+                    pushLeftSpine(root);
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Such order of traversal is not supported: " + order);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (depth == 0) throw new NoSuchElementException();
+
+            Node<K, V> node = stack[--depth];
+            stack[depth] = null;
+            switch (order) {
+                case PRE_ORDER:
+                    push(node.right);
+                    push(node.left);
+                    break;
+                case POST_ORDER:
+                    push(node.left);
+                    push(node.right);
+                    break;
+                default:
+                    pushLeftSpine(node.right);
+            }
+            return node;
+        }
+
+        private void push(final Node<K, V> node) {
+            if (node != null) stack[depth++] = node;
+        }
+
+        private void pushLeftSpine(final Node<K, V> subtree) {
+            Node<K, V> node = subtree;
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.left;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,467 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Несбалансированное персистентное дерево с тем же поведением, что и {@link ImmutableBinaryTree},
+ * но с единственным final-классом узла {@link Node} вместо иерархии {@link Leaf}, {@link LeftBranch},
+ * {@link RightBranch}, {@link DualBranch} и {@link EmptyTree}.
+ * <br>Отсутствующий потомок представлен ссылкой null, а узел хранит размер и высоту своего поддерева.
+ * Все горячие операции (поиск, вставка, удаление, порядковые статистики, обход) - статические циклы
+ * по полям {@link Node}: в них нет виртуальных вызовов, поэтому места вызова мономорфны и JIT встраивает спуск целиком.
+ * <br>Объект {@code CompactTree} - лишь дескриптор корня; {@link #left()} и {@link #right()} создают
+ * новые дескрипторы и предназначены для навигации, а не для горячих циклов.
+ * <br>Вставка и удаление повторяют алгоритмы {@link NonEmptyTree} (включая выбор нового корня в {@link DualBranch#cut()}),
+ * поэтому при одинаковой последовательности операций форма деревьев совпадает.
+ *
+ * @see TreeFactory#compactTree(Comparable[])
+ */
+final class CompactTree<T extends Comparable<? super T>> extends AbstractNavigableTree<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final CompactTree EMPTY = new CompactTree<>(null);
+
+    /**
+     * Корень дерева; null - пустое дерево.
+     */
+    private final Node<T> root;
+
+    private CompactTree(final Node<T> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <U extends Comparable<? super U>> CompactTree<U> instance() {
+        return EMPTY;
+    }
+
+    private static <U extends Comparable<? super U>> CompactTree<U> of(final Node<U> root) {
+        return root == null ? CompactTree.<U>instance() : new CompactTree<>(root);
+    }
+
+    @Override
+    T value() {
+        return root == null ? null : root.value;
+    }
+
+    @Override
+    public CompactTree<T> left() {
+        return root == null ? this : of(root.left);
+    }
+
+    @Override
+    public CompactTree<T> right() {
+        return root == null ? this : of(root.right);
+    }
+
+    @Override
+    boolean sameVersion(final AbstractNavigableTree<T> other) {
+        return other instanceof CompactTree && ((CompactTree<?>) other).root == root;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public int height() {
+        return height(root);
+    }
+
+    @Override
+    public CompactTree<T> clear() {
+        return instance();
+    }
+
+    @Override
+    public boolean contains(final T element) {
+        if (element == null) return false;
+
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = element.compareTo(node.value);
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<T> min() {
+        return root == null ? Optional.empty() : Optional.of(leftmost(root).value);
+    }
+
+    @Override
+    public Optional<T> max() {
+        return root == null ? Optional.empty() : Optional.of(rightmost(root).value);
+    }
+
+    @Override
+    int rank(final T element, final boolean inclusive) {
+        if (element == null) return 0;
+
+        Node<T> node = root;
+        int rank = 0;
+        while (node != null) {
+            int comparison = element.compareTo(node.value);
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                rank += size(node.left) + (inclusive ? 1 : 0);
+                break;
+            }
+        }
+        return rank;
+    }
+
+    @Override
+    public Optional<T> select(final int index) {
+        if (index < 0 || index >= size()) return Optional.empty();
+
+        Node<T> node = root;
+        int position = index;
+        while (true) {
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                node = node.left;
+            } else if (position > leftSize) {
+                position -= leftSize + 1;
+                node = node.right;
+            } else {
+                return Optional.of(node.value);
+            }
+        }
+    }
+
+    @Override
+    public CompactTree<T> insert(final T element) {
+        if (element == null) return this;
+
+        Node<T>[] path = path(root);
+        boolean[] wentLeft = new boolean[path.length];
+        int depth = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = element.compareTo(node.value);
+            if (comparison == 0) return this;
+
+            path[depth] = node;
+            wentLeft[depth++] = comparison < 0;
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return new CompactTree<>(rebuild(path, wentLeft, depth, new Node<>(element, null, null)));
+    }
+
+    @Override
+    public CompactTree<T> remove(final T element) {
+        if (element == null) return this;
+
+        Node<T>[] path = path(root);
+        boolean[] wentLeft = new boolean[path.length];
+        int depth = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = element.compareTo(node.value);
+            if (comparison == 0) return of(rebuild(path, wentLeft, depth, cut(node)));
+
+            path[depth] = node;
+            wentLeft[depth++] = comparison < 0;
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return this;
+    }
+
+    /**
+     * Удаление корня поддерева. Новым корнем становится максимум левого поддерева,
+     * если оно не меньше правого, иначе минимум правого.
+     *
+     * @see DualBranch#cut()
+     */
+    private static <U extends Comparable<? super U>> Node<U> cut(final Node<U> node) {
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+
+        if (size(node.left) >= size(node.right)) {
+            Node<U> max = rightmost(node.left);
+            return new Node<>(max.value, removeExtreme(node.left, false), node.right);
+        } else {
+            Node<U> min = leftmost(node.right);
+            return new Node<>(min.value, node.left, removeExtreme(node.right, true));
+        }
+    }
+
+    /**
+     * Удаление минимального (или максимального) узла поддерева с копированием пути к нему.
+     */
+    private static <U extends Comparable<? super U>> Node<U> removeExtreme(final Node<U> subtree, final boolean minimum) {
+        Node<U>[] path = path(subtree);
+        boolean[] wentLeft = new boolean[path.length];
+        int depth = 0;
+        Node<U> node = subtree;
+        while ((minimum ? node.left : node.right) != null) {
+            path[depth] = node;
+            wentLeft[depth++] = minimum;
+            node = minimum ? node.left : node.right;
+        }
+        return rebuild(path, wentLeft, depth, minimum ? node.right : node.left);
+    }
+
+    /**
+     * Буфер пути, емкость которого известна заранее из высоты, сохраненной в корне.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <U extends Comparable<? super U>> Node<U>[] path(final Node<U> root) {
+        return new Node[height(root)];
+    }
+
+    private static <U extends Comparable<? super U>> Node<U> rebuild(final Node<U>[] path, final boolean[] wentLeft,
+                                                                      final int depth, final Node<U> bottom) {
+        Node<U> node = bottom;
+        for (int level = depth - 1; level >= 0; level--) {
+            Node<U> parent = path[level];
+            node = wentLeft[level]
+                    ? new Node<>(parent.value, node, parent.right)
+                    : new Node<>(parent.value, parent.left, node);
+        }
+        return node;
+    }
+
+    private static <U extends Comparable<? super U>> Node<U> leftmost(final Node<U> subtree) {
+        Node<U> node = subtree;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static <U extends Comparable<? super U>> Node<U> rightmost(final Node<U> subtree) {
+        Node<U> node = subtree;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    private static int size(final Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(final Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    @Override
+    public CompactTree<T> insertAll(final Collection<? extends T> values) {
+        return applyBatch(values, Collections.<T>emptyList());
+    }
+
+    @Override
+    public CompactTree<T> removeAll(final Collection<? extends T> values) {
+        return applyBatch(Collections.<T>emptyList(), values);
+    }
+
+    @Override
+    public CompactTree<T> applyBatch(final Collection<? extends T> insertions, final Collection<? extends T> removals) {
+        if (height() > SetOperations.MAX_DEPTH) return (CompactTree<T>) super.applyBatch(insertions, removals);
+        return (CompactTree<T>) CompactTree.<T>operations().apply(this, insertions, removals);
+    }
+
+    @Override
+    public CompactTree<T> union(final Tree<T> other) {
+        CompactTree<T> tree = adopt(other);
+        if (!SetOperations.shallow(this, tree)) return (CompactTree<T>) super.union(tree);
+        return (CompactTree<T>) CompactTree.<T>operations().union(this, tree);
+    }
+
+    @Override
+    public CompactTree<T> intersection(final Tree<T> other) {
+        CompactTree<T> tree = adopt(other);
+        if (!SetOperations.shallow(this, tree)) return (CompactTree<T>) super.intersection(tree);
+        return (CompactTree<T>) CompactTree.<T>operations().intersection(this, tree);
+    }
+
+    @Override
+    public CompactTree<T> difference(final Tree<T> other) {
+        CompactTree<T> tree = adopt(other);
+        if (!SetOperations.shallow(this, tree)) return (CompactTree<T>) super.difference(tree);
+        return (CompactTree<T>) CompactTree.<T>operations().difference(this, tree);
+    }
+
+    /**
+     * Операции над множествами: как и в {@link ImmutableBinaryTree}, слияние просто создает узел.
+     */
+    private static <U extends Comparable<? super U>> SetOperations<U> operations() {
+        return new SetOperations<U>((left, value, right) ->
+                new CompactTree<>(new Node<>(value, ((CompactTree<U>) left).root, ((CompactTree<U>) right).root)),
+                CompactTree.<U>instance());
+    }
+
+    private static <U extends Comparable<? super U>> CompactTree<U> adopt(final Tree<U> tree) {
+        if (tree instanceof CompactTree) return (CompactTree<U>) tree;
+        return (CompactTree<U>) CompactTree.<U>operations().build(tree.iterator(Traversal.IN_ORDER), tree.size());
+    }
+
+    @Override
+    public Iterator<T> iterator(final Traversal order) {
+        return new NodeIterator<>(root, order);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompactTree)) return false;
+        CompactTree<?> that = (CompactTree<?>) o;
+
+        return sameStructure(root, that.root);
+    }
+
+    /**
+     * Сравнение структуры обходом пар узлов в цикле, как в {@link NonEmptyTree#equals(Object)}:
+     * общие (совпадающие по ссылке) поддеревья не обходятся.
+     */
+    private static boolean sameStructure(final Node<?> root, final Node<?> otherRoot) {
+        Deque<Node<?>> pending = new ArrayDeque<>();
+        if (!schedule(pending, root, otherRoot)) return false;
+        while (!pending.isEmpty()) {
+            Node<?> other = pending.pop();
+            Node<?> node = pending.pop();
+            if (node.size != other.size || !node.value.equals(other.value)) return false;
+            if (!schedule(pending, node.left, other.left) || !schedule(pending, node.right, other.right)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Добавление пары узлов к сравнению; пара совпадающих по ссылке узлов (в том числе пустых) не добавляется.
+     *
+     * @return false, если пустым оказался только один из узлов.
+     */
+    private static boolean schedule(final Deque<Node<?>> pending, final Node<?> node, final Node<?> other) {
+        if (node == other) return true;
+        if (node == null || other == null) return false;
+
+        pending.push(node);
+        pending.push(other);
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (Iterator<T> iterator = iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+            hash = 31 * hash + iterator.next().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Узел дерева. Размер и высота поддерева вычисляются в конструкторе по потомкам.
+     */
+    private static final class Node<T extends Comparable<? super T>> {
+
+        private final T value;
+
+        private final Node<T> left;
+
+        private final Node<T> right;
+
+        private final int size;
+
+        private final int height;
+
+        Node(final T value, final Node<T> left, final Node<T> right) {
+            this.value = Objects.requireNonNull(value);
+            this.left = left;
+            this.right = right;
+            size = size(left) + size(right) + 1;
+            height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    /**
+     * Итератор по узлам с массивом-стеком, емкость которого известна из высоты дерева.
+     *
+     * @see TreeIterator
+     */
+    private static final class NodeIterator<T extends Comparable<? super T>> implements Iterator<T> {
+
+        private final Traversal order;
+
+        private final Node<T>[] stack;
+
+        private int depth;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        NodeIterator(final Node<T> root, final Traversal order) {
+            this.order = order;
+            stack = new Node[height(root) + 1];
+            switch (order) {
+                case PRE_ORDER:
+                case POST_ORDER:
+                    push(root);
+                    break;
+                case IN_ORDER:
+                    pushLeftSpine(root);
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Such order of traversal is not supported: " + order);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public T next() {
+            if (depth == 0) throw new NoSuchElementException();
+
+            Node<T> node = stack[--depth];
+            switch (order) {
+                case PRE_ORDER:
+                    push(node.right);
+                    push(node.left);
+                    break;
+                case POST_ORDER:
+                    push(node.left);
+                    push(node.right);
+                    break;
+                default:
+                    pushLeftSpine(node.right);
+            }
+            return node.value;
+        }
+
+        private void push(final Node<T> node) {
+            if (node != null) stack[depth++] = node;
+        }
+
+        private void pushLeftSpine(final Node<T> subtree) {
+            Node<T> node = subtree;
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.left;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Интерфейс {@code ComparatorTree} - дерево значений произвольного типа, упорядоченных внешним {@link Comparator}.
+ * <br>В отличие от {@link Tree}, значения не обязаны реализовывать {@link Comparable}, поэтому ключи
+ * (например, {@code byte[]} или {@link Long}) хранятся в узлах как есть, без объектов-адаптеров.
+ * <br>Компаратор хранится один раз - в дескрипторе корня - и передается всем версиям, полученным из дерева.
+ * Два значения, равные с точки зрения компаратора, считаются одним элементом.
+ * <br>Дерево может быть пустым - это состояние считается допуcтимым и обладает общим поведением с непустым деревом.
+ *
+ * @see Tree
+ * @see TreeFactory#comparatorTree(Comparator)
+ * @see TreeComparators
+ */
+public interface ComparatorTree<T> {
+
+    /**
+     * Получение компаратора, которым упорядочены значения дерева.
+     *
+     * @return компаратор дерева.
+     */
+    Comparator<? super T> comparator();
+
+    /**
+     * Добавление нового элемента в дерево.
+     *
+     * @param value значение элемента
+     * @return новый вид дерева.
+     */
+    ComparatorTree<T> insert(T value);
+
+    /**
+     * Удаление элемента из дерева.
+     *
+     * @param value значение элемента
+     * @return новый вид дерева.
+     */
+    ComparatorTree<T> remove(T value);
+
+    /**
+     * Удаление всех элементов из дерева.
+     * <br>Компаратор сохраняется.
+     *
+     * @return новый вид дерева.
+     */
+    ComparatorTree<T> clear();
+
+    /**
+     * Проверка наличия элемента в дереве.
+     *
+     * @param value значение искомого элемента.
+     * @return результат проверки.
+     */
+    boolean contains(T value);
+
+    /**
+     * Поиск минимального значения.
+     *
+     * @return контейнер, который может содержать минимальное значение дерева.
+     */
+    Optional<T> min();
+
+    /**
+     * Поиск максимального значения.
+     *
+     * @return контейнер, который может содержать максимальное значение дерева.
+     */
+    Optional<T> max();
+
+    /**
+     * Поиск наибольшего значения дерева, не превышающего указанное.
+     *
+     * @param value значение, с которым сравниваются элементы.
+     * @return контейнер, который может содержать найденное значение.
+     */
+    Optional<T> floor(T value);
+
+    /**
+     * Поиск наименьшего значения дерева, не меньшего указанного.
+     *
+     * @param value значение, с которым сравниваются элементы.
+     * @return контейнер, который может содержать найденное значение.
+     */
+    Optional<T> ceiling(T value);
+
+    /**
+     * Получение количества элементов в дереве за константное время.
+     *
+     * @return количество элементов; 0 для пустого дерева.
+     */
+    int size();
+
+    /**
+     * Получение высоты дерева за константное время.
+     *
+     * @return высота дерева; 0 для пустого дерева.
+     */
+    int height();
+
+    /**
+     * Проверка, является ли дерево пустым.
+     *
+     * @return результат проверки
+     */
+    boolean isEmpty();
+
+    /**
+     * Извлекает значения дерева в виде списка.
+     *
+     * @param order порядок обхода.
+     * @return список значение в порядке обхода.
+     * @see Traversal
+     */
+    List<T> traverse(Traversal order);
+
+    /**
+     * Ленивый итератор по значениям дерева.
+     *
+     * @param order порядок обхода.
+     * @return итератор значений в порядке обхода.
+     * @see Traversal
+     */
+    Iterator<T> iterator(Traversal order);
+
+    /**
+     * Последовательный поток значений дерева в указанном порядке обхода.
+     *
+     * @param order порядок обхода.
+     * @return поток значений.
+     */
+    Stream<T> stream(Traversal order);
+
+}
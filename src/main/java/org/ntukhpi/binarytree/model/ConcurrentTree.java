@@ -0,0 +1,218 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+/**
+ * Потокобезопасный дескриптор персистентного дерева без блокировок.
+ * <br>Текущий корень публикуется через {@link AtomicReference}. Читатели получают неизменяемый снимок
+ * ({@link #snapshot()}) одним чтением volatile-поля, без ожидания и без копирования.
+ * Писатели строят новую версию дерева из текущего корня и публикуют ее операцией compare-and-set;
+ * если за это время корень сменил другой поток, операция повторяется на новом корне.
+ * <br>Между неудачными попытками поток выдерживает случайную экспоненциально растущую паузу,
+ * чтобы писатели не мешали друг другу при высокой конкуренции.
+ * <br>Пакет изменений ({@link #applyBatch(Collection, Collection)}, {@link Batch}) публикуется одной
+ * операцией compare-and-set, поэтому при интенсивной записи выгоднее накапливать изменения в пакеты.
+ *
+ * @param <T> тип-параметр значений дерева.
+ * @see TreeFactory#concurrentTree(Tree)
+ */
+public final class ConcurrentTree<T extends Comparable<? super T>> {
+
+    /**
+     * Количество повторов, после которых поток вместо уступки процессора засыпает.
+     */
+    private static final int YIELD_LIMIT = 4;
+
+    /**
+     * Ограничение показателя экспоненциальной паузы: не более 2^16 наносекунд.
+     */
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private final AtomicReference<Tree<T>> root;
+
+    private final LongAdder retries = new LongAdder();
+
+    ConcurrentTree(final Tree<T> initial) {
+        root = new AtomicReference<>(initial);
+    }
+
+    /**
+     * Получение текущей версии дерева.
+     * <br>Снимок неизменяем и не зависит от последующих изменений.
+     *
+     * @return текущий корень.
+     */
+    public Tree<T> snapshot() {
+        return root.get();
+    }
+
+    /**
+     * Проверка наличия элемента в текущей версии дерева.
+     *
+     * @param value значение искомого элемента.
+     * @return результат проверки.
+     */
+    public boolean contains(final T value) {
+        return root.get().contains(value);
+    }
+
+    /**
+     * @return количество элементов текущей версии дерева.
+     */
+    public int size() {
+        return root.get().size();
+    }
+
+    /**
+     * Добавление элемента.
+     *
+     * @param value значение элемента.
+     * @return true, если элемент добавлен; false, если он уже был в дереве.
+     */
+    public boolean insert(final T value) {
+        return modify(tree -> tree.insert(value));
+    }
+
+    /**
+     * Удаление элемента.
+     *
+     * @param value значение элемента.
+     * @return true, если элемент удален; false, если его не было в дереве.
+     */
+    public boolean remove(final T value) {
+        return modify(tree -> tree.remove(value));
+    }
+
+    /**
+     * Применение пакета изменений одной публикацией.
+     *
+     * @param insertions значения элементов, которые необходимо добавить.
+     * @param removals   значения элементов, которые необходимо удалить.
+     * @return опубликованная версия дерева.
+     * @see Tree#applyBatch(Collection, Collection)
+     */
+    public Tree<T> applyBatch(final Collection<? extends T> insertions, final Collection<? extends T> removals) {
+        return update(tree -> tree.applyBatch(insertions, removals));
+    }
+
+    /**
+     * Создание пакета изменений, который накапливается в самом пакете и публикуется вызовом {@link Batch#commit()}.
+     * <br>Пакет - обычный объект без синхронизации и без привязки к потоку: каждый писатель создает свой пакет.
+     *
+     * @return новый пустой пакет.
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Применение произвольного преобразования к текущей версии дерева в цикле compare-and-set.
+     * <br>Преобразование может быть вызвано несколько раз и не должно иметь побочных эффектов.
+     * Если преобразование вернуло тот же корень, публикация не требуется.
+     *
+     * @param operation преобразование дерева.
+     * @return опубликованная версия дерева.
+     */
+    public Tree<T> update(final UnaryOperator<Tree<T>> operation) {
+        for (int attempt = 0; ; attempt++) {
+            Tree<T> current = root.get();
+            Tree<T> next = operation.apply(current);
+            if (next == current || root.compareAndSet(current, next)) return next;
+
+            retries.increment();
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Цикл compare-and-set, который сообщает, изменило ли преобразование дерево.
+     * <br>Операции изменения из данного пакета возвращают то же дерево, если изменять нечего.
+     */
+    private boolean modify(final UnaryOperator<Tree<T>> operation) {
+        for (int attempt = 0; ; attempt++) {
+            Tree<T> current = root.get();
+            Tree<T> next = operation.apply(current);
+            if (next == current) return false;
+            if (root.compareAndSet(current, next)) return true;
+
+            retries.increment();
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * @return количество неудачных попыток публикации с момента создания дескриптора.
+     */
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * Пауза перед повторной попыткой публикации: сначала уступка процессора,
+     * затем сон случайной длительности с экспоненциально растущей верхней границей.
+     *
+     * @param attempt номер неудачной попытки, начиная с 0.
+     */
+    static void backoff(final int attempt) {
+        if (attempt < YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            long bound = 1L << Math.min(attempt, MAX_BACKOFF_SHIFT);
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound));
+        }
+    }
+
+    /**
+     * Пакет изменений, накапливаемый одним потоком.
+     * <br>Пакет не потокобезопасен: при использовании одного пакета из нескольких потоков
+     * нужна внешняя синхронизация. Публикация пакета - одна операция compare-and-set.
+     */
+    public final class Batch {
+
+        private final List<T> insertions = new ArrayList<>();
+
+        private final List<T> removals = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        /**
+         * @param value значение элемента, которое необходимо добавить.
+         * @return текущий пакет.
+         */
+        public Batch insert(final T value) {
+            insertions.add(value);
+            return this;
+        }
+
+        /**
+         * @param value значение элемента, которое необходимо удалить.
+         * @return текущий пакет.
+         */
+        public Batch remove(final T value) {
+            removals.add(value);
+            return this;
+        }
+
+        /**
+         * Публикация пакета и его очистка.
+         *
+         * @return опубликованная версия дерева.
+         * @see ConcurrentTree#applyBatch(Collection, Collection)
+         */
+        public Tree<T> commit() {
+            Tree<T> tree = applyBatch(new ArrayList<>(insertions), new ArrayList<>(removals));
+            insertions.clear();
+            removals.clear();
+            return tree;
+        }
+    }
+
+}
@@ -9,7 +9,7 @@ final class DualBranch<T extends Comparable<? super T>> extends NonEmptyTree<T>
     private final ImmutableBinaryTree<T> rightChild;
 
     DualBranch(final T value, final ImmutableBinaryTree<T> left, final ImmutableBinaryTree<T> right) {
-        super(value);
+        super(value, left, right);
 
         if (left.isEmpty() || right.isEmpty()) {
             throw new TreeNodeValueException("Can't initialize dual brunch: children must not be empty. "
@@ -40,7 +40,7 @@ final class DualBranch<T extends Comparable<? super T>> extends NonEmptyTree<T>
         T minMax; //max of left branch or min of right branch - it will become a new root
         ImmutableBinaryTree<T> tree;
 
-        if (left().traverse(Traversal.IN_ORDER).size() >= right().traverse(Traversal.IN_ORDER).size()) { //compare the sizes of right and left branches
+        if (leftChild.size() >= rightChild.size()) { //compare the sizes of right and left branches
             minMax = left().max().orElseThrow(exceptionSupplier);
             tree = ((NonEmptyTree<T>) clear().insert(minMax)).replaceChildren(leftChild.remove(minMax), rightChild);
         } else {
@@ -0,0 +1,21 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Перечисление константных типов.
+ * <br>Определяет поведение {@link TreeBuilder} при получении значения, равного предыдущему.
+ *
+ * @see TreeBuilder
+ */
+public enum DuplicatePolicy {
+
+    /**
+     * Повторное значение пропускается - так же, как {@link Tree#insert(Comparable)} не меняет дерево,
+     * если значение уже в нем есть.
+     */
+    MERGE,
+
+    /**
+     * Повторное значение считается ошибкой входных данных, построение прерывается исключением.
+     */
+    REJECT
+}
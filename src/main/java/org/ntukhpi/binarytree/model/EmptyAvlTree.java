@@ -0,0 +1,68 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Пустое АВЛ-дерево. Синглтон.
+ */
+final class EmptyAvlTree<T extends Comparable<? super T>> extends AvlTree<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final EmptyAvlTree INSTANCE = new EmptyAvlTree();
+
+    private EmptyAvlTree() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <U extends Comparable<? super U>> AvlTree<U> instance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public AvlTree<T> insert(final T element) {
+        if (element == null) return this;
+        return new AvlNode<>(element, this, this);
+    }
+
+    @Override
+    public AvlTree<T> remove(final T element) {
+        return this;
+    }
+
+    @Override
+    AvlTree<T> removeMin() {
+        return this;
+    }
+
+    @Override
+    public AvlTree<T> left() {
+        return this;
+    }
+
+    @Override
+    public AvlTree<T> right() {
+        return this;
+    }
+
+    @Override
+    public int height() {
+        return 0;
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    @Override
+    T value() {
+        return null;
+    }
+
+    /**
+     * Структурный хеш пустого дерева, от которого отсчитываются хеши {@link AvlNode}.
+     */
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+
+}
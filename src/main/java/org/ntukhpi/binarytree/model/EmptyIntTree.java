@@ -0,0 +1,59 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Пустое дерево целых чисел. Синглтон.
+ */
+final class EmptyIntTree extends ImmutableIntTree {
+
+    private static final EmptyIntTree INSTANCE = new EmptyIntTree();
+
+    private EmptyIntTree() {
+    }
+
+    static ImmutableIntTree instance() {
+        return INSTANCE;
+    }
+
+    @Override
+    int value() {
+        throw new NoSuchElementException("Empty tree has no root value");
+    }
+
+    @Override
+    public ImmutableIntTree insert(final int element) {
+        return new IntNode(element, this, this);
+    }
+
+    @Override
+    public ImmutableIntTree remove(final int element) {
+        return this;
+    }
+
+    @Override
+    ImmutableIntTree removeMin() {
+        return this;
+    }
+
+    @Override
+    ImmutableIntTree left() {
+        return this;
+    }
+
+    @Override
+    ImmutableIntTree right() {
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    @Override
+    public int height() {
+        return 0;
+    }
+
+}
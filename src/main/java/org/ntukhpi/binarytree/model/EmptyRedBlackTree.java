@@ -0,0 +1,68 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Пустое красно-черное дерево. Синглтон.
+ * <br>Играет роль черных листьев-заглушек в узлах {@link RedBlackNode}.
+ */
+final class EmptyRedBlackTree<T extends Comparable<? super T>> extends RedBlackTree<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final EmptyRedBlackTree INSTANCE = new EmptyRedBlackTree();
+
+    private EmptyRedBlackTree() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <U extends Comparable<? super U>> RedBlackTree<U> instance() {
+        return INSTANCE;
+    }
+
+    @Override
+    boolean isRed() {
+        return false;
+    }
+
+    @Override
+    RedBlackNode<T> put(final T element) {
+        return new RedBlackNode<>(true, element, this, this);
+    }
+
+    @Override
+    RedBlackTree<T> delete(final T element) {
+        return this;
+    }
+
+    @Override
+    RedBlackTree<T> deleteMin() {
+        return this;
+    }
+
+    @Override
+    public RedBlackTree<T> left() {
+        return this;
+    }
+
+    @Override
+    public RedBlackTree<T> right() {
+        return this;
+    }
+
+    @Override
+    T value() {
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    /**
+     * Структурный хеш пустого дерева, от которого отсчитываются хеши {@link RedBlackNode}.
+     */
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+
+}
@@ -1,9 +1,5 @@
 package org.ntukhpi.binarytree.model;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
-
 /**
  * @author Alexander Gorbunov
  */
@@ -50,32 +46,26 @@ final class EmptyTree <T extends Comparable<? super T>> extends ImmutableBinaryT
     }
 
     @Override
-    public boolean contains(final T value) {
-        return false;
-    }
-
-    @Override
-    public String toString() {
-        return "_";
+    T value() {
+        return null;
     }
 
     @Override
-    public Optional<T> min() {
-        return Optional.empty();
+    public int size() {
+        return 0;
     }
 
     @Override
-    public Optional<T> max() {
-        return Optional.empty();
+    public int height() {
+        return 0;
     }
 
+    /**
+     * Структурный хеш пустого дерева, от которого отсчитываются хеши {@link NonEmptyTree}.
+     */
     @Override
-    public List<T> traverse(Traversal order) {
-        return Collections.emptyList();
+    public int hashCode() {
+        return 0;
     }
 
-    @Override
-    public Optional<T> getRoot() {
-        return Optional.empty();
-    }
 }
@@ -1,5 +1,8 @@
 package org.ntukhpi.binarytree.model;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Класс {@code ImmutableBinaryTree} является
  * вершиной иерархии классов реализации интерфейса {@link NavigableTree}, которая используется в данном проекте.
@@ -14,7 +17,7 @@ package org.ntukhpi.binarytree.model;
  *
  * @author Alexander Gorbunov
  */
-abstract class ImmutableBinaryTree<T extends Comparable<? super T>> implements NavigableTree<T> {
+abstract class ImmutableBinaryTree<T extends Comparable<? super T>> extends AbstractNavigableTree<T> {
 
     /**
      * Метод удаления корня дерева.
@@ -49,57 +52,74 @@ abstract class ImmutableBinaryTree<T extends Comparable<? super T>> implements N
     public abstract ImmutableBinaryTree<T> right();
 
     @Override
-    public Tree<T> clear() {
-        return EmptyTree.instance();
+    public TransientTree<T> asTransient() {
+        return new TransientBinaryTree<>(this);
     }
 
     @Override
-    public boolean isEmpty() {
-        return this == EmptyTree.instance();
+    public ImmutableBinaryTree<T> insertAll(final Collection<? extends T> values) {
+        return applyBatch(values, Collections.<T>emptyList());
     }
 
     @Override
-    public int height() {
-        int level;
-        if (isEmpty()) {
-            level = 0;
-        } else {
-            level = getHeight(1);
-        }
-        return level;
+    public ImmutableBinaryTree<T> removeAll(final Collection<? extends T> values) {
+        return applyBatch(Collections.<T>emptyList(), values);
     }
 
-    /**
-     * Рекурсивный метод получения высоты дерева.
-     *
-     * @param level текущий уровень вершины на дереве, считая от корня.
-     *              Инициализируется с изначальным значением = 1.
-     * @return высота дерева
-     */
-    private int getHeight(int level) {
+    @Override
+    public ImmutableBinaryTree<T> applyBatch(final Collection<? extends T> insertions, final Collection<? extends T> removals) {
+        if (height() > SetOperations.MAX_DEPTH) return (ImmutableBinaryTree<T>) super.applyBatch(insertions, removals);
+        return (ImmutableBinaryTree<T>) ImmutableBinaryTree.<T>operations().apply(this, insertions, removals);
+    }
 
-        ImmutableBinaryTree<T> left = left();
-        ImmutableBinaryTree<T> right = right();
+    @Override
+    public ImmutableBinaryTree<T> union(final Tree<T> other) {
+        ImmutableBinaryTree<T> tree = adopt(other);
+        if (!SetOperations.shallow(this, tree)) return (ImmutableBinaryTree<T>) super.union(tree);
+        return (ImmutableBinaryTree<T>) ImmutableBinaryTree.<T>operations().union(this, tree);
+    }
+
+    @Override
+    public ImmutableBinaryTree<T> intersection(final Tree<T> other) {
+        ImmutableBinaryTree<T> tree = adopt(other);
+        if (!SetOperations.shallow(this, tree)) return (ImmutableBinaryTree<T>) super.intersection(tree);
+        return (ImmutableBinaryTree<T>) ImmutableBinaryTree.<T>operations().intersection(this, tree);
+    }
 
-        int nextLevel = level + 1;
+    @Override
+    public ImmutableBinaryTree<T> difference(final Tree<T> other) {
+        ImmutableBinaryTree<T> tree = adopt(other);
+        if (!SetOperations.shallow(this, tree)) return (ImmutableBinaryTree<T>) super.difference(tree);
+        return (ImmutableBinaryTree<T>) ImmutableBinaryTree.<T>operations().difference(this, tree);
+    }
 
-        if (left.isEmpty() && right.isEmpty()) {
-            return level;
-        }
+    /**
+     * Операции над множествами для несбалансированного дерева: слияние просто создает узел,
+     * поэтому форма текущего дерева по возможности сохраняется.
+     */
+    static <U extends Comparable<? super U>> SetOperations<U> operations() {
+        return new SetOperations<U>((left, value, right) ->
+                NonEmptyTree.node(value, (ImmutableBinaryTree<U>) left, (ImmutableBinaryTree<U>) right),
+                EmptyTree.<U>instance());
+    }
 
-        int rightHeight = right.getHeight(nextLevel);
-        int leftHeight = left.getHeight(nextLevel);
-        if (left.isEmpty()) {
-            return rightHeight;
-        } else if (right.isEmpty()) {
-            return leftHeight;
-        } else if (leftHeight > rightHeight) {
-            return leftHeight;
-        } else {
-            return rightHeight;
-        }
+    /**
+     * Приведение второго операнда к данному семейству: деревья другого семейства
+     * перестраиваются в сбалансированное дерево за O(m) по их внутреннему обходу.
+     */
+    private static <U extends Comparable<? super U>> ImmutableBinaryTree<U> adopt(final Tree<U> tree) {
+        if (tree instanceof ImmutableBinaryTree) return (ImmutableBinaryTree<U>) tree;
+        return (ImmutableBinaryTree<U>) ImmutableBinaryTree.<U>operations().build(tree.iterator(Traversal.IN_ORDER), tree.size());
+    }
 
+    @Override
+    public Tree<T> clear() {
+        return EmptyTree.instance();
+    }
 
+    @Override
+    public boolean isEmpty() {
+        return this == EmptyTree.instance();
     }
 
 }
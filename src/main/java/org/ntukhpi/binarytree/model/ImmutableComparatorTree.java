@@ -0,0 +1,397 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Персистентное АВЛ-дерево, упорядоченное внешним компаратором.
+ * <br>Объект {@code ImmutableComparatorTree} - дескриптор корня: он хранит компаратор и ссылку на корневой {@link Node}.
+ * Узлы компаратор не хранят, поэтому его стоимость - одно поле на версию дерева, а не на элемент.
+ * <br>Балансировка повторяет {@link AvlNode}: узел хранит высоту и размер поддерева,
+ * повороты выполняются при разнице высот потомков больше 1. Отсутствующий потомок представлен ссылкой null.
+ *
+ * @see TreeFactory#comparatorTree(Comparator)
+ */
+final class ImmutableComparatorTree<T> implements ComparatorTree<T> {
+
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Корень дерева; null - пустое дерево.
+     */
+    private final Node<T> root;
+
+    ImmutableComparatorTree(final Comparator<? super T> comparator) {
+        this(Objects.requireNonNull(comparator), null);
+    }
+
+    private ImmutableComparatorTree(final Comparator<? super T> comparator, final Node<T> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    private ImmutableComparatorTree<T> withRoot(final Node<T> newRoot) {
+        return newRoot == root ? this : new ImmutableComparatorTree<>(comparator, newRoot);
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public ImmutableComparatorTree<T> insert(final T element) {
+        if (element == null) return this;
+        return withRoot(insert(root, element));
+    }
+
+    private Node<T> insert(final Node<T> node, final T element) {
+        if (node == null) return new Node<>(element, null, null);
+
+        int comparison = comparator.compare(element, node.value);
+        if (comparison < 0) {
+            Node<T> left = insert(node.left, element);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        } else if (comparison > 0) {
+            Node<T> right = insert(node.right, element);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        }
+        return node;
+    }
+
+    @Override
+    public ImmutableComparatorTree<T> remove(final T element) {
+        if (element == null) return this;
+        return withRoot(remove(root, element));
+    }
+
+    private Node<T> remove(final Node<T> node, final T element) {
+        if (node == null) return null;
+
+        int comparison = comparator.compare(element, node.value);
+        if (comparison < 0) {
+            Node<T> left = remove(node.left, element);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        } else if (comparison > 0) {
+            Node<T> right = remove(node.right, element);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+        return balance(leftmost(node.right).value, node.left, removeMin(node.right));
+    }
+
+    private static <U> Node<U> removeMin(final Node<U> node) {
+        if (node.left == null) return node.right;
+        return balance(node.value, removeMin(node.left), node.right);
+    }
+
+    /**
+     * Создание узла с восстановлением баланса одним или двумя поворотами.
+     *
+     * @see AvlNode
+     */
+    private static <U> Node<U> balance(final U value, final Node<U> left, final Node<U> right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+            }
+            Node<U> inner = left.right;
+            return new Node<>(inner.value,
+                    new Node<>(left.value, left.left, inner.left),
+                    new Node<>(value, inner.right, right));
+        } else if (difference < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+            }
+            Node<U> inner = right.left;
+            return new Node<>(inner.value,
+                    new Node<>(value, left, inner.left),
+                    new Node<>(right.value, inner.right, right.right));
+        }
+        return new Node<>(value, left, right);
+    }
+
+    @Override
+    public ImmutableComparatorTree<T> clear() {
+        return withRoot(null);
+    }
+
+    @Override
+    public boolean contains(final T element) {
+        if (element == null) return false;
+
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(element, node.value);
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<T> min() {
+        return root == null ? Optional.empty() : Optional.of(leftmost(root).value);
+    }
+
+    @Override
+    public Optional<T> max() {
+        if (root == null) return Optional.empty();
+
+        Node<T> node = root;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return Optional.of(node.value);
+    }
+
+    @Override
+    public Optional<T> floor(final T element) {
+        if (element == null) return Optional.empty();
+
+        Node<T> node = root;
+        T candidate = null;
+        while (node != null) {
+            int comparison = comparator.compare(element, node.value);
+            if (comparison == 0) {
+                return Optional.of(node.value);
+            } else if (comparison < 0) {
+                node = node.left;
+            } else {
+                candidate = node.value;
+                node = node.right;
+            }
+        }
+        return Optional.ofNullable(candidate);
+    }
+
+    @Override
+    public Optional<T> ceiling(final T element) {
+        if (element == null) return Optional.empty();
+
+        Node<T> node = root;
+        T candidate = null;
+        while (node != null) {
+            int comparison = comparator.compare(element, node.value);
+            if (comparison == 0) {
+                return Optional.of(node.value);
+            } else if (comparison > 0) {
+                node = node.right;
+            } else {
+                candidate = node.value;
+                node = node.left;
+            }
+        }
+        return Optional.ofNullable(candidate);
+    }
+
+    private static <U> Node<U> leftmost(final Node<U> subtree) {
+        Node<U> node = subtree;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public int height() {
+        return height(root);
+    }
+
+    private static int size(final Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(final Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public List<T> traverse(final Traversal order) {
+        List<T> values = new ArrayList<>(size());
+        iterator(order).forEachRemaining(values::add);
+        return values;
+    }
+
+    @Override
+    public Iterator<T> iterator(final Traversal order) {
+        return new NodeIterator<>(root, order);
+    }
+
+    @Override
+    public Stream<T> stream(final Traversal order) {
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        return StreamSupport.stream(Spliterators.spliterator(iterator(order), size(), characteristics), false);
+    }
+
+    /**
+     * Деревья равны, если у них равные компараторы, одинаковая форма и равные с точки зрения компаратора значения.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImmutableComparatorTree)) return false;
+        @SuppressWarnings("unchecked")
+        ImmutableComparatorTree<T> that = (ImmutableComparatorTree<T>) o;
+
+        return comparator.equals(that.comparator) && sameStructure(root, that.root);
+    }
+
+    private boolean sameStructure(final Node<T> node, final Node<T> other) {
+        if (node == other) return true;
+        if (node == null || other == null) return false;
+
+        return node.size == other.size &&
+                comparator.compare(node.value, other.value) == 0 &&
+                sameStructure(node.left, other.left) &&
+                sameStructure(node.right, other.right);
+    }
+
+    /**
+     * Хеш формы дерева: значения, равные по компаратору, не обязаны иметь равные хеши,
+     * поэтому в вычислении участвуют только размеры поддеревьев в прямом порядке обхода.
+     */
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        Node<?>[] stack = new Node<?>[height(root) + 1];
+        int depth = 0;
+        if (root != null) stack[depth++] = root;
+        while (depth > 0) {
+            Node<?> node = stack[--depth];
+            hash = 31 * hash + node.size;
+            if (node.right != null) stack[depth++] = node.right;
+            if (node.left != null) stack[depth++] = node.left;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toString(root);
+    }
+
+    private static String toString(final Node<?> node) {
+        if (node == null) return "_";
+        return "(" + toString(node.left) + " " + node.value + " " + toString(node.right) + ")";
+    }
+
+    /**
+     * Узел дерева. Размер и высота поддерева вычисляются в конструкторе по потомкам.
+     */
+    private static final class Node<T> {
+
+        private final T value;
+
+        private final Node<T> left;
+
+        private final Node<T> right;
+
+        private final int size;
+
+        private final int height;
+
+        Node(final T value, final Node<T> left, final Node<T> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            size = size(left) + size(right) + 1;
+            height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    /**
+     * Итератор по узлам с массивом-стеком, емкость которого известна из высоты дерева.
+     *
+     * @see IntTreeIterator
+     */
+    private static final class NodeIterator<T> implements Iterator<T> {
+
+        private final Traversal order;
+
+        private final Node<T>[] stack;
+
+        private int depth;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        NodeIterator(final Node<T> root, final Traversal order) {
+            this.order = order;
+            stack = new Node[height(root) + 1];
+            switch (order) {
+                case PRE_ORDER:
+                case POST_ORDER:
+                    push(root);
+                    break;
+                case IN_ORDER:
+                    pushLeftSpine(root);
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Such order of traversal is not supported: " + order);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        public T next() {
+            if (depth == 0) throw new NoSuchElementException();
+
+            Node<T> node = stack[--depth];
+            stack[depth] = null;
+            switch (order) {
+                case PRE_ORDER:
+                    push(node.right);
+                    push(node.left);
+                    break;
+                case POST_ORDER:
+                    push(node.left);
+                    push(node.right);
+                    break;
+                default:
+                    pushLeftSpine(node.right);
+            }
+            return node.value;
+        }
+
+        private void push(final Node<T> node) {
+            if (node != null) stack[depth++] = node;
+        }
+
+        private void pushLeftSpine(final Node<T> subtree) {
+            Node<T> node = subtree;
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.left;
+            }
+        }
+    }
+
+}
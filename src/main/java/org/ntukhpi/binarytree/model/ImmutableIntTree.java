@@ -0,0 +1,137 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Класс {@code ImmutableIntTree} является вершиной иерархии персистентного АВЛ-дерева
+ * целых чисел - примитивного аналога {@link AvlTree}.
+ * <br>Узлы хранят значение типа {@code int}, высоту и размер поддерева,
+ * поэтому поиск и изменения не упаковывают значения и не вызывают {@link Comparable#compareTo(Object)}.
+ * <p>
+ * <p>Данный абстрактный класс имеет двух потомков:
+ * <br> - {@link EmptyIntTree} - пустое дерево. Final класс, синглтон.
+ * <br> - {@link IntNode} - непустое дерево.
+ */
+abstract class ImmutableIntTree implements IntTree {
+
+    /**
+     * Значение корня дерева. Для пустого дерева не определено.
+     *
+     * @return значение корня.
+     */
+    abstract int value();
+
+    /**
+     * Рекурсивное удаление минимального значения.
+     *
+     * @return корень нового поддерева.
+     */
+    abstract ImmutableIntTree removeMin();
+
+    abstract ImmutableIntTree left();
+
+    abstract ImmutableIntTree right();
+
+    @Override
+    public abstract ImmutableIntTree insert(int value);
+
+    @Override
+    public abstract ImmutableIntTree remove(int value);
+
+    @Override
+    public ImmutableIntTree clear() {
+        return EmptyIntTree.instance();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this == EmptyIntTree.instance();
+    }
+
+    @Override
+    public boolean contains(final int element) {
+        ImmutableIntTree node = this;
+        while (!node.isEmpty()) {
+            int value = node.value();
+            if (element == value) {
+                return true;
+            }
+            node = element < value ? node.left() : node.right();
+        }
+        return false;
+    }
+
+    @Override
+    public OptionalInt min() {
+        if (isEmpty()) return OptionalInt.empty();
+
+        ImmutableIntTree node = this;
+        while (!node.left().isEmpty()) {
+            node = node.left();
+        }
+        return OptionalInt.of(node.value());
+    }
+
+    @Override
+    public OptionalInt max() {
+        if (isEmpty()) return OptionalInt.empty();
+
+        ImmutableIntTree node = this;
+        while (!node.right().isEmpty()) {
+            node = node.right();
+        }
+        return OptionalInt.of(node.value());
+    }
+
+    @Override
+    public int[] traverse(final Traversal order) {
+        int[] values = new int[size()];
+        PrimitiveIterator.OfInt iterator = iterator(order);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = iterator.nextInt();
+        }
+        return values;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator(final Traversal order) {
+        return new IntTreeIterator(this, order);
+    }
+
+    @Override
+    public IntStream stream(final Traversal order) {
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        if (order == Traversal.IN_ORDER) {
+            characteristics |= Spliterator.SORTED;
+        }
+        return StreamSupport.intStream(Spliterators.spliterator(iterator(order), size(), characteristics), false);
+    }
+
+    /**
+     * Построение идеально сбалансированного дерева из отсортированного массива без повторов за O(n).
+     *
+     * @param sorted отсортированный массив различных значений.
+     * @param from   начало отрезка, включительно.
+     * @param to     конец отрезка, не включительно.
+     * @return сбалансированное дерево.
+     * @see TreeBuilder#balanced(Comparable[], int, int)
+     */
+    static ImmutableIntTree balanced(final int[] sorted, final int from, final int to) {
+        if (from >= to) return EmptyIntTree.instance();
+
+        int mid = from + (to - from) / 2;
+        return new IntNode(sorted[mid], balanced(sorted, from, mid), balanced(sorted, mid + 1, to));
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) return "_";
+        return "(" + left().toString() + " " + value() + " " + right().toString() + ")";
+    }
+
+}
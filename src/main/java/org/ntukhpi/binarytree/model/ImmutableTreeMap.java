@@ -0,0 +1,140 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * Интерфейс {@code ImmutableTreeMap} - персистентный ассоциативный массив на основе бинарного дерева поиска.
+ * <br>Каждый узел хранит ключ вместе со значением, поэтому поиск значения по ключу - один спуск по дереву
+ * без отдельной хеш-таблицы рядом с деревом ключей.
+ * <br>Как и {@link Tree}, отображение неизменяемо: операции изменения возвращают новую версию,
+ * которая разделяет с исходной все узлы, не лежащие на пути к измененному ключу.
+ * Замена значения существующего ключа не меняет форму дерева.
+ * <br>Ключи и значения не могут быть равны null.
+ *
+ * @param <K> тип ключей.
+ * @param <V> тип значений.
+ * @see TreeFactory#immutableTreeMap()
+ */
+public interface ImmutableTreeMap<K extends Comparable<? super K>, V> {
+
+    /**
+     * Поиск значения по ключу.
+     *
+     * @param key ключ.
+     * @return контейнер, который может содержать значение, связанное с ключом.
+     */
+    Optional<V> get(K key);
+
+    /**
+     * Проверка наличия ключа.
+     *
+     * @param key ключ.
+     * @return результат проверки.
+     */
+    boolean containsKey(K key);
+
+    /**
+     * Связывание значения с ключом.
+     * <br>Если ключ уже присутствует, заменяется только его значение: форма дерева и размеры поддеревьев сохраняются.
+     *
+     * @param key   ключ.
+     * @param value значение.
+     * @return новый вид отображения; текущее, если ключ уже связан с этим же объектом.
+     * @throws NullPointerException если ключ или значение равны null.
+     */
+    ImmutableTreeMap<K, V> put(K key, V value);
+
+    /**
+     * Удаление ключа вместе со значением.
+     *
+     * @param key ключ.
+     * @return новый вид отображения; текущее, если ключа нет.
+     */
+    ImmutableTreeMap<K, V> remove(K key);
+
+    /**
+     * Вычисление нового значения ключа по текущему за один спуск по дереву.
+     * <br>Функция получает текущее значение либо null, если ключа нет.
+     * Если функция возвращает null, ключ удаляется (см. {@link Map#compute}).
+     *
+     * @param key      ключ.
+     * @param function функция пересчета значения.
+     * @return новый вид отображения.
+     */
+    ImmutableTreeMap<K, V> compute(K key, BiFunction<? super K, ? super V, ? extends V> function);
+
+    /**
+     * Удаление всех ключей.
+     *
+     * @return пустое отображение.
+     */
+    ImmutableTreeMap<K, V> clear();
+
+    /**
+     * Поиск пары с минимальным ключом.
+     *
+     * @return контейнер, который может содержать найденную пару.
+     */
+    Optional<Map.Entry<K, V>> min();
+
+    /**
+     * Поиск пары с максимальным ключом.
+     *
+     * @return контейнер, который может содержать найденную пару.
+     */
+    Optional<Map.Entry<K, V>> max();
+
+    /**
+     * Извлекает ключи в виде списка.
+     *
+     * @param order порядок обхода.
+     * @return список ключей в порядке обхода.
+     * @see Traversal
+     */
+    List<K> keys(Traversal order);
+
+    /**
+     * Ленивый итератор по парам ключ-значение.
+     * <br>Пары неизменяемы: {@link Map.Entry#setValue(Object)} бросает {@link UnsupportedOperationException}.
+     *
+     * @param order порядок обхода.
+     * @return итератор пар в порядке обхода.
+     * @see Traversal
+     */
+    Iterator<Map.Entry<K, V>> iterator(Traversal order);
+
+    /**
+     * Последовательный поток пар ключ-значение в указанном порядке обхода.
+     *
+     * @param order порядок обхода.
+     * @return поток пар.
+     */
+    Stream<Map.Entry<K, V>> stream(Traversal order);
+
+    /**
+     * Получение количества ключей за константное время.
+     *
+     * @return количество ключей; 0 для пустого отображения.
+     */
+    int size();
+
+    /**
+     * Получение высоты дерева за константное время.
+     *
+     * @return высота дерева; 0 для пустого отображения.
+     */
+    int height();
+
+    /**
+     * Проверка, является ли отображение пустым.
+     *
+     * @return результат проверки
+     */
+    boolean isEmpty();
+
+}
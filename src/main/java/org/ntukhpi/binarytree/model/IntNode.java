@@ -0,0 +1,149 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Непустое АВЛ-дерево целых чисел.
+ * <br>Высота и размер поддерева вычисляются один раз в конструкторе по значениям, сохраненным в потомках.
+ *
+ * @see AvlNode
+ */
+final class IntNode extends ImmutableIntTree {
+
+    private final int value;
+
+    private final ImmutableIntTree leftChild;
+
+    private final ImmutableIntTree rightChild;
+
+    private final int height;
+
+    private final int size;
+
+    IntNode(final int val, final ImmutableIntTree left, final ImmutableIntTree right) {
+        value = val;
+        leftChild = left;
+        rightChild = right;
+        height = Math.max(left.height(), right.height()) + 1;
+        size = left.size() + right.size() + 1;
+    }
+
+    @Override
+    int value() {
+        return value;
+    }
+
+    @Override
+    ImmutableIntTree left() {
+        return leftChild;
+    }
+
+    @Override
+    ImmutableIntTree right() {
+        return rightChild;
+    }
+
+    @Override
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ImmutableIntTree insert(final int element) {
+        ImmutableIntTree tree;
+        if (element < value) {
+            ImmutableIntTree left = leftChild.insert(element);
+            tree = left == leftChild ? this : balance(value, left, rightChild);
+        } else if (element > value) {
+            ImmutableIntTree right = rightChild.insert(element);
+            tree = right == rightChild ? this : balance(value, leftChild, right);
+        } else {
+            tree = this;
+        }
+        return tree;
+    }
+
+    @Override
+    public ImmutableIntTree remove(final int element) {
+        ImmutableIntTree tree;
+        if (element < value) {
+            ImmutableIntTree left = leftChild.remove(element);
+            tree = left == leftChild ? this : balance(value, left, rightChild);
+        } else if (element > value) {
+            ImmutableIntTree right = rightChild.remove(element);
+            tree = right == rightChild ? this : balance(value, leftChild, right);
+        } else if (leftChild.isEmpty()) {
+            tree = rightChild;
+        } else if (rightChild.isEmpty()) {
+            tree = leftChild;
+        } else {
+            tree = balance(rightChild.min().getAsInt(), leftChild, rightChild.removeMin());
+        }
+        return tree;
+    }
+
+    @Override
+    ImmutableIntTree removeMin() {
+        if (leftChild.isEmpty()) return rightChild;
+        return balance(value, leftChild.removeMin(), rightChild);
+    }
+
+    /**
+     * Сборка узла из значения и двух поддеревьев, высоты которых отличаются не более чем на 2,
+     * с одинарным или двойным поворотом при нарушении АВЛ-условия.
+     *
+     * @param value значение нового корня.
+     * @param left  левое поддерево.
+     * @param right правое поддерево.
+     * @return сбалансированный узел.
+     */
+    private static IntNode balance(final int value, final ImmutableIntTree left, final ImmutableIntTree right) {
+        int difference = left.height() - right.height();
+        IntNode node;
+        if (difference > 1) {
+            IntNode pivot = (IntNode) left;
+            if (pivot.leftChild.height() >= pivot.rightChild.height()) {
+                node = new IntNode(pivot.value, pivot.leftChild, new IntNode(value, pivot.rightChild, right));
+            } else {
+                IntNode inner = (IntNode) pivot.rightChild;
+                node = new IntNode(inner.value,
+                        new IntNode(pivot.value, pivot.leftChild, inner.leftChild),
+                        new IntNode(value, inner.rightChild, right));
+            }
+        } else if (difference < -1) {
+            IntNode pivot = (IntNode) right;
+            if (pivot.rightChild.height() >= pivot.leftChild.height()) {
+                node = new IntNode(pivot.value, new IntNode(value, left, pivot.leftChild), pivot.rightChild);
+            } else {
+                IntNode inner = (IntNode) pivot.leftChild;
+                node = new IntNode(inner.value,
+                        new IntNode(value, left, inner.leftChild),
+                        new IntNode(pivot.value, inner.rightChild, pivot.rightChild));
+            }
+        } else {
+            node = new IntNode(value, left, right);
+        }
+        return node;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntNode)) return false;
+        IntNode that = (IntNode) o;
+
+        return value == that.value &&
+                size == that.size &&
+                leftChild.equals(that.leftChild) &&
+                rightChild.equals(that.rightChild);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * value + leftChild.hashCode()) + rightChild.hashCode();
+    }
+
+}
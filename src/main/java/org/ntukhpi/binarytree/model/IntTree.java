@@ -0,0 +1,110 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * Интерфейс {@code IntTree} - специализация интерфейса {@link Tree} для примитивных значений типа {@code int}.
+ * <br>Значения хранятся в узлах без упаковки в {@link Integer}, сравниваются как примитивы,
+ * а обход выдает значения через {@link PrimitiveIterator.OfInt}, {@link IntStream} или массив {@code int[]}.
+ * <br>Дерево может быть пустым - это состояние считается допуcтимым и обладает общим поведением с непустым деревом.
+ *
+ * @see Tree
+ * @see TreeFactory#intTree(int...)
+ */
+public interface IntTree {
+
+    /**
+     * Добавление нового элемента в дерево.
+     *
+     * @param value значение элемента
+     * @return новый вид дерева.
+     */
+    IntTree insert(int value);
+
+    /**
+     * Удаление элемента из дерева.
+     *
+     * @param value значение элемента
+     * @return новый вид дерева.
+     */
+    IntTree remove(int value);
+
+    /**
+     * Удаление всех элементов из дерева.
+     *
+     * @return новый вид дерева.
+     */
+    IntTree clear();
+
+    /**
+     * Проверка наличия элемента в дереве.
+     *
+     * @param value значение искомого элемента.
+     * @return результат проверки.
+     */
+    boolean contains(int value);
+
+    /**
+     * Поиск минимального значения.
+     *
+     * @return контейнер, который может содержать минимальное значение дерева.
+     */
+    OptionalInt min();
+
+    /**
+     * Поиск максимального значения.
+     *
+     * @return контейнер, который может содержать максимальное значение дерева.
+     */
+    OptionalInt max();
+
+    /**
+     * Получение количества элементов в дереве за константное время.
+     *
+     * @return количество элементов; 0 для пустого дерева.
+     */
+    int size();
+
+    /**
+     * Получение высоты дерева за константное время.
+     *
+     * @return высота дерева; 0 для пустого дерева.
+     */
+    int height();
+
+    /**
+     * Проверка, является ли дерево пустым.
+     *
+     * @return результат проверки
+     */
+    boolean isEmpty();
+
+    /**
+     * Извлекает значения дерева в виде массива.
+     *
+     * @param order порядок обхода.
+     * @return массив значений в порядке обхода.
+     * @see Traversal
+     */
+    int[] traverse(Traversal order);
+
+    /**
+     * Ленивый итератор по значениям дерева без упаковки.
+     *
+     * @param order порядок обхода.
+     * @return итератор значений в порядке обхода.
+     * @see Traversal
+     */
+    PrimitiveIterator.OfInt iterator(Traversal order);
+
+    /**
+     * Последовательный поток значений дерева в указанном порядке обхода.
+     *
+     * @param order порядок обхода.
+     * @return поток значений.
+     */
+    IntStream stream(Traversal order);
+
+}
@@ -0,0 +1,76 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Ленивый итератор по значениям {@link ImmutableIntTree} без упаковки.
+ * <br>Повторяет логику {@link TreeIterator}, но хранит стек узлов в массиве,
+ * емкость которого заранее известна из высоты дерева.
+ *
+ * @see Traversal
+ */
+final class IntTreeIterator implements PrimitiveIterator.OfInt {
+
+    private final Traversal order;
+
+    private final ImmutableIntTree[] stack;
+
+    private int depth;
+
+    IntTreeIterator(final ImmutableIntTree root, final Traversal order) {
+        this.order = order;
+        //прямой и обратный порядок откладывают по одному брату на каждом уровне, плюс текущий узел
+        stack = new ImmutableIntTree[root.height() + 1];
+        switch (order) {
+            case PRE_ORDER:
+            case POST_ORDER:
+                push(root);
+                break;
+            case IN_ORDER:
+                pushLeftSpine(root);
+                break;
+            default:
+                throw new UnsupportedOperationException("Such order of traversal is not supported: " + order);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depth > 0;
+    }
+
+    @Override
+    public int nextInt() {
+        if (depth == 0) throw new NoSuchElementException();
+
+        ImmutableIntTree node = stack[--depth];
+        stack[depth] = null;
+        switch (order) {
+            case PRE_ORDER:
+                push(node.right());
+                push(node.left());
+                break;
+            case POST_ORDER:
+                push(node.left());
+                push(node.right());
+                break;
+            default:
+                pushLeftSpine(node.right());
+        }
+        return node.value();
+    }
+
+    private void push(final ImmutableIntTree node) {
+        if (!node.isEmpty()) stack[depth++] = node;
+    }
+
+    private void pushLeftSpine(final ImmutableIntTree root) {
+        ImmutableIntTree node = root;
+        while (!node.isEmpty()) {
+            stack[depth++] = node;
+            node = node.left();
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.ntukhpi.binarytree.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Двоичное представление последовательности возрастающих значений для снимков {@link TreeSnapshot}.
+ * <br>Каждое значение кодируется относительно предыдущего, поэтому близкие значения занимают
+ * несколько байт: числа - разностью в формате varint, строки - длиной общего префикса и остатком.
+ *
+ * @param <T> тип-параметр значений.
+ * @see TreeCodecs
+ */
+public interface KeyCodec<T> {
+
+    /**
+     * Имя представления, которое записывается в заголовок снимка и проверяется при чтении.
+     *
+     * @return имя представления.
+     */
+    String name();
+
+    /**
+     * Запись значения.
+     *
+     * @param out      поток.
+     * @param previous предыдущее значение либо null для первого значения.
+     * @param value    значение, большее предыдущего.
+     * @throws IOException если запись не удалась.
+     */
+    void write(DataOutput out, T previous, T value) throws IOException;
+
+    /**
+     * Чтение значения.
+     *
+     * @param in       поток.
+     * @param previous предыдущее прочитанное значение либо null для первого значения.
+     * @return прочитанное значение.
+     * @throws IOException если чтение не удалось.
+     */
+    T read(DataInput in, T previous) throws IOException;
+
+}
@@ -6,7 +6,7 @@ package org.ntukhpi.binarytree.model;
 final class Leaf<T extends Comparable<? super T>> extends NonEmptyTree<T> {
 
     Leaf(final T val) {
-        super(val);
+        super(val, EmptyTree.instance(), EmptyTree.instance());
     }
 
     @Override
@@ -4,7 +4,7 @@ package org.ntukhpi.binarytree.model;
 final class LeftBranch<T extends Comparable<? super T>> extends SingleBranch<T> {
 
     LeftBranch(final T val, final ImmutableBinaryTree<T> child) {
-        super(val, child);
+        super(val, child, EmptyTree.instance());
     }
 
     @Override
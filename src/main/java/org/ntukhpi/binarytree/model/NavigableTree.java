@@ -45,4 +45,77 @@ public interface NavigableTree<T extends Comparable<? super T>> extends Tree<T>
      */
     int height();
 
+    /**
+     * Поиск наибольшего значения, меньшего либо равного указанному, за O(log n).
+     * Если такого значения нет, {@link Optional} должен хранить пустую ссылку (null).
+     *
+     * @param value искомое значение.
+     * @return контейнер, который может содержать найденное значение.
+     */
+    Optional<T> floor(T value);
+
+    /**
+     * Поиск наименьшего значения, большего либо равного указанному, за O(log n).
+     * Если такого значения нет, {@link Optional} должен хранить пустую ссылку (null).
+     *
+     * @param value искомое значение.
+     * @return контейнер, который может содержать найденное значение.
+     */
+    Optional<T> ceiling(T value);
+
+    /**
+     * Поиск наибольшего значения, строго меньшего указанного, за O(log n).
+     * Если такого значения нет, {@link Optional} должен хранить пустую ссылку (null).
+     *
+     * @param value искомое значение.
+     * @return контейнер, который может содержать найденное значение.
+     */
+    Optional<T> lower(T value);
+
+    /**
+     * Поиск наименьшего значения, строго большего указанного, за O(log n).
+     * Если такого значения нет, {@link Optional} должен хранить пустую ссылку (null).
+     *
+     * @param value искомое значение.
+     * @return контейнер, который может содержать найденное значение.
+     */
+    Optional<T> higher(T value);
+
+    /**
+     * Ленивое представление части дерева со значениями из указанного диапазона.
+     * <br>Представление не копирует узлы: оно спускается по исходному дереву только вдоль границ диапазона,
+     * а поддеревья, целиком попадающие в диапазон, отдает как есть. Поэтому обход k значений
+     * стоит O(log n + k), а размер представления вычисляется через ранги за O(log n).
+     * <br>Вставка в представление возвращает представление с тем же диапазоном над новой версией исходного дерева;
+     * значения вне диапазона вставить нельзя, а их удаление не меняет представление.
+     *
+     * @param from          нижняя граница; null - без ограничения.
+     * @param fromInclusive включается ли нижняя граница в диапазон.
+     * @param to            верхняя граница; null - без ограничения.
+     * @param toInclusive   включается ли верхняя граница в диапазон.
+     * @return представление дерева, ограниченное диапазоном.
+     * @throws IllegalArgumentException если нижняя граница больше верхней.
+     */
+    NavigableTree<T> subTree(T from, boolean fromInclusive, T to, boolean toInclusive);
+
+    /**
+     * Ленивое представление части дерева со значениями, меньшими указанного.
+     *
+     * @param to        верхняя граница.
+     * @param inclusive включается ли граница в диапазон.
+     * @return представление дерева, ограниченное сверху.
+     * @see #subTree(Comparable, boolean, Comparable, boolean)
+     */
+    NavigableTree<T> headTree(T to, boolean inclusive);
+
+    /**
+     * Ленивое представление части дерева со значениями, большими указанного.
+     *
+     * @param from      нижняя граница.
+     * @param inclusive включается ли граница в диапазон.
+     * @return представление дерева, ограниченное снизу.
+     * @see #subTree(Comparable, boolean, Comparable, boolean)
+     */
+    NavigableTree<T> tailTree(T from, boolean inclusive);
+
 }
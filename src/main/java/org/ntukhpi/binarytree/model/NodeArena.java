@@ -0,0 +1,150 @@
+package org.ntukhpi.binarytree.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Хранилище узлов дерева вне кучи (off-heap).
+ * <br>Узел - это целочисленный номер, а не объект: ссылки на потомков, высота и размер поддерева
+ * записываются в прямые {@link ByteBuffer} фиксированного размера (чанки), выделяемые по мере роста.
+ * Значения узлов хранятся по ссылке в параллельных массивах-чанках в куче,
+ * так как произвольный {@link Comparable} нельзя разместить вне кучи без сериализации.
+ * <br>Хранилище только дописывается: однажды записанный узел никогда не меняется,
+ * поэтому все версии дерева, построенные на одном хранилище, безопасно разделяют общие узлы.
+ * Память освобождается целиком, когда хранилище становится недостижимым.
+ *
+ * @see ArenaTree
+ */
+final class NodeArena<T> implements NodeStore<T> {
+
+    private static final int CHUNK_BITS = 14;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /* Раскладка узла: четыре int-поля подряд */
+
+    private static final int LEFT = 0;
+
+    private static final int RIGHT = 4;
+
+    private static final int HEIGHT = 8;
+
+    private static final int SIZE = 12;
+
+    private static final int NODE_BYTES = 16;
+
+    /**
+     * Чанки структуры узлов. Массив заменяется целиком при добавлении чанка,
+     * чтобы читатели в других потоках всегда видели согласованную копию.
+     */
+    private volatile ByteBuffer[] structure = new ByteBuffer[0];
+
+    /**
+     * Чанки значений узлов, параллельные {@link #structure}.
+     */
+    private volatile Object[][] values = new Object[0][];
+
+    /**
+     * Количество выделенных узлов. Изменяется только под монитором хранилища.
+     */
+    private int count;
+
+    @Override
+    public synchronized int allocate(final T value, final int left, final int right) {
+        if (value == null) {
+            throw new TreeNodeValueException("This node shouldn't have null value! Value passed for check: " + value);
+        }
+        if (count == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Arena is full: " + count + " nodes allocated");
+        }
+
+        int node = count;
+        int chunk = node >>> CHUNK_BITS;
+        if (chunk == structure.length) {
+            grow();
+        }
+
+        int offset = (node & CHUNK_MASK) * NODE_BYTES;
+        ByteBuffer buffer = structure[chunk];
+        buffer.putInt(offset + LEFT, left);
+        buffer.putInt(offset + RIGHT, right);
+        buffer.putInt(offset + HEIGHT, Math.max(height(left), height(right)) + 1);
+        buffer.putInt(offset + SIZE, size(left) + size(right) + 1);
+        values[chunk][node & CHUNK_MASK] = value;
+
+        count++;
+        return node;
+    }
+
+    private void grow() {
+        ByteBuffer[] newStructure = Arrays.copyOf(structure, structure.length + 1);
+        newStructure[structure.length] = ByteBuffer.allocateDirect(CHUNK_SIZE * NODE_BYTES)
+                .order(ByteOrder.nativeOrder());
+
+        Object[][] newValues = Arrays.copyOf(values, values.length + 1);
+        newValues[values.length] = new Object[CHUNK_SIZE];
+
+        values = newValues;
+        structure = newStructure;
+    }
+
+    @Override
+    public int left(final int node) {
+        return readInt(node, LEFT);
+    }
+
+    @Override
+    public int right(final int node) {
+        return readInt(node, RIGHT);
+    }
+
+    @Override
+    public int height(final int node) {
+        return node == NIL ? 0 : readInt(node, HEIGHT);
+    }
+
+    @Override
+    public int size(final int node) {
+        return node == NIL ? 0 : readInt(node, SIZE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T value(final int node) {
+        return (T) values[node >>> CHUNK_BITS][node & CHUNK_MASK];
+    }
+
+    /**
+     * Очищенное дерево получает новое хранилище, чтобы узлы прежних версий освобождались вместе с ними.
+     */
+    @Override
+    public NodeArena<T> cleared() {
+        return new NodeArena<>();
+    }
+
+    private int readInt(final int node, final int field) {
+        return structure[node >>> CHUNK_BITS].getInt((node & CHUNK_MASK) * NODE_BYTES + field);
+    }
+
+    /**
+     * Количество узлов, выделенных за все время жизни хранилища, во всех версиях дерева.
+     *
+     * @return количество узлов.
+     */
+    synchronized int allocated() {
+        return count;
+    }
+
+    /**
+     * Объем памяти вне кучи, зарезервированный под структуру узлов.
+     *
+     * @return количество байт.
+     */
+    long reservedBytes() {
+        return (long) structure.length * CHUNK_SIZE * NODE_BYTES;
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Хранилище неизменяемых узлов бинарного дерева, адресуемых целочисленными номерами.
+ * <br>Хранилище только дописывается: однажды выделенный узел никогда не меняется,
+ * поэтому все версии дерева, построенные на одном хранилище, разделяют общие узлы.
+ *
+ * @see ArenaTree
+ * @see NodeArena
+ * @see PageStore
+ */
+interface NodeStore<T> {
+
+    /**
+     * Номер, обозначающий отсутствующий узел (пустое поддерево).
+     */
+    int NIL = -1;
+
+    /**
+     * Выделение нового узла. Высота и размер вычисляются по уже записанным потомкам.
+     *
+     * @param value значение узла, отличное от null.
+     * @param left  номер левого потомка или {@link #NIL}.
+     * @param right номер правого потомка или {@link #NIL}.
+     * @return номер нового узла.
+     */
+    int allocate(T value, int left, int right);
+
+    int left(int node);
+
+    int right(int node);
+
+    int height(int node);
+
+    int size(int node);
+
+    T value(int node);
+
+    /**
+     * Хранилище для пустого дерева, полученного очисткой дерева на текущем хранилище.
+     *
+     * @return новое хранилище либо текущее, если его узлы нельзя отбросить.
+     */
+    NodeStore<T> cleared();
+
+}
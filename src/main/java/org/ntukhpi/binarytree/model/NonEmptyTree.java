@@ -1,6 +1,9 @@
 package org.ntukhpi.binarytree.model;
 
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
 
 /**
  * @author Alexander Gorbunov
@@ -9,170 +12,173 @@ abstract class NonEmptyTree<T extends Comparable<? super T>> extends ImmutableBi
 
     private final T value;
 
-    NonEmptyTree(final T val) {
+    /**
+     * Количество узлов в дереве с корнем в данном узле, вычисляется при создании узла.
+     */
+    private final int size;
+
+    /**
+     * Высота дерева с корнем в данном узле, вычисляется при создании узла.
+     */
+    private final int height;
+
+    /**
+     * Структурный хеш дерева с корнем в данном узле, вычисляется при создании узла по хешам потомков.
+     */
+    private final int hash;
+
+    NonEmptyTree(final T val, final ImmutableBinaryTree<T> left, final ImmutableBinaryTree<T> right) {
         value = Optional.ofNullable(val).orElseThrow(() ->
                 new TreeNodeValueException("This node shouldn't have null value! Value passed for check: "
                         + val + "; tree structure: "
                         + toString()));
+        size = left.size() + right.size() + 1;
+        height = Math.max(left.height(), right.height()) + 1;
+        hash = 31 * (31 * value.hashCode() + left.hashCode()) + right.hashCode();
     }
 
+    /**
+     * Вставка спуском в цикле: путь от корня запоминается в {@link TreePath} и копируется снизу вверх.
+     */
     @Override
     public final ImmutableBinaryTree<T> insert(final T element) {
-        if (!Optional.ofNullable(element).isPresent()) return this;
+        if (element == null) return this;
 
-        ImmutableBinaryTree<T> tree;
-        if (value.equals(element)) {
-            tree = this;
-        } else {
-            tree = insertAll(new Leaf<>(element));
+        TreePath<T> path = new TreePath<>();
+        ImmutableBinaryTree<T> node = this;
+        while (!node.isEmpty()) {
+            NonEmptyTree<T> parent = (NonEmptyTree<T>) node;
+            int comparison = element.compareTo(parent.value);
+            if (comparison == 0) return this;
+
+            path.push(parent, comparison < 0);
+            node = comparison < 0 ? parent.left() : parent.right();
         }
-        return tree;
+        return path.rebuild(new Leaf<>(element));
     }
 
+    /**
+     * Удаление спуском в цикле: найденный узел заменяется результатом {@link #cut()},
+     * после чего путь до него копируется снизу вверх.
+     */
     @Override
     public final ImmutableBinaryTree<T> remove(final T element) {
-        if (!Optional.ofNullable(element).isPresent()) return this;
+        if (element == null) return this;
 
-        ImmutableBinaryTree<T> tree;
-        if (value.equals(element)) {
-            tree = cut();
-        } else if (value.compareTo(element) > 0) {
-            tree = replaceChildren(left().remove(element), right());
-        } else {
-            tree = replaceChildren(left(), right().remove(element));
+        TreePath<T> path = new TreePath<>();
+        ImmutableBinaryTree<T> node = this;
+        while (!node.isEmpty()) {
+            NonEmptyTree<T> parent = (NonEmptyTree<T>) node;
+            int comparison = element.compareTo(parent.value);
+            if (comparison == 0) return path.rebuild(parent.cut());
+
+            path.push(parent, comparison < 0);
+            node = comparison < 0 ? parent.left() : parent.right();
         }
-        return tree;
+        return this;
     }
 
+    /**
+     * Вставка значений поддерева в прямом порядке обхода в переходной версии текущего дерева,
+     * поэтому каждый узел копируется не более одного раза, а форма вставляемого поддерева по возможности сохраняется.
+     */
     @Override
     protected ImmutableBinaryTree<T> insertAll(final ImmutableBinaryTree<T> tree) {
         if (tree.isEmpty()) return this;
 
-        ImmutableBinaryTree<T> newTree;
-
-        T newRoot = ((NonEmptyTree<T>) tree).value;
-        if (value.equals(newRoot)) {
-            newTree = replaceChildren(left().insertAll(tree.left()), right().insertAll(tree.right()));
-        } else if (value.compareTo(newRoot) > 0) {
-            newTree = replaceChildren(left().insertAll(tree), right());
-        } else {
-            newTree = replaceChildren(left(), right().insertAll(tree));
+        TransientTree<T> result = asTransient();
+        for (Iterator<T> iterator = tree.iterator(Traversal.PRE_ORDER); iterator.hasNext(); ) {
+            result.insert(iterator.next());
         }
-
-        return newTree;
+        return (ImmutableBinaryTree<T>) result.persistent();
     }
 
     ImmutableBinaryTree<T> replaceChildren(final ImmutableBinaryTree<T> leftBranch, final ImmutableBinaryTree<T> rightBranch) {
         ImmutableBinaryTree<T> tree;
-        if (leftBranch.equals(left()) && rightBranch.equals(right())) {
+        if (leftBranch == left() && rightBranch == right()) {
             tree = this;
-        } else if (leftBranch.isEmpty() && rightBranch.isEmpty()) {
-            tree = new Leaf<>(value);
-        } else if (leftBranch.isEmpty()) {
-            tree = new RightBranch<>(value, rightBranch);
-        } else if (rightBranch.isEmpty()) {
-            tree = new LeftBranch<>(value, leftBranch);
         } else {
-            tree = new DualBranch<>(value, leftBranch, rightBranch);
+            tree = node(value, leftBranch, rightBranch);
         }
         return tree;
     }
 
-    @Override
-    public boolean contains(T element) {
-        if (!Optional.ofNullable(element).isPresent()) return false;
-
-        boolean contains;
-        if (this.value.equals(element)) {
-            contains = true;
-        } else if (this.value.compareTo(element) > 0) {
-            contains = left().contains(element);
+    /**
+     * Создание узла того подкласса, который соответствует набору непустых потомков:
+     * {@link Leaf}, {@link LeftBranch}, {@link RightBranch} или {@link DualBranch}.
+     *
+     * @param value значение узла.
+     * @param left  левое поддерево.
+     * @param right правое поддерево.
+     * @param <U>   тип-параметр значений дерева.
+     * @return новый узел.
+     */
+    static <U extends Comparable<? super U>> NonEmptyTree<U> node(final U value,
+                                                                  final ImmutableBinaryTree<U> left,
+                                                                  final ImmutableBinaryTree<U> right) {
+        NonEmptyTree<U> tree;
+        if (left.isEmpty() && right.isEmpty()) {
+            tree = new Leaf<>(value);
+        } else if (left.isEmpty()) {
+            tree = new RightBranch<>(value, right);
+        } else if (right.isEmpty()) {
+            tree = new LeftBranch<>(value, left);
         } else {
-            contains = right().contains(element);
-        }
-        return contains;
-    }
-
-    @Override
-    public Optional<T> min() {
-        NavigableTree<T> root = this;
-        while (!root.left().isEmpty()) {
-            root = root.left();
+            tree = new DualBranch<>(value, left, right);
         }
-        return root.getRoot();
+        return tree;
     }
 
     @Override
-    public Optional<T> max() {
-        NavigableTree<T> root = this;
-        while (!root.right().isEmpty()) {
-            root = root.right();
-        }
-        return root.getRoot();
+    final T value() {
+        return value;
     }
 
     @Override
-    public final List<T> traverse(Traversal order) {
-        List<T> nodeList;
-        switch (order) {
-            case PRE_ORDER:
-                nodeList = traversePreOrder();
-                break;
-            case POST_ORDER:
-                nodeList = traversePostOrder();
-                break;
-            case IN_ORDER:
-                nodeList = traverseInOrder();
-                break;
-            default:
-                throw new UnsupportedOperationException("Such order of traversal is not supported: " + order);
-        }
-        return nodeList;
-    }
-
-    private List<T> traversePreOrder() {
-        List<T> list = new LinkedList<>();
-        list.add(value);
-        list.addAll(left().traverse(Traversal.PRE_ORDER));
-        list.addAll(right().traverse(Traversal.PRE_ORDER));
-        return list;
-    }
-
-    private List<T> traversePostOrder() {
-        List<T> list = new LinkedList<>();
-        list.add(value);
-        list.addAll(right().traverse(Traversal.POST_ORDER));
-        list.addAll(left().traverse(Traversal.POST_ORDER));
-        return list;
-    }
-
-    private List<T> traverseInOrder() {
-        List<T> list = new LinkedList<>();
-        list.addAll(left().traverse(Traversal.IN_ORDER));
-        list.add(value);
-        list.addAll(right().traverse(Traversal.IN_ORDER));
-        return list;
+    public final int size() {
+        return size;
     }
 
     @Override
-    public Optional<T> getRoot() {
-        return Optional.of(value);
+    public final int height() {
+        return height;
     }
 
+    /**
+     * Сравнение структуры деревьев обходом пар узлов в цикле.
+     * <br>Общие (совпадающие по ссылке) поддеревья не обходятся, а пары с разными хешами или размерами
+     * сразу дают отрицательный результат, поэтому сравнение двух версий одного дерева
+     * затрагивает только узлы, отличающиеся между версиями.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof NonEmptyTree)) return false;
-        NonEmptyTree<?> that = (NonEmptyTree<?>) o;
 
-        return Objects.equals(value, that.value) &&
-                Objects.equals(right(), that.right()) &&
-                Objects.equals(left(), that.left());
+        Deque<ImmutableBinaryTree<?>> pending = new ArrayDeque<>();
+        pending.push(this);
+        pending.push((NonEmptyTree<?>) o);
+        while (!pending.isEmpty()) {
+            ImmutableBinaryTree<?> other = pending.pop();
+            ImmutableBinaryTree<?> tree = pending.pop();
+            if (tree == other) continue;
+            if (tree.isEmpty() || other.isEmpty()) return false;
+
+            NonEmptyTree<?> node = (NonEmptyTree<?>) tree;
+            NonEmptyTree<?> that = (NonEmptyTree<?>) other;
+            if (node.hash != that.hash || node.size != that.size || !node.value.equals(that.value)) return false;
+
+            pending.push(node.left());
+            pending.push(that.left());
+            pending.push(node.right());
+            pending.push(that.right());
+        }
+        return true;
     }
 
     @Override
-    public String toString() {
-        return "(" + left().toString() + " " + value + " " + right().toString() + ")";
+    public final int hashCode() {
+        return hash;
     }
 
 }
@@ -0,0 +1,328 @@
+package org.ntukhpi.binarytree.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Хранилище узлов дерева в файле, отображенном в память.
+ * <br>Файл состоит из заголовка и страниц узлов фиксированного размера: номера потомков, высота,
+ * размер поддерева и значение в представлении {@link ValueCodec}. Страницы отображаются в память
+ * сегментами ({@link MappedByteBuffer}) по мере роста файла, поэтому узлы не занимают кучу,
+ * а объем дерева ограничен диском, а не памятью процесса.
+ * <br>Как и {@link NodeArena}, хранилище только дописывается: изменение дерева добавляет страницы на пути
+ * от корня, а все прежние страницы остаются неизменными (copy-on-write).
+ * <br>Заголовок содержит два слота с номером фиксации и контрольной суммой. {@link #commit(int)}
+ * сбрасывает на диск страницы, затем записывает корень в неактивный слот; при открытии выбирается
+ * корректный слот с большим номером. Поэтому сбой во время фиксации оставляет предыдущую версию,
+ * а страницы, записанные после последней фиксации, при открытии перезаписываются.
+ *
+ * @see TreeFile
+ */
+final class PageStore<T> implements NodeStore<T>, Closeable {
+
+    /**
+     * "BTRE" - признак файла дерева.
+     */
+    private static final int MAGIC = 0x42545245;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /* Раскладка слота заголовка */
+
+    private static final int SLOT_MAGIC = 0;
+
+    private static final int SLOT_FORMAT = 4;
+
+    private static final int SLOT_PAGE_BYTES = 8;
+
+    private static final int SLOT_ROOT = 12;
+
+    private static final int SLOT_COUNT = 16;
+
+    private static final int SLOT_SEQUENCE = 24;
+
+    private static final int SLOT_CHECKSUM = 32;
+
+    private static final int SLOT_BYTES = 64;
+
+    /**
+     * Заголовок занимает одну страницу файловой системы; страницы узлов начинаются после него.
+     */
+    private static final int HEADER_BYTES = 4096;
+
+    /* Раскладка страницы узла: четыре int-поля и значение */
+
+    private static final int LEFT = 0;
+
+    private static final int RIGHT = 4;
+
+    private static final int HEIGHT = 8;
+
+    private static final int SIZE = 12;
+
+    private static final int VALUE = 16;
+
+    private static final int SEGMENT_BITS = 14;
+
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+
+    private final ValueCodec<T> codec;
+
+    private final int pageBytes;
+
+    private final MappedByteBuffer header;
+
+    /**
+     * Отображенные сегменты страниц. Массив заменяется целиком при добавлении сегмента,
+     * чтобы читатели в других потоках всегда видели согласованную копию.
+     */
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    /* Поля ниже изменяются только под монитором хранилища */
+
+    private int count;
+
+    private int committedRoot;
+
+    private long sequence;
+
+    private boolean closed;
+
+    private PageStore(final FileChannel channel, final ValueCodec<T> codec) throws IOException {
+        this.channel = channel;
+        this.codec = codec;
+        this.pageBytes = (VALUE + codec.width() + 3) & ~3;
+
+        boolean created = channel.size() == 0;
+        if (!created) probe(channel);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (created) {
+            committedRoot = NIL;
+            writeSlot(0);
+            header.force();
+        } else {
+            readHeader();
+        }
+        while (segments.length * (long) SEGMENT_SIZE < count) {
+            grow();
+        }
+    }
+
+    /**
+     * Открытие файла хранилища; отсутствующий файл создается.
+     *
+     * @param path  путь к файлу.
+     * @param codec представление значений, с которым создавался файл.
+     * @throws IOException              если файл нельзя открыть или он не является файлом дерева.
+     * @throws IllegalArgumentException если размер страниц файла не совпадает с представлением значений.
+     */
+    static <T> PageStore<T> open(final Path path, final ValueCodec<T> codec) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            return new PageStore<>(channel, codec);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Проверка признака файла обычным чтением до отображения заголовка:
+     * отображение на запись увеличило бы короткий чужой файл до размера заголовка.
+     */
+    private static void probe(final FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            throw new IOException("Not a tree file: " + channel.size() + " bytes is shorter than the header");
+        }
+        ByteBuffer slots = ByteBuffer.allocate(2 * SLOT_BYTES);
+        while (slots.hasRemaining()) {
+            if (channel.read(slots, slots.position()) < 0) throw new IOException("Unexpected end of tree file header");
+        }
+        if (slots.getInt(SLOT_MAGIC) != MAGIC && slots.getInt(SLOT_BYTES + SLOT_MAGIC) != MAGIC) {
+            throw new IOException("Not a tree file or its header is corrupted");
+        }
+    }
+
+    private void readHeader() throws IOException {
+        int active = -1;
+        for (int slot = 0; slot < 2 * SLOT_BYTES; slot += SLOT_BYTES) {
+            if (header.getInt(slot + SLOT_MAGIC) != MAGIC || header.getLong(slot + SLOT_CHECKSUM) != checksum(slot)) {
+                continue;
+            }
+            if (active < 0 || header.getLong(slot + SLOT_SEQUENCE) > header.getLong(active + SLOT_SEQUENCE)) {
+                active = slot;
+            }
+        }
+        if (active < 0) throw new IOException("Not a tree file or its header is corrupted");
+        if (header.getInt(active + SLOT_FORMAT) != FORMAT_VERSION) {
+            throw new IOException("Unsupported tree file format: " + header.getInt(active + SLOT_FORMAT));
+        }
+        if (header.getInt(active + SLOT_PAGE_BYTES) != pageBytes) {
+            throw new IllegalArgumentException("File pages take " + header.getInt(active + SLOT_PAGE_BYTES)
+                    + " bytes, codec requires " + pageBytes);
+        }
+        committedRoot = header.getInt(active + SLOT_ROOT);
+        count = header.getInt(active + SLOT_COUNT);
+        sequence = header.getLong(active + SLOT_SEQUENCE);
+    }
+
+    private void writeSlot(final int slot) {
+        header.putInt(slot + SLOT_MAGIC, MAGIC);
+        header.putInt(slot + SLOT_FORMAT, FORMAT_VERSION);
+        header.putInt(slot + SLOT_PAGE_BYTES, pageBytes);
+        header.putInt(slot + SLOT_ROOT, committedRoot);
+        header.putInt(slot + SLOT_COUNT, count);
+        header.putLong(slot + SLOT_SEQUENCE, sequence);
+        header.putLong(slot + SLOT_CHECKSUM, checksum(slot));
+    }
+
+    private long checksum(final int slot) {
+        ByteBuffer fields = header.duplicate();
+        fields.position(slot).limit(slot + SLOT_CHECKSUM);
+        CRC32 crc = new CRC32();
+        crc.update(fields);
+        return crc.getValue();
+    }
+
+    /**
+     * Фиксация версии: страницы сбрасываются на диск, затем корень записывается в заголовок.
+     *
+     * @param root номер корня фиксируемой версии или {@link #NIL}.
+     * @return номер фиксации.
+     * @throws IOException если запись не удалась.
+     */
+    synchronized long commit(final int root) throws IOException {
+        checkOpen();
+        if (root < NIL || root >= count) throw new IllegalArgumentException("No such page: " + root);
+
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        committedRoot = root;
+        sequence++;
+        writeSlot((int) (sequence & 1) * SLOT_BYTES);
+        header.force();
+        return sequence;
+    }
+
+    synchronized int committedRoot() {
+        return committedRoot;
+    }
+
+    synchronized long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Количество страниц узлов, записанных во все версии дерева, включая незафиксированные.
+     *
+     * @return количество страниц.
+     */
+    synchronized int allocated() {
+        return count;
+    }
+
+    @Override
+    public synchronized int allocate(final T value, final int left, final int right) {
+        if (value == null) {
+            throw new TreeNodeValueException("This node shouldn't have null value! Value passed for check: " + value);
+        }
+        checkOpen();
+        if (count == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Page store is full: " + count + " pages allocated");
+        }
+
+        int node = count;
+        if (node >>> SEGMENT_BITS == segments.length) {
+            try {
+                grow();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot extend the tree file", e);
+            }
+        }
+
+        ByteBuffer segment = segments[node >>> SEGMENT_BITS];
+        int offset = (node & SEGMENT_MASK) * pageBytes;
+        codec.write(segment, offset + VALUE, value);
+        segment.putInt(offset + LEFT, left);
+        segment.putInt(offset + RIGHT, right);
+        segment.putInt(offset + HEIGHT, Math.max(height(left), height(right)) + 1);
+        segment.putInt(offset + SIZE, size(left) + size(right) + 1);
+
+        count++;
+        return node;
+    }
+
+    private void grow() throws IOException {
+        long position = HEADER_BYTES + (long) segments.length * SEGMENT_SIZE * pageBytes;
+        MappedByteBuffer[] newSegments = Arrays.copyOf(segments, segments.length + 1);
+        newSegments[segments.length] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) SEGMENT_SIZE * pageBytes);
+        segments = newSegments;
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Tree file is closed");
+    }
+
+    @Override
+    public int left(final int node) {
+        return readInt(node, LEFT);
+    }
+
+    @Override
+    public int right(final int node) {
+        return readInt(node, RIGHT);
+    }
+
+    @Override
+    public int height(final int node) {
+        return node == NIL ? 0 : readInt(node, HEIGHT);
+    }
+
+    @Override
+    public int size(final int node) {
+        return node == NIL ? 0 : readInt(node, SIZE);
+    }
+
+    @Override
+    public T value(final int node) {
+        return codec.read(segments[node >>> SEGMENT_BITS], (node & SEGMENT_MASK) * pageBytes + VALUE);
+    }
+
+    private int readInt(final int node, final int field) {
+        return segments[node >>> SEGMENT_BITS].getInt((node & SEGMENT_MASK) * pageBytes + field);
+    }
+
+    /**
+     * Очищенное дерево остается в том же файле: страницы зафиксированных версий отбросить нельзя.
+     */
+    @Override
+    public PageStore<T> cleared() {
+        return this;
+    }
+
+    /**
+     * Закрытие файла. Незафиксированные страницы не сохраняются.
+     * <br>Отображенные сегменты освобождаются сборщиком мусора, поэтому деревья, полученные из хранилища,
+     * остаются доступными для чтения, но не для изменения.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        channel.close();
+    }
+
+}
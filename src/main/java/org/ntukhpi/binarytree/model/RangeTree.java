@@ -0,0 +1,222 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Ленивое представление части дерева, ограниченной диапазоном значений.
+ * <br>Представление хранит исходное дерево и самый верхний его узел, попадающий в диапазон.
+ * Потомки этого узла снова оборачиваются в представление, но только с той границей, которая их еще ограничивает:
+ * все значения левого поддерева заведомо меньше верхней границы, а правого - больше нижней.
+ * Поддерево, не ограниченное ни одной границей, отдается без обертки,
+ * поэтому обертки создаются только вдоль двух граничных путей, и обход k значений стоит O(log n + k).
+ * <br>Размер представления вычисляется один раз через ранги границ за O(log n).
+ *
+ * @see NavigableTree#subTree(Comparable, boolean, Comparable, boolean)
+ */
+final class RangeTree<T extends Comparable<? super T>> extends AbstractNavigableTree<T> {
+
+    private final AbstractNavigableTree<T> source;
+
+    /**
+     * Верхний узел исходного дерева, попадающий в диапазон, либо пустое дерево.
+     */
+    private final AbstractNavigableTree<T> node;
+
+    private final T from;
+
+    private final boolean fromInclusive;
+
+    private final T to;
+
+    private final boolean toInclusive;
+
+    /**
+     * Размер представления, -1 - еще не вычислен.
+     */
+    private int size = -1;
+
+    private RangeTree(final AbstractNavigableTree<T> source,
+                      final T from, final boolean fromInclusive,
+                      final T to, final boolean toInclusive) {
+        this.source = source;
+        this.from = from;
+        this.fromInclusive = fromInclusive;
+        this.to = to;
+        this.toInclusive = toInclusive;
+
+        AbstractNavigableTree<T> top = source;
+        while (!top.isEmpty()) {
+            T value = top.value();
+            if (tooLow(value)) {
+                top = top.right();
+            } else if (tooHigh(value)) {
+                top = top.left();
+            } else {
+                break;
+            }
+        }
+        node = top;
+    }
+
+    /**
+     * Создание представления дерева, ограниченного диапазоном.
+     *
+     * @return представление либо само дерево, если диапазон не ограничен.
+     * @throws IllegalArgumentException если нижняя граница больше верхней.
+     */
+    static <U extends Comparable<? super U>> AbstractNavigableTree<U> of(final AbstractNavigableTree<U> source,
+                                                                         final U from, final boolean fromInclusive,
+                                                                         final U to, final boolean toInclusive) {
+        if (from == null && to == null) return source;
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new IllegalArgumentException("Lower bound is greater than upper bound: " + from + " > " + to);
+        }
+        return new RangeTree<>(source, from, fromInclusive, to, toInclusive);
+    }
+
+    private boolean tooLow(final T value) {
+        if (from == null) return false;
+        int comparison = value.compareTo(from);
+        return comparison < 0 || comparison == 0 && !fromInclusive;
+    }
+
+    private boolean tooHigh(final T value) {
+        if (to == null) return false;
+        int comparison = value.compareTo(to);
+        return comparison > 0 || comparison == 0 && !toInclusive;
+    }
+
+    private boolean inRange(final T value) {
+        return !tooLow(value) && !tooHigh(value);
+    }
+
+    @Override
+    T value() {
+        return node.value();
+    }
+
+    @Override
+    public AbstractNavigableTree<T> left() {
+        return of(node.left(), from, fromInclusive, null, false);
+    }
+
+    @Override
+    public AbstractNavigableTree<T> right() {
+        return of(node.right(), null, false, to, toInclusive);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return node.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        int result = size;
+        if (result < 0) {
+            int below = from == null ? 0 : node.rank(from, !fromInclusive);
+            int upTo = to == null ? node.size() : node.rank(to, toInclusive);
+            result = upTo - below;
+            size = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(final T element) {
+        return element != null && inRange(element) && node.contains(element);
+    }
+
+    /**
+     * @throws IllegalArgumentException если значение не попадает в диапазон представления.
+     */
+    @Override
+    public RangeTree<T> insert(final T element) {
+        if (element == null) return this;
+        if (!inRange(element)) {
+            throw new IllegalArgumentException("Value is out of the view range: " + element);
+        }
+        return withSource(source.insert(element));
+    }
+
+    @Override
+    public RangeTree<T> remove(final T element) {
+        if (element == null || !inRange(element)) return this;
+        return withSource(source.remove(element));
+    }
+
+    /**
+     * Пакет изменений записывается в исходное дерево одним вызовом {@link Tree#applyBatch(Collection, Collection)}.
+     * <br>Удаление значений вне диапазона, как и в {@link #remove(Comparable)}, ничего не меняет.
+     *
+     * @throws IllegalArgumentException если одно из добавляемых значений не попадает в диапазон представления;
+     *                                  исходное дерево при этом не изменяется.
+     */
+    @Override
+    public RangeTree<T> applyBatch(final Collection<? extends T> insertions, final Collection<? extends T> removals) {
+        for (T value : insertions) {
+            if (value != null && !inRange(value)) {
+                throw new IllegalArgumentException("Value is out of the view range: " + value);
+            }
+        }
+        List<T> removed = new ArrayList<>(removals.size());
+        for (T value : removals) {
+            if (value != null && inRange(value)) removed.add(value);
+        }
+        return withSource(source.applyBatch(insertions, removed));
+    }
+
+    /**
+     * Объединение с деревом, значения которого могут лежать вне диапазона, поэтому результат - не представление,
+     * а новое дерево семейства исходного дерева со значениями представления и второго дерева.
+     */
+    @Override
+    public Tree<T> union(final Tree<T> other) {
+        return source.clear().union(this).union(other);
+    }
+
+    /**
+     * Удаление из исходного дерева всех значений диапазона.
+     *
+     * @return пустое представление над новой версией исходного дерева.
+     */
+    @Override
+    public RangeTree<T> clear() {
+        return withSource(source.difference(this));
+    }
+
+    @Override
+    public NavigableTree<T> subTree(final T lower, final boolean lowerInclusive,
+                                    final T upper, final boolean upperInclusive) {
+        T newFrom = from;
+        boolean newFromInclusive = fromInclusive;
+        if (lower != null && (from == null || lower.compareTo(from) > 0)) {
+            newFrom = lower;
+            newFromInclusive = lowerInclusive;
+        } else if (lower != null && lower.compareTo(from) == 0) {
+            newFromInclusive = fromInclusive && lowerInclusive;
+        }
+
+        T newTo = to;
+        boolean newToInclusive = toInclusive;
+        if (upper != null && (to == null || upper.compareTo(to) < 0)) {
+            newTo = upper;
+            newToInclusive = upperInclusive;
+        } else if (upper != null && upper.compareTo(to) == 0) {
+            newToInclusive = toInclusive && upperInclusive;
+        }
+
+        if (newFrom != null && newTo != null && newFrom.compareTo(newTo) > 0) {
+            throw new IllegalArgumentException("Lower bound is greater than upper bound: " + newFrom + " > " + newTo);
+        }
+        return new RangeTree<>(source, newFrom, newFromInclusive, newTo, newToInclusive);
+    }
+
+    private RangeTree<T> withSource(final Tree<T> tree) {
+        if (tree == source) return this;
+        return new RangeTree<>((AbstractNavigableTree<T>) tree, from, fromInclusive, to, toInclusive);
+    }
+
+}
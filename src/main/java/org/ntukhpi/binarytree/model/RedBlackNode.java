@@ -0,0 +1,218 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Objects;
+
+/**
+ * Непустое красно-черное дерево.
+ * <br>Узел иммутабелен: повороты и перекрашивания создают новые узлы,
+ * поэтому любая предыдущая версия дерева остается корректной.
+ * <br>Реализация следует левосторонней схеме Седжвика: красные связи допускаются только слева
+ * и никогда не идут две подряд.
+ */
+final class RedBlackNode<T extends Comparable<? super T>> extends RedBlackTree<T> {
+
+    private final boolean red;
+
+    private final T value;
+
+    private final RedBlackTree<T> leftChild;
+
+    private final RedBlackTree<T> rightChild;
+
+    private final int size;
+
+    /**
+     * Структурный хеш дерева с корнем в данном узле, вычисляется при создании узла по хешам потомков.
+     */
+    private final int hash;
+
+    RedBlackNode(final boolean red, final T val, final RedBlackTree<T> left, final RedBlackTree<T> right) {
+        if (val == null) {
+            throw new TreeNodeValueException("This node shouldn't have null value! Value passed for check: "
+                    + val + "; left child: " + left + "; right child: " + right);
+        }
+        this.red = red;
+        value = val;
+        leftChild = left;
+        rightChild = right;
+        size = left.size() + right.size() + 1;
+        hash = 31 * (31 * value.hashCode() + left.hashCode()) + right.hashCode();
+    }
+
+    @Override
+    boolean isRed() {
+        return red;
+    }
+
+    @Override
+    T value() {
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public RedBlackTree<T> left() {
+        return leftChild;
+    }
+
+    @Override
+    public RedBlackTree<T> right() {
+        return rightChild;
+    }
+
+    @Override
+    RedBlackNode<T> put(final T element) {
+        int comparison = element.compareTo(value);
+        if (comparison == 0) return this;
+
+        RedBlackNode<T> node;
+        if (comparison < 0) {
+            RedBlackNode<T> left = leftChild.put(element);
+            if (left == leftChild) return this;
+            node = replaceChildren(left, rightChild);
+        } else {
+            RedBlackNode<T> right = rightChild.put(element);
+            if (right == rightChild) return this;
+            node = replaceChildren(leftChild, right);
+        }
+        return node.balance();
+    }
+
+    @Override
+    RedBlackTree<T> delete(final T element) {
+        RedBlackNode<T> node = this;
+        if (element.compareTo(node.value) < 0) {
+            if (!node.leftChild.isRed() && !node.leftChild.left().isRed()) {
+                node = node.moveRedLeft();
+            }
+            node = node.replaceChildren(node.leftChild.delete(element), node.rightChild);
+        } else {
+            if (node.leftChild.isRed()) {
+                node = node.rotateRight();
+            }
+            if (element.compareTo(node.value) == 0 && node.rightChild.isEmpty()) {
+                return EmptyRedBlackTree.instance();
+            }
+            if (!node.rightChild.isRed() && !node.rightChild.left().isRed()) {
+                node = node.moveRedRight();
+            }
+            if (element.compareTo(node.value) == 0) {
+                T successor = ((RedBlackNode<T>) node.rightChild).leftmost().value;
+                node = new RedBlackNode<>(node.red, successor, node.leftChild, node.rightChild.deleteMin());
+            } else {
+                node = node.replaceChildren(node.leftChild, node.rightChild.delete(element));
+            }
+        }
+        return node.balance();
+    }
+
+    @Override
+    RedBlackTree<T> deleteMin() {
+        if (leftChild.isEmpty()) return EmptyRedBlackTree.instance();
+
+        RedBlackNode<T> node = this;
+        if (!node.leftChild.isRed() && !node.leftChild.left().isRed()) {
+            node = node.moveRedLeft();
+        }
+        return node.replaceChildren(node.leftChild.deleteMin(), node.rightChild).balance();
+    }
+
+    /**
+     * Получение узла с тем же значением и потомками, но с указанным цветом.
+     *
+     * @param newColor {@code true} - красный, {@code false} - черный.
+     * @return текущий узел, если цвет совпадает, иначе - новый узел.
+     */
+    RedBlackNode<T> paint(final boolean newColor) {
+        return red == newColor ? this : new RedBlackNode<>(newColor, value, leftChild, rightChild);
+    }
+
+    private RedBlackNode<T> replaceChildren(final RedBlackTree<T> left, final RedBlackTree<T> right) {
+        if (left == leftChild && right == rightChild) return this;
+        return new RedBlackNode<>(red, value, left, right);
+    }
+
+    private RedBlackNode<T> leftmost() {
+        RedBlackNode<T> node = this;
+        while (!node.leftChild.isEmpty()) {
+            node = (RedBlackNode<T>) node.leftChild;
+        }
+        return node;
+    }
+
+    /**
+     * Восстановление инвариантов LLRB на обратном ходе рекурсии.
+     *
+     * @return сбалансированный узел.
+     */
+    private RedBlackNode<T> balance() {
+        RedBlackNode<T> node = this;
+        if (node.rightChild.isRed() && !node.leftChild.isRed()) {
+            node = node.rotateLeft();
+        }
+        if (node.leftChild.isRed() && node.leftChild.left().isRed()) {
+            node = node.rotateRight();
+        }
+        if (node.leftChild.isRed() && node.rightChild.isRed()) {
+            node = node.flipColors();
+        }
+        return node;
+    }
+
+    private RedBlackNode<T> rotateLeft() {
+        RedBlackNode<T> pivot = (RedBlackNode<T>) rightChild;
+        RedBlackNode<T> lowered = new RedBlackNode<>(true, value, leftChild, pivot.leftChild);
+        return new RedBlackNode<>(red, pivot.value, lowered, pivot.rightChild);
+    }
+
+    private RedBlackNode<T> rotateRight() {
+        RedBlackNode<T> pivot = (RedBlackNode<T>) leftChild;
+        RedBlackNode<T> lowered = new RedBlackNode<>(true, value, pivot.rightChild, rightChild);
+        return new RedBlackNode<>(red, pivot.value, pivot.leftChild, lowered);
+    }
+
+    private RedBlackNode<T> flipColors() {
+        RedBlackNode<T> left = (RedBlackNode<T>) leftChild;
+        RedBlackNode<T> right = (RedBlackNode<T>) rightChild;
+        return new RedBlackNode<>(!red, value, left.paint(!left.red), right.paint(!right.red));
+    }
+
+    private RedBlackNode<T> moveRedLeft() {
+        RedBlackNode<T> node = flipColors();
+        if (node.rightChild.left().isRed()) {
+            RedBlackNode<T> right = ((RedBlackNode<T>) node.rightChild).rotateRight();
+            node = new RedBlackNode<>(node.red, node.value, node.leftChild, right).rotateLeft().flipColors();
+        }
+        return node;
+    }
+
+    private RedBlackNode<T> moveRedRight() {
+        RedBlackNode<T> node = flipColors();
+        if (node.leftChild.left().isRed()) {
+            node = node.rotateRight().flipColors();
+        }
+        return node;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RedBlackNode)) return false;
+        RedBlackNode<?> that = (RedBlackNode<?>) o;
+        if (hash != that.hash || size != that.size) return false;
+
+        return Objects.equals(value, that.value) &&
+                Objects.equals(rightChild, that.rightChild) &&
+                Objects.equals(leftChild, that.leftChild);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
@@ -0,0 +1,88 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Класс {@code RedBlackTree} является вершиной иерархии персистентного самобалансирующегося
+ * левостороннего красно-черного дерева (left-leaning red-black tree, LLRB).
+ * <br>В отличие от {@link ImmutableBinaryTree}, высота дерева не превышает 2*log2(n + 1)
+ * независимо от порядка вставки значений, поэтому вставка, удаление и поиск выполняются за O(log n)
+ * даже на отсортированных входных данных.
+ * <br>Каждая операция изменения копирует только путь от корня до затронутого узла,
+ * а все остальные поддеревья используются совместно старой и новой версиями дерева.
+ * <p>
+ * <p>Данный абстрактный класс имеет двух потомков:
+ * <br> - {@link EmptyRedBlackTree} - пустое дерево. Final класс, синглтон.
+ * <br> - {@link RedBlackNode} - непустое дерево, узел с цветом связи с родителем.
+ *
+ * @see TreeFactory#redBlackTree(Comparable[])
+ */
+abstract class RedBlackTree<T extends Comparable<? super T>> extends AbstractNavigableTree<T> {
+
+    /**
+     * Проверка цвета связи узла с родителем.
+     * <br>Пустое дерево всегда считается черным.
+     *
+     * @return {@code true}, если узел красный.
+     */
+    abstract boolean isRed();
+
+    /**
+     * Рекурсивная вставка значения без перекрашивания корня.
+     *
+     * @param element значение, отличное от null.
+     * @return корень нового поддерева; тот же экземпляр, если значение уже есть в дереве.
+     */
+    abstract RedBlackNode<T> put(T element);
+
+    /**
+     * Рекурсивное удаление значения без перекрашивания корня.
+     * <br>Значение должно присутствовать в дереве.
+     *
+     * @param element значение, отличное от null.
+     * @return корень нового поддерева.
+     */
+    abstract RedBlackTree<T> delete(T element);
+
+    /**
+     * Рекурсивное удаление минимального значения.
+     *
+     * @return корень нового поддерева.
+     */
+    abstract RedBlackTree<T> deleteMin();
+
+    @Override
+    public abstract RedBlackTree<T> left();
+
+    @Override
+    public abstract RedBlackTree<T> right();
+
+    @Override
+    public RedBlackTree<T> insert(final T element) {
+        if (element == null) return this;
+
+        RedBlackNode<T> root = put(element);
+        return root.paint(false);
+    }
+
+    @Override
+    public RedBlackTree<T> remove(final T element) {
+        if (!contains(element)) return this;
+
+        RedBlackNode<T> root = (RedBlackNode<T>) this;
+        if (!root.left().isRed() && !root.right().isRed()) {
+            root = root.paint(true);
+        }
+        RedBlackTree<T> tree = root.delete(element);
+        return tree.isEmpty() ? tree : ((RedBlackNode<T>) tree).paint(false);
+    }
+
+    @Override
+    public RedBlackTree<T> clear() {
+        return EmptyRedBlackTree.instance();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this == EmptyRedBlackTree.instance();
+    }
+
+}
@@ -3,7 +3,7 @@ package org.ntukhpi.binarytree.model;
 final class RightBranch<T extends Comparable<? super T>> extends SingleBranch<T> {
 
     RightBranch(final T val, final ImmutableBinaryTree<T> child) {
-        super(val, child);
+        super(val, EmptyTree.instance(), child);
     }
 
     @Override
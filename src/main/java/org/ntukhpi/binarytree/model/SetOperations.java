@@ -0,0 +1,343 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Операции над множествами (объединение, пересечение, разность) на основе разбиения и слияния деревьев (split/join).
+ * <br>Все алгоритмы выражены через единственную операцию семейства деревьев - {@link Joiner#join}:
+ * сборку дерева из левого поддерева, значения и правого поддерева с восстановлением баланса.
+ * Для сбалансированных деревьев это дает O(m * log(n / m + 1)) сравнений, где m - размер меньшего дерева.
+ * <br>Для семейств без балансировки ({@link ImmutableBinaryTree}, {@link CompactTree}) слияние только создает узел,
+ * поэтому оценка зависит от высоты h операндов: O(m * h) сравнений, а результат может оказаться выше исходных деревьев.
+ * Рекурсия операций идет на глубину высоты операнда, поэтому такие семейства применяют их
+ * только к деревьям не выше {@link #MAX_DEPTH} (см. {@link #shallow}), а остальные обрабатывают
+ * последовательными методами {@link AbstractNavigableTree}.
+ * <br>Поддеревья, которые не затронуты операцией, возвращаются без копирования.
+ * Независимые половины задачи для больших деревьев вычисляются параллельно в {@link java.util.concurrent.ForkJoinPool}.
+ *
+ * @see AvlTree
+ * @see ImmutableBinaryTree
+ */
+final class SetOperations<T extends Comparable<? super T>> {
+
+    /**
+     * Суммарный размер операндов, начиная с которого половины задачи вычисляются параллельно.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Наибольшая высота операнда, для которой семейства без балансировки используют разбиение и слияние.
+     */
+    static final int MAX_DEPTH = 256;
+
+    /**
+     * Операция сборки дерева конкретного семейства.
+     */
+    interface Joiner<T extends Comparable<? super T>> {
+
+        /**
+         * Сборка дерева, в котором все значения {@code left} меньше {@code value},
+         * а все значения {@code right} - больше.
+         *
+         * @param left  левое поддерево.
+         * @param value значение, отличное от null.
+         * @param right правое поддерево.
+         * @return сбалансированное (в терминах семейства) дерево.
+         */
+        AbstractNavigableTree<T> join(AbstractNavigableTree<T> left, T value, AbstractNavigableTree<T> right);
+    }
+
+    private final Joiner<T> joiner;
+
+    private final AbstractNavigableTree<T> empty;
+
+    SetOperations(final Joiner<T> joiner, final AbstractNavigableTree<T> empty) {
+        this.joiner = joiner;
+        this.empty = empty;
+    }
+
+    /**
+     * Построение дерева из отсортированной последовательности различных значений за O(n).
+     *
+     * @param sorted итератор значений в порядке возрастания.
+     * @param count  количество значений, которые нужно прочитать.
+     * @return новое дерево.
+     */
+    AbstractNavigableTree<T> build(final Iterator<T> sorted, final int count) {
+        if (count == 0) return empty;
+
+        int mid = count / 2;
+        AbstractNavigableTree<T> left = build(sorted, mid);
+        T value = sorted.next();
+        return joiner.join(left, value, build(sorted, count - mid - 1));
+    }
+
+    /**
+     * Построение дерева из отрезка отсортированного массива различных значений за O(n).
+     *
+     * @param sorted отсортированный массив.
+     * @param from   начало отрезка, включительно.
+     * @param to     конец отрезка, не включительно.
+     * @return новое дерево.
+     */
+    AbstractNavigableTree<T> build(final Object[] sorted, final int from, final int to) {
+        if (from >= to) return empty;
+
+        int mid = from + (to - from) / 2;
+        return joiner.join(build(sorted, from, mid), element(sorted, mid), build(sorted, mid + 1, to));
+    }
+
+    /**
+     * Применение пакета изменений за один спуск по дереву.
+     * <br>Пакеты сортируются, после чего каждый узел делит их бинарным поиском между своими поддеревьями.
+     * Поддеревья без изменений возвращаются как есть, поэтому каждый затронутый узел копируется
+     * один раз на весь пакет, а не один раз на каждое значение.
+     * <br>Если значение есть в обоих пакетах, удаление применяется первым, и значение остается в дереве.
+     *
+     * @param tree       исходное дерево.
+     * @param insertions значения, которые необходимо добавить; null игнорируются.
+     * @param removals   значения, которые необходимо удалить; null игнорируются.
+     * @return новое дерево.
+     */
+    AbstractNavigableTree<T> apply(final AbstractNavigableTree<T> tree,
+                                   final Collection<? extends T> insertions,
+                                   final Collection<? extends T> removals) {
+        Object[] inserted = sorted(insertions);
+        Object[] removed = sorted(removals);
+        return apply(tree, inserted, 0, inserted.length, removed, 0, removed.length);
+    }
+
+    private AbstractNavigableTree<T> apply(final AbstractNavigableTree<T> tree,
+                                           final Object[] inserted, final int insertFrom, final int insertTo,
+                                           final Object[] removed, final int removeFrom, final int removeTo) {
+        if (insertFrom >= insertTo && (removeFrom >= removeTo || tree.isEmpty())) return tree;
+        if (tree.isEmpty()) return build(inserted, insertFrom, insertTo);
+
+        T value = tree.value();
+        int insertIndex = Arrays.binarySearch(inserted, insertFrom, insertTo, value);
+        int removeIndex = Arrays.binarySearch(removed, removeFrom, removeTo, value);
+        int insertSplit = insertIndex >= 0 ? insertIndex : -insertIndex - 1;
+        int removeSplit = removeIndex >= 0 ? removeIndex : -removeIndex - 1;
+
+        AbstractNavigableTree<T> left = apply(tree.left(),
+                inserted, insertFrom, insertSplit,
+                removed, removeFrom, removeSplit);
+        AbstractNavigableTree<T> right = apply(tree.right(),
+                inserted, insertIndex >= 0 ? insertIndex + 1 : insertSplit, insertTo,
+                removed, removeIndex >= 0 ? removeIndex + 1 : removeSplit, removeTo);
+
+        boolean kept = insertIndex >= 0 || removeIndex < 0;
+        return kept ? reuse(tree, left, right) : concat(left, right);
+    }
+
+    /**
+     * Проверка, что глубина рекурсии операций над деревьями ограничена {@link #MAX_DEPTH}.
+     * <br>Для {@link ImmutableBinaryTree} и {@link CompactTree} высота хранится в узле, поэтому проверка занимает O(1).
+     *
+     * @param first  первый операнд.
+     * @param second второй операнд.
+     * @return true, если ни одно из деревьев не выше {@link #MAX_DEPTH}.
+     */
+    static boolean shallow(final AbstractNavigableTree<?> first, final AbstractNavigableTree<?> second) {
+        return first.height() <= MAX_DEPTH && second.height() <= MAX_DEPTH;
+    }
+
+    /**
+     * Отсортированный массив различных значений коллекции без null.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object[] sorted(final Collection<?> values) {
+        Object[] sorted = values.toArray();
+        int size = 0;
+        for (Object value : sorted) {
+            if (value != null) sorted[size++] = value;
+        }
+        Arrays.sort(sorted, 0, size);
+
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || ((Comparable<Object>) sorted[distinct - 1]).compareTo(sorted[i]) != 0) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(final Object[] sorted, final int index) {
+        return (T) sorted[index];
+    }
+
+    AbstractNavigableTree<T> union(final AbstractNavigableTree<T> first, final AbstractNavigableTree<T> second) {
+        if (first.sameVersion(second) || second.isEmpty()) return first;
+        if (first.isEmpty()) return second;
+
+        T value = first.value();
+        Split<T> split = split(second, value);
+
+        AbstractNavigableTree<T> left;
+        AbstractNavigableTree<T> right;
+        if (first.size() + second.size() >= PARALLEL_THRESHOLD) {
+            ForkJoinTask<AbstractNavigableTree<T>> task = ForkJoinTask.adapt(() -> union(first.left(), split.left)).fork();
+            right = union(first.right(), split.right);
+            left = task.join();
+        } else {
+            left = union(first.left(), split.left);
+            right = union(first.right(), split.right);
+        }
+        return reuse(first, left, right);
+    }
+
+    AbstractNavigableTree<T> intersection(final AbstractNavigableTree<T> first, final AbstractNavigableTree<T> second) {
+        if (first.sameVersion(second)) return first;
+        if (first.isEmpty() || second.isEmpty()) return empty;
+
+        T value = first.value();
+        Split<T> split = split(second, value);
+
+        AbstractNavigableTree<T> left;
+        AbstractNavigableTree<T> right;
+        if (first.size() + second.size() >= PARALLEL_THRESHOLD) {
+            ForkJoinTask<AbstractNavigableTree<T>> task = ForkJoinTask.adapt(() -> intersection(first.left(), split.left)).fork();
+            right = intersection(first.right(), split.right);
+            left = task.join();
+        } else {
+            left = intersection(first.left(), split.left);
+            right = intersection(first.right(), split.right);
+        }
+        return split.found ? reuse(first, left, right) : concat(left, right);
+    }
+
+    AbstractNavigableTree<T> difference(final AbstractNavigableTree<T> first, final AbstractNavigableTree<T> second) {
+        if (first.sameVersion(second) || first.isEmpty()) return empty;
+        if (second.isEmpty()) return first;
+
+        T value = second.value();
+        Split<T> split = split(first, value);
+
+        AbstractNavigableTree<T> left;
+        AbstractNavigableTree<T> right;
+        if (first.size() + second.size() >= PARALLEL_THRESHOLD) {
+            ForkJoinTask<AbstractNavigableTree<T>> task = ForkJoinTask.adapt(() -> difference(split.left, second.left())).fork();
+            right = difference(split.right, second.right());
+            left = task.join();
+        } else {
+            left = difference(split.left, second.left());
+            right = difference(split.right, second.right());
+        }
+        /* Разбиение перестраивает путь, поэтому неизменность первого дерева видна только по размерам */
+        if (!split.found && left.size() + right.size() == first.size()) return first;
+        return concat(left, right);
+    }
+
+    /**
+     * Разбиение дерева по значению на поддеревья меньших и больших значений.
+     * <br>Спуск выполняется в цикле с запоминанием пути, после чего части собираются снизу вверх,
+     * поэтому глубина стека вызовов не зависит от высоты дерева.
+     *
+     * @param tree  дерево.
+     * @param value значение-разделитель.
+     * @return результат разбиения.
+     */
+    Split<T> split(final AbstractNavigableTree<T> tree, final T value) {
+        Deque<AbstractNavigableTree<T>> path = new ArrayDeque<>();
+        Deque<Boolean> wentLeft = new ArrayDeque<>();
+        AbstractNavigableTree<T> left = empty;
+        AbstractNavigableTree<T> right = empty;
+        boolean found = false;
+        AbstractNavigableTree<T> node = tree;
+        while (!node.isEmpty()) {
+            int comparison = value.compareTo(node.value());
+            if (comparison == 0) {
+                left = node.left();
+                right = node.right();
+                found = true;
+                break;
+            }
+            path.push(node);
+            wentLeft.push(comparison < 0);
+            node = comparison < 0 ? node.left() : node.right();
+        }
+        while (!path.isEmpty()) {
+            AbstractNavigableTree<T> parent = path.pop();
+            if (wentLeft.pop()) {
+                right = joiner.join(right, parent.value(), parent.right());
+            } else {
+                left = joiner.join(parent.left(), parent.value(), left);
+            }
+        }
+        return new Split<>(left, found, right);
+    }
+
+    /**
+     * Слияние двух деревьев, все значения первого из которых меньше всех значений второго.
+     */
+    AbstractNavigableTree<T> concat(final AbstractNavigableTree<T> left, final AbstractNavigableTree<T> right) {
+        if (left.isEmpty()) return right;
+        if (right.isEmpty()) return left;
+
+        Split<T> last = splitLast(left);
+        return joiner.join(last.left, last.value, right);
+    }
+
+    /**
+     * Отделение максимального значения от непустого дерева: спуск по правой ветви в цикле
+     * и сборка оставшихся узлов снизу вверх.
+     */
+    private Split<T> splitLast(final AbstractNavigableTree<T> tree) {
+        Deque<AbstractNavigableTree<T>> path = new ArrayDeque<>();
+        AbstractNavigableTree<T> node = tree;
+        while (!node.right().isEmpty()) {
+            path.push(node);
+            node = node.right();
+        }
+        AbstractNavigableTree<T> left = node.left();
+        while (!path.isEmpty()) {
+            AbstractNavigableTree<T> parent = path.pop();
+            left = joiner.join(parent.left(), parent.value(), left);
+        }
+        return new Split<>(left, node.value());
+    }
+
+    private AbstractNavigableTree<T> reuse(final AbstractNavigableTree<T> tree,
+                                           final AbstractNavigableTree<T> left,
+                                           final AbstractNavigableTree<T> right) {
+        if (left.sameVersion(tree.left()) && right.sameVersion(tree.right())) return tree;
+        return joiner.join(left, tree.value(), right);
+    }
+
+    /**
+     * Результат разбиения дерева: поддеревья меньших и больших значений
+     * и признак наличия разделителя (либо отделенное значение для {@link #splitLast}).
+     */
+    static final class Split<T extends Comparable<? super T>> {
+
+        final AbstractNavigableTree<T> left;
+
+        final boolean found;
+
+        final T value;
+
+        final AbstractNavigableTree<T> right;
+
+        Split(final AbstractNavigableTree<T> left, final boolean found, final AbstractNavigableTree<T> right) {
+            this.left = left;
+            this.found = found;
+            this.value = null;
+            this.right = right;
+        }
+
+        private Split(final AbstractNavigableTree<T> left, final T value) {
+            this.left = left;
+            this.found = true;
+            this.value = value;
+            this.right = null;
+        }
+    }
+
+}
@@ -0,0 +1,426 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Потокобезопасное множество, разделенное по диапазонам значений на независимые деревья {@link ImmutableBinaryTree}.
+ * <br>Точки разбиения делят множество значений на отрезки; каждому отрезку соответствует свой корень, который,
+ * как и в {@link ConcurrentTree}, публикуется операцией compare-and-set. Вставка и удаление переписывают путь
+ * только в дереве своего отрезка, поэтому писатели разных отрезков не конкурируют за один корень.
+ * <br>Упорядоченный обход, минимум, максимум и запросы по диапазону склеивают результаты соседних деревьев
+ * без копирования значений. Снимок нескольких деревьев не атомарен: изменения, опубликованные во время обхода,
+ * могут быть видны в одних отрезках и не видны в других.
+ * <br>{@link #resplit(int)} перераспределяет значения по отрезкам равного размера; деревья при этом
+ * разрезаются и склеиваются, а не строятся заново.
+ *
+ * @param <T> тип-параметр значений.
+ * @see TreeFactory#shardedTree(Comparable[])
+ */
+public final class ShardedTree<T extends Comparable<? super T>> {
+
+    private final AtomicReference<Layout<T>> layout;
+
+    ShardedTree(final Object[] splits) {
+        for (int i = 1; i < splits.length; i++) {
+            if (compare(splits[i - 1], splits[i]) >= 0) {
+                throw new IllegalArgumentException("Split points must be strictly ascending: "
+                        + splits[i] + " after " + splits[i - 1]);
+            }
+        }
+        Shard<T>[] shards = shards(splits.length + 1);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard<>(EmptyTree.<T>instance());
+        }
+        layout = new AtomicReference<>(new Layout<>(splits.clone(), shards));
+    }
+
+    /**
+     * Добавление элемента в дерево его отрезка.
+     *
+     * @param value значение элемента.
+     * @return true, если элемент добавлен; false, если он уже был в множестве или равен null.
+     */
+    public boolean insert(final T value) {
+        return value != null && modify(value, true);
+    }
+
+    /**
+     * Удаление элемента из дерева его отрезка.
+     *
+     * @param value значение элемента.
+     * @return true, если элемент удален; false, если его не было в множестве.
+     */
+    public boolean remove(final T value) {
+        return value != null && modify(value, false);
+    }
+
+    /**
+     * Цикл compare-and-set по корню отрезка.
+     * Корень, равный null, означает, что отрезки перестраиваются: поток ждет новую разметку и повторяет попытку.
+     */
+    private boolean modify(final T value, final boolean insert) {
+        for (int attempt = 0; ; attempt++) {
+            Shard<T> shard = layout.get().route(value);
+            ImmutableBinaryTree<T> current = shard.root.get();
+            if (current != null) {
+                ImmutableBinaryTree<T> next = insert ? current.insert(value) : current.remove(value);
+                if (next == current) return false;
+                if (shard.root.compareAndSet(current, next)) return true;
+            }
+            ConcurrentTree.backoff(attempt);
+        }
+    }
+
+    /**
+     * Проверка наличия элемента.
+     *
+     * @param value значение искомого элемента.
+     * @return результат проверки.
+     */
+    public boolean contains(final T value) {
+        if (value == null) return false;
+
+        for (int attempt = 0; ; attempt++) {
+            ImmutableBinaryTree<T> root = layout.get().route(value).root.get();
+            if (root != null) return root.contains(value);
+            ConcurrentTree.backoff(attempt);
+        }
+    }
+
+    /**
+     * @return количество элементов во всех отрезках.
+     */
+    public int size() {
+        int size = 0;
+        for (ImmutableBinaryTree<T> root : roots().trees) {
+            size += root.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return результат проверки, пусты ли все отрезки.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return количество отрезков.
+     */
+    public int shardCount() {
+        return layout.get().shards.length;
+    }
+
+    /**
+     * Получение точек разбиения: отрезок с номером i содержит значения из [split(i - 1), split(i)).
+     *
+     * @return неизменяемый список точек разбиения по возрастанию.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> splitPoints() {
+        List<T> splits = new ArrayList<>();
+        for (Object split : layout.get().splits) {
+            splits.add((T) split);
+        }
+        return Collections.unmodifiableList(splits);
+    }
+
+    /**
+     * Поиск минимального значения в первом непустом отрезке.
+     *
+     * @return контейнер, который может содержать минимальное значение.
+     */
+    public Optional<T> min() {
+        for (ImmutableBinaryTree<T> root : roots().trees) {
+            if (!root.isEmpty()) return root.min();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Поиск максимального значения в последнем непустом отрезке.
+     *
+     * @return контейнер, который может содержать максимальное значение.
+     */
+    public Optional<T> max() {
+        ImmutableBinaryTree<T>[] trees = roots().trees;
+        for (int i = trees.length - 1; i >= 0; i--) {
+            if (!trees[i].isEmpty()) return trees[i].max();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Ленивый итератор по всем значениям в порядке возрастания.
+     *
+     * @return итератор значений.
+     */
+    public Iterator<T> iterator() {
+        return new ShardIterator<>(roots().trees, 0, Integer.MAX_VALUE, null, false, null, false);
+    }
+
+    /**
+     * Последовательный поток всех значений в порядке возрастания.
+     *
+     * @return поток значений.
+     */
+    public Stream<T> stream() {
+        int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), characteristics), false);
+    }
+
+    /**
+     * Ленивый итератор по значениям диапазона в порядке возрастания.
+     * <br>Обходятся только отрезки, пересекающиеся с диапазоном, через представления {@link NavigableTree#subTree}.
+     *
+     * @param from          нижняя граница; null - не ограничена.
+     * @param fromInclusive включать ли нижнюю границу.
+     * @param to            верхняя граница; null - не ограничена.
+     * @param toInclusive   включать ли верхнюю границу.
+     * @return итератор значений диапазона.
+     * @throws IllegalArgumentException если нижняя граница больше верхней.
+     */
+    public Iterator<T> range(final T from, final boolean fromInclusive, final T to, final boolean toInclusive) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new IllegalArgumentException("Lower bound is greater than upper bound: " + from + " > " + to);
+        }
+        Snapshot<T> snapshot = roots();
+        int first = from == null ? 0 : snapshot.layout.index(from);
+        int last = to == null ? snapshot.trees.length - 1 : snapshot.layout.index(to);
+        return new ShardIterator<>(snapshot.trees, first, last, from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Подсчет элементов, попадающих в отрезок [from, to] (обе границы включительно).
+     *
+     * @param from нижняя граница.
+     * @param to   верхняя граница.
+     * @return количество элементов; 0, если одна из границ равна null или from больше to.
+     * @see Tree#count(Comparable, Comparable)
+     */
+    public int count(final T from, final T to) {
+        if (from == null || to == null || from.compareTo(to) > 0) return 0;
+
+        Snapshot<T> snapshot = roots();
+        int count = 0;
+        for (int i = snapshot.layout.index(from); i <= snapshot.layout.index(to); i++) {
+            count += snapshot.trees[i].count(from, to);
+        }
+        return count;
+    }
+
+    /**
+     * Перераспределение значений по отрезкам примерно равного размера.
+     * <br>Новые точки разбиения - квантили текущего множества, найденные по рангам ({@link Tree#select(int)}).
+     * Деревья отрезков на время перестройки закрываются: писатели и читатели ждут публикации новой разметки.
+     * Если перестройка завершилась исключением, отрезки открываются с прежними корнями.
+     * Значения не копируются: деревья склеиваются и разрезаются операциями {@link SetOperations}.
+     *
+     * @param shards желаемое количество отрезков; меньше, если различных значений недостаточно.
+     * @throws IllegalArgumentException если количество отрезков меньше 1.
+     */
+    public synchronized void resplit(final int shards) {
+        if (shards < 1) throw new IllegalArgumentException("There must be at least one shard: " + shards);
+
+        Shard<T>[] current = layout.get().shards;
+        ImmutableBinaryTree<T>[] roots = trees(current.length);
+        for (int i = 0; i < current.length; i++) {
+            roots[i] = current[i].root.getAndSet(null);
+        }
+        boolean published = false;
+        try {
+            layout.set(balanced(roots, shards));
+            published = true;
+        } finally {
+            if (!published) {
+                for (int i = 0; i < current.length; i++) {
+                    current[i].root.set(roots[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Разметка из закрытых корней отрезков; сами корни и текущая разметка не изменяются,
+     * поэтому при ошибке достаточно открыть отрезки с прежними корнями.
+     */
+    private Layout<T> balanced(final ImmutableBinaryTree<T>[] roots, final int shards) {
+        SetOperations<T> operations = ImmutableBinaryTree.operations();
+        AbstractNavigableTree<T> merged = EmptyTree.instance();
+        for (ImmutableBinaryTree<T> root : roots) {
+            merged = operations.concat(merged, root);
+        }
+
+        int size = merged.size();
+        List<T> splits = new ArrayList<>();
+        for (int i = 1; i < shards; i++) {
+            int rank = (int) ((long) size * i / shards);
+            if (rank == 0) continue;
+
+            T split = merged.select(rank).orElseThrow(NoSuchElementException::new);
+            if (splits.isEmpty() || splits.get(splits.size() - 1).compareTo(split) < 0) splits.add(split);
+        }
+
+        Shard<T>[] result = shards(splits.size() + 1);
+        AbstractNavigableTree<T> rest = merged;
+        for (int i = 0; i < splits.size(); i++) {
+            T split = splits.get(i);
+            SetOperations.Split<T> parts = operations.split(rest, split);
+            result[i] = new Shard<>((ImmutableBinaryTree<T>) parts.left);
+            rest = parts.found ? ((ImmutableBinaryTree<T>) parts.right).insert(split) : parts.right;
+        }
+        result[splits.size()] = new Shard<>((ImmutableBinaryTree<T>) rest);
+        return new Layout<>(splits.toArray(), result);
+    }
+
+    /**
+     * Снимок корней всех отрезков одной разметки.
+     */
+    private Snapshot<T> roots() {
+        for (int attempt = 0; ; attempt++) {
+            Layout<T> current = layout.get();
+            ImmutableBinaryTree<T>[] trees = trees(current.shards.length);
+            boolean sealed = false;
+            for (int i = 0; i < trees.length && !sealed; i++) {
+                trees[i] = current.shards[i].root.get();
+                sealed = trees[i] == null;
+            }
+            if (!sealed) return new Snapshot<>(current, trees);
+            ConcurrentTree.backoff(attempt);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <U extends Comparable<? super U>> Shard<U>[] shards(final int count) {
+        return new Shard[count];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <U extends Comparable<? super U>> ImmutableBinaryTree<U>[] trees(final int count) {
+        return new ImmutableBinaryTree[count];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(final Object value, final Object other) {
+        return ((Comparable<Object>) value).compareTo(other);
+    }
+
+    /**
+     * Отрезок: корень дерева, публикуемый через {@link AtomicReference}; null - отрезок закрыт на перестройку.
+     */
+    private static final class Shard<T extends Comparable<? super T>> {
+
+        private final AtomicReference<ImmutableBinaryTree<T>> root;
+
+        Shard(final ImmutableBinaryTree<T> tree) {
+            root = new AtomicReference<>(tree);
+        }
+    }
+
+    /**
+     * Разметка: точки разбиения по возрастанию и отрезки между ними.
+     */
+    private static final class Layout<T extends Comparable<? super T>> {
+
+        private final Object[] splits;
+
+        private final Shard<T>[] shards;
+
+        Layout(final Object[] splits, final Shard<T>[] shards) {
+            this.splits = splits;
+            this.shards = shards;
+        }
+
+        /**
+         * Номер отрезка значения - количество точек разбиения, не превышающих его (двоичный поиск).
+         */
+        int index(final T value) {
+            int low = 0;
+            int high = splits.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(splits[mid], value) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        Shard<T> route(final T value) {
+            return shards[index(value)];
+        }
+    }
+
+    private static final class Snapshot<T extends Comparable<? super T>> {
+
+        private final Layout<T> layout;
+
+        private final ImmutableBinaryTree<T>[] trees;
+
+        Snapshot(final Layout<T> layout, final ImmutableBinaryTree<T>[] trees) {
+            this.layout = layout;
+            this.trees = trees;
+        }
+    }
+
+    /**
+     * Склейка внутренних обходов отрезков с номерами [first, last], ограниченных диапазоном.
+     */
+    private static final class ShardIterator<T extends Comparable<? super T>> implements Iterator<T> {
+
+        private final ImmutableBinaryTree<T>[] trees;
+
+        private final int last;
+
+        private final T from;
+
+        private final boolean fromInclusive;
+
+        private final T to;
+
+        private final boolean toInclusive;
+
+        private int shard;
+
+        private Iterator<T> current = Collections.emptyIterator();
+
+        ShardIterator(final ImmutableBinaryTree<T>[] trees, final int first, final int last,
+                      final T from, final boolean fromInclusive, final T to, final boolean toInclusive) {
+            this.trees = trees;
+            this.last = Math.min(last, trees.length - 1);
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+            shard = first;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && shard <= last) {
+                current = trees[shard++].subTree(from, fromInclusive, to, toInclusive).iterator(Traversal.IN_ORDER);
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+    }
+
+}
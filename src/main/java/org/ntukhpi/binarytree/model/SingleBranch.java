@@ -3,9 +3,9 @@ package org.ntukhpi.binarytree.model;
 abstract class SingleBranch<T extends Comparable<? super T>> extends NonEmptyTree<T> {
     private final ImmutableBinaryTree<T> child;
 
-    SingleBranch(final T val, final ImmutableBinaryTree<T> childTree) {
-        super(val);
-        child = childTree;
+    SingleBranch(final T val, final ImmutableBinaryTree<T> left, final ImmutableBinaryTree<T> right) {
+        super(val, left, right);
+        child = left.isEmpty() ? right : left;
     }
 
     final ImmutableBinaryTree<T> getChild() {
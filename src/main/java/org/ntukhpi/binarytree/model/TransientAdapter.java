@@ -0,0 +1,48 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Переходная версия для семейств деревьев, не поддерживающих изменение узлов на месте.
+ * <br>Обновления применяются к персистентному дереву как обычно, но сохраняется единый контракт
+ * {@link TransientTree}, включая проверку владения.
+ */
+final class TransientAdapter<T extends Comparable<? super T>> extends AbstractTransientTree<T> {
+
+    private Tree<T> tree;
+
+    TransientAdapter(final Tree<T> tree) {
+        this.tree = tree;
+    }
+
+    @Override
+    public TransientTree<T> insert(final T value) {
+        ensureEditable();
+        tree = tree.insert(value);
+        return this;
+    }
+
+    @Override
+    public TransientTree<T> remove(final T value) {
+        ensureEditable();
+        tree = tree.remove(value);
+        return this;
+    }
+
+    @Override
+    public boolean contains(final T value) {
+        ensureEditable();
+        return tree.contains(value);
+    }
+
+    @Override
+    public int size() {
+        ensureEditable();
+        return tree.size();
+    }
+
+    @Override
+    public Tree<T> persistent() {
+        release();
+        return tree;
+    }
+
+}
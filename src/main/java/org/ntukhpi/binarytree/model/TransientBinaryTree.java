@@ -0,0 +1,283 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Переходная версия {@link ImmutableBinaryTree}.
+ * <br>Дерево состоит из двух видов узлов: персистентных поддеревьев исходного дерева,
+ * которые используются совместно с ним, и изменяемых узлов {@link Node}, которыми владеет только эта версия.
+ * Узел исходного дерева копируется в изменяемый один раз - при первом обновлении, проходящем через него;
+ * все последующие обновления меняют его поля на месте.
+ * Новые значения подвешиваются в виде персистентных листьев {@link Leaf}.
+ * <br>Вставка и удаление повторяют алгоритмы {@link NonEmptyTree}, включая выбор нового корня при удалении
+ * ({@link ImmutableBinaryTree#cut()}), поэтому итоговое дерево совпадает по форме с результатом последовательных
+ * персистентных операций.
+ * <br>{@link #persistent()} заменяет изменяемые узлы подклассами {@link NonEmptyTree}, не трогая персистентные поддеревья.
+ */
+final class TransientBinaryTree<T extends Comparable<? super T>> extends AbstractTransientTree<T> {
+
+    /**
+     * {@link ImmutableBinaryTree} или {@link Node}.
+     */
+    private Object root;
+
+    TransientBinaryTree(final ImmutableBinaryTree<T> tree) {
+        root = tree;
+    }
+
+    @Override
+    public TransientTree<T> insert(final T element) {
+        ensureEditable();
+        if (element == null || contains(root, element)) return this;
+
+        if (isEmpty(root)) {
+            root = new Leaf<>(element);
+            return this;
+        }
+        Node<T> node = own(root);
+        root = node;
+        while (true) {
+            node.size++;
+            if (element.compareTo(node.value) < 0) {
+                if (isEmpty(node.left)) {
+                    node.left = new Leaf<>(element);
+                    return this;
+                }
+                Node<T> child = own(node.left);
+                node.left = child;
+                node = child;
+            } else {
+                if (isEmpty(node.right)) {
+                    node.right = new Leaf<>(element);
+                    return this;
+                }
+                Node<T> child = own(node.right);
+                node.right = child;
+                node = child;
+            }
+        }
+    }
+
+    @Override
+    public TransientTree<T> remove(final T element) {
+        ensureEditable();
+        if (element == null || !contains(root, element)) return this;
+
+        Node<T> parent = null;
+        Node<T> node = own(root);
+        root = node;
+        while (true) {
+            int comparison = element.compareTo(node.value);
+            if (comparison == 0) break;
+
+            node.size--;
+            parent = node;
+            if (comparison < 0) {
+                node = own(node.left);
+                parent.left = node;
+            } else {
+                node = own(node.right);
+                parent.right = node;
+            }
+        }
+
+        Object replacement;
+        if (isEmpty(node.left)) {
+            replacement = node.right;
+        } else if (isEmpty(node.right)) {
+            replacement = node.left;
+        } else {
+            node.size--;
+            if (size(node.left) >= size(node.right)) {
+                Node<T> left = own(node.left);
+                node.left = left;
+                node.value = cutMax(node, left);
+            } else {
+                Node<T> right = own(node.right);
+                node.right = right;
+                node.value = cutMin(node, right);
+            }
+            return this;
+        }
+
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == node) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        return this;
+    }
+
+    /**
+     * Отделение максимального значения от поддерева, которое является левым потомком {@code parent}.
+     */
+    private T cutMax(final Node<T> parent, final Node<T> subtree) {
+        Node<T> owner = parent;
+        Node<T> node = subtree;
+        while (!isEmpty(node.right)) {
+            node.size--;
+            Node<T> child = own(node.right);
+            node.right = child;
+            owner = node;
+            node = child;
+        }
+        if (owner == parent) {
+            owner.left = node.left;
+        } else {
+            owner.right = node.left;
+        }
+        return node.value;
+    }
+
+    /**
+     * Отделение минимального значения от поддерева, которое является правым потомком {@code parent}.
+     */
+    private T cutMin(final Node<T> parent, final Node<T> subtree) {
+        Node<T> owner = parent;
+        Node<T> node = subtree;
+        while (!isEmpty(node.left)) {
+            node.size--;
+            Node<T> child = own(node.left);
+            node.left = child;
+            owner = node;
+            node = child;
+        }
+        if (owner == parent) {
+            owner.right = node.right;
+        } else {
+            owner.left = node.right;
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean contains(final T element) {
+        ensureEditable();
+        return element != null && contains(root, element);
+    }
+
+    @Override
+    public int size() {
+        ensureEditable();
+        return size(root);
+    }
+
+    @Override
+    public ImmutableBinaryTree<T> persistent() {
+        release();
+        ImmutableBinaryTree<T> tree = freeze(root);
+        root = tree;
+        return tree;
+    }
+
+    /**
+     * Замена изменяемых узлов персистентными: обратный обход только по изменяемой части дерева.
+     */
+    private static <U extends Comparable<? super U>> ImmutableBinaryTree<U> freeze(final Object tree) {
+        if (!(tree instanceof Node)) return persistentTree(tree);
+
+        Deque<Node<U>> stack = new ArrayDeque<>();
+        stack.push(TransientBinaryTree.<U>node(tree));
+        while (!stack.isEmpty()) {
+            Node<U> node = stack.peek();
+            if (node.left instanceof Node && node(node.left).frozen == null) {
+                stack.push(node(node.left));
+            } else if (node.right instanceof Node && node(node.right).frozen == null) {
+                stack.push(node(node.right));
+            } else {
+                stack.pop();
+                node.frozen = NonEmptyTree.node(node.value, frozen(node.left), frozen(node.right));
+            }
+        }
+        return TransientBinaryTree.<U>node(tree).frozen;
+    }
+
+    private static <U extends Comparable<? super U>> ImmutableBinaryTree<U> frozen(final Object tree) {
+        return tree instanceof Node ? TransientBinaryTree.<U>node(tree).frozen : persistentTree(tree);
+    }
+
+    private static <U extends Comparable<? super U>> boolean contains(final Object tree, final U element) {
+        Object node = tree;
+        while (!isEmpty(node)) {
+            U value = value(node);
+            int comparison = element.compareTo(value);
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? left(node) : right(node);
+        }
+        return false;
+    }
+
+    /**
+     * Получение изменяемого узла: собственный узел возвращается как есть,
+     * персистентный копируется (его потомки остаются общими с исходным деревом).
+     */
+    private static <U extends Comparable<? super U>> Node<U> own(final Object tree) {
+        if (tree instanceof Node) return node(tree);
+
+        ImmutableBinaryTree<U> persistent = persistentTree(tree);
+        return new Node<>(persistent.value(), persistent.left(), persistent.right(), persistent.size());
+    }
+
+    private static boolean isEmpty(final Object tree) {
+        return tree instanceof ImmutableBinaryTree && ((ImmutableBinaryTree<?>) tree).isEmpty();
+    }
+
+    private static int size(final Object tree) {
+        return tree instanceof Node ? ((Node<?>) tree).size : ((ImmutableBinaryTree<?>) tree).size();
+    }
+
+    private static <U extends Comparable<? super U>> U value(final Object tree) {
+        return tree instanceof Node ? TransientBinaryTree.<U>node(tree).value : TransientBinaryTree.<U>persistentTree(tree).value();
+    }
+
+    private static Object left(final Object tree) {
+        return tree instanceof Node ? ((Node<?>) tree).left : ((ImmutableBinaryTree<?>) tree).left();
+    }
+
+    private static Object right(final Object tree) {
+        return tree instanceof Node ? ((Node<?>) tree).right : ((ImmutableBinaryTree<?>) tree).right();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <U extends Comparable<? super U>> Node<U> node(final Object tree) {
+        return (Node<U>) tree;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <U extends Comparable<? super U>> ImmutableBinaryTree<U> persistentTree(final Object tree) {
+        return (ImmutableBinaryTree<U>) tree;
+    }
+
+    /**
+     * Изменяемый узел, принадлежащий переходной версии.
+     * Потомки - {@link ImmutableBinaryTree} или {@link Node}.
+     */
+    private static final class Node<T extends Comparable<? super T>> {
+
+        private T value;
+
+        private Object left;
+
+        private Object right;
+
+        private int size;
+
+        /**
+         * Персистентная копия узла, созданная при заморозке.
+         */
+        private ImmutableBinaryTree<T> frozen;
+
+        Node(final T value, final Object left, final Object right, final int size) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size;
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.ntukhpi.binarytree.model;
+
+/**
+ * Интерфейс {@code TransientTree} - изменяемая на месте версия дерева для серии обновлений.
+ * <br>Переходная версия создается из персистентного дерева методом {@link Tree#asTransient()}
+ * и принадлежит создавшему ее потоку. Узлы, скопированные ею один раз, далее изменяются на месте,
+ * поэтому серия из многих вставок и удалений не порождает копию пути на каждую операцию.
+ * Исходное дерево при этом не изменяется.
+ * <br>Метод {@link #persistent()} "замораживает" результат обратно в персистентное дерево;
+ * после этого переходная версия становится недействительной.
+ * <br>Любая операция из чужого потока или после {@link #persistent()} бросает {@link IllegalStateException}.
+ *
+ * @see Tree#asTransient()
+ */
+public interface TransientTree<T extends Comparable<? super T>> {
+
+    /**
+     * Добавление нового элемента на месте.
+     *
+     * @param value значение элемента; null игнорируется.
+     * @return эта же переходная версия.
+     */
+    TransientTree<T> insert(T value);
+
+    /**
+     * Удаление элемента на месте.
+     *
+     * @param value значение элемента; null игнорируется.
+     * @return эта же переходная версия.
+     */
+    TransientTree<T> remove(T value);
+
+    /**
+     * Проверка наличия элемента.
+     *
+     * @param value значение искомого элемента.
+     * @return результат проверки.
+     */
+    boolean contains(T value);
+
+    /**
+     * Получение количества элементов.
+     *
+     * @return количество элементов.
+     */
+    int size();
+
+    /**
+     * Завершение серии обновлений.
+     *
+     * @return персистентное дерево с результатом всех обновлений.
+     */
+    Tree<T> persistent();
+
+}
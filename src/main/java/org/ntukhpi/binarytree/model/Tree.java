@@ -1,7 +1,11 @@
 package org.ntukhpi.binarytree.model;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 /**
  * Интерфейс {@code Tree} - описывает абстрактное поведение структуры данных в виде дерева.
@@ -30,6 +34,46 @@ public interface Tree<T extends Comparable<? super T>> {
      */
     Tree<T> remove(T value);
 
+    /**
+     * Пакетное добавление элементов в дерево.
+     * <br>Множество значений результата совпадает с последовательными вызовами {@link #insert(Comparable)},
+     * но реализации из данного пакета копируют каждый затронутый узел один раз на весь пакет.
+     *
+     * @param values значения элементов; null игнорируются.
+     * @return новый вид дерева.
+     */
+    Tree<T> insertAll(Collection<? extends T> values);
+
+    /**
+     * Пакетное удаление элементов из дерева.
+     *
+     * @param values значения элементов; null игнорируются.
+     * @return новый вид дерева.
+     * @see #insertAll(Collection)
+     */
+    Tree<T> removeAll(Collection<? extends T> values);
+
+    /**
+     * Применение пакета изменений: сначала удаление, затем добавление элементов.
+     * <br>Значение, присутствующее в обоих пакетах, останется в дереве.
+     *
+     * @param insertions значения элементов, которые необходимо добавить.
+     * @param removals   значения элементов, которые необходимо удалить.
+     * @return новый вид дерева.
+     * @see #insertAll(Collection)
+     */
+    Tree<T> applyBatch(Collection<? extends T> insertions, Collection<? extends T> removals);
+
+    /**
+     * Получение переходной (изменяемой на месте) версии дерева для серии обновлений.
+     * <br>Текущее дерево не изменяется. Реализации, не поддерживающие изменение узлов на месте,
+     * применяют обновления к персистентному дереву.
+     *
+     * @return новая переходная версия, принадлежащая текущему потоку.
+     * @see TransientTree
+     */
+    TransientTree<T> asTransient();
+
     /**
      * Удаление всех элементов из дерева.
      *
@@ -70,6 +114,106 @@ public interface Tree<T extends Comparable<? super T>> {
      */
     List<T> traverse(Traversal order);
 
+    /**
+     * Ленивый итератор по значениям дерева.
+     * <br>Значения извлекаются по мере продвижения итератора, без построения промежуточного списка,
+     * поэтому обход можно прервать в любой момент.
+     *
+     * @param order порядок обхода.
+     * @return итератор значений в порядке обхода.
+     * @see Traversal
+     */
+    Iterator<T> iterator(Traversal order);
+
+    /**
+     * {@link Spliterator} по значениям дерева, например, для построения {@link Stream}.
+     * <br>Значения извлекаются лениво, в том же порядке, что и у {@link #iterator(Traversal)}.
+     * <br>Сплитератор делится по поддеревьям и сообщает точный размер каждой части,
+     * что позволяет эффективно обрабатывать дерево параллельными потоками.
+     *
+     * @param order порядок обхода.
+     * @return сплитератор значений в порядке обхода.
+     * @see Traversal
+     */
+    Spliterator<T> spliterator(Traversal order);
+
+    /**
+     * Последовательный поток значений дерева в указанном порядке обхода.
+     * <br>Для параллельной обработки достаточно вызвать {@link Stream#parallel()}:
+     * работа будет разделена по поддеревьям без копирования значений.
+     *
+     * @param order порядок обхода.
+     * @return поток значений.
+     * @see #spliterator(Traversal)
+     */
+    Stream<T> stream(Traversal order);
+
+    /**
+     * Получение количества элементов в дереве.
+     * <br>Реализации из данного пакета хранят размер поддерева в каждом узле,
+     * поэтому метод выполняется за константное время.
+     *
+     * @return количество элементов; 0 для пустого дерева.
+     */
+    int size();
+
+    /**
+     * Получение ранга значения - количества элементов дерева, строго меньших указанного.
+     * <br>Значение не обязано присутствовать в дереве.
+     *
+     * @param value значение, для которого вычисляется ранг.
+     * @return ранг значения; 0, если значение равно null.
+     */
+    int rank(T value);
+
+    /**
+     * Поиск элемента по его порядковому номеру во внутреннем порядке обхода ({@link Traversal#IN_ORDER}).
+     * <br>Результат совпадает с {@code traverse(Traversal.IN_ORDER).get(index)},
+     * но не требует построения списка.
+     * Если номер выходит за пределы [0, {@link #size()}), {@link Optional} должен хранить пустую ссылку (null).
+     *
+     * @param index порядковый номер элемента, начиная с 0.
+     * @return контейнер, который может содержать найденный элемент.
+     */
+    Optional<T> select(int index);
+
+    /**
+     * Подсчет элементов дерева, попадающих в отрезок [from, to] (обе границы включительно).
+     *
+     * @param from нижняя граница.
+     * @param to   верхняя граница.
+     * @return количество элементов; 0, если одна из границ равна null или from больше to.
+     */
+    int count(T from, T to);
+
+    /**
+     * Объединение множеств значений двух деревьев.
+     * <br>Результат принадлежит тому же семейству деревьев, что и текущее.
+     * Поддеревья операндов, не затронутые операцией, используются в результате без копирования.
+     *
+     * @param other второе дерево.
+     * @return новое дерево со значениями, которые есть хотя бы в одном из деревьев.
+     */
+    Tree<T> union(Tree<T> other);
+
+    /**
+     * Пересечение множеств значений двух деревьев.
+     * <br>Результат принадлежит тому же семейству деревьев, что и текущее.
+     *
+     * @param other второе дерево.
+     * @return новое дерево со значениями, которые есть в обоих деревьях.
+     */
+    Tree<T> intersection(Tree<T> other);
+
+    /**
+     * Разность множеств значений двух деревьев.
+     * <br>Результат принадлежит тому же семейству деревьев, что и текущее.
+     *
+     * @param other дерево значений, которые необходимо исключить.
+     * @return новое дерево со значениями текущего дерева, которых нет во втором.
+     */
+    Tree<T> difference(Tree<T> other);
+
     /**
      * Проверка, является ли дерево пустым.
      *
@@ -0,0 +1,153 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Iterator;
+
+/**
+ * Потоковый построитель {@link ImmutableBinaryTree} из значений, поступающих в порядке возрастания.
+ * <br>Дерево собирается снизу вверх за O(n): каждое значение превращается ровно в один узел,
+ * а готовые поддеревья никогда не перестраиваются и не проходятся повторно.
+ * <br>Построитель хранит "хребет" незавершенных узлов - левое поддерево и значение корня,
+ * ожидающего правое поддерево той же высоты. Высоты на хребте строго убывают,
+ * поэтому его глубина не превышает 32, а высота итогового дерева - log2(n) + 2.
+ * <br>Значения, нарушающие порядок, отклоняются сразу; повторы обрабатываются согласно {@link DuplicatePolicy}.
+ * <br>Экземпляр не потокобезопасен и предназначен для одного построения за раз:
+ * {@link #build()} возвращает дерево и возвращает построитель в исходное состояние.
+ *
+ * @see TreeFactory#treeBuilder(DuplicatePolicy)
+ */
+public final class TreeBuilder<T extends Comparable<? super T>> {
+
+    private static final int MAX_SPINE = Integer.SIZE;
+
+    private final DuplicatePolicy duplicates;
+
+    /* Хребет незавершенных узлов: левые поддеревья, их высоты и значения корней */
+
+    private final ImmutableBinaryTree<T>[] lefts;
+
+    private final int[] heights = new int[MAX_SPINE];
+
+    private final Object[] roots = new Object[MAX_SPINE];
+
+    private int depth;
+
+    /**
+     * Завершенное поддерево, ожидающее следующего значения в качестве своего родителя.
+     * Равно null, если последнее значение было помещено на хребет.
+     */
+    private ImmutableBinaryTree<T> current;
+
+    private int currentHeight;
+
+    private T last;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TreeBuilder(final DuplicatePolicy duplicates) {
+        this.duplicates = duplicates;
+        lefts = new ImmutableBinaryTree[MAX_SPINE];
+    }
+
+    /**
+     * Добавление очередного значения. Значение null игнорируется.
+     *
+     * @param value значение, не меньшее предыдущего.
+     * @return этот же построитель.
+     * @throws IllegalArgumentException если значение меньше предыдущего,
+     *                                  или равно ему при политике {@link DuplicatePolicy#REJECT}.
+     */
+    public TreeBuilder<T> add(final T value) {
+        if (value == null) return this;
+
+        if (last != null) {
+            int comparison = value.compareTo(last);
+            if (comparison < 0) {
+                throw new IllegalArgumentException("Values must be added in ascending order: " + value + " after " + last);
+            }
+            if (comparison == 0) {
+                if (duplicates == DuplicatePolicy.REJECT) {
+                    throw new IllegalArgumentException("Duplicate value: " + value);
+                }
+                return this;
+            }
+        }
+        last = value;
+
+        if (current == null) {
+            ImmutableBinaryTree<T> tree = new Leaf<>(value);
+            int height = 1;
+            while (depth > 0 && heights[depth - 1] == height) {
+                depth--;
+                tree = new DualBranch<>(root(depth), lefts[depth], tree);
+                lefts[depth] = null;
+                roots[depth] = null;
+                height++;
+            }
+            current = tree;
+            currentHeight = height;
+        } else {
+            lefts[depth] = current;
+            heights[depth] = currentHeight;
+            roots[depth] = value;
+            depth++;
+            current = null;
+        }
+        return this;
+    }
+
+    /**
+     * Добавление всех значений итератора.
+     *
+     * @param values значения в порядке возрастания.
+     * @return этот же построитель.
+     * @see #add(Comparable)
+     */
+    public TreeBuilder<T> addAll(final Iterator<? extends T> values) {
+        while (values.hasNext()) {
+            add(values.next());
+        }
+        return this;
+    }
+
+    /**
+     * Завершение построения: незавершенные узлы хребта получают в качестве правых поддеревьев
+     * все, что было добавлено после них.
+     *
+     * @return новое дерево со всеми добавленными значениями.
+     */
+    public ImmutableBinaryTree<T> build() {
+        ImmutableBinaryTree<T> tree = current == null ? EmptyTree.instance() : current;
+        while (depth > 0) {
+            depth--;
+            tree = NonEmptyTree.node(root(depth), lefts[depth], tree);
+            lefts[depth] = null;
+            roots[depth] = null;
+        }
+        current = null;
+        last = null;
+        return tree;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T root(final int level) {
+        return (T) roots[level];
+    }
+
+    /**
+     * Построение идеально сбалансированного дерева из отсортированного массива без повторов за O(n).
+     * <br>Корнем становится средний элемент отрезка, левое и правое поддеревья строятся из половин,
+     * поэтому каждый элемент читается один раз и превращается в один узел.
+     *
+     * @param sorted отсортированный массив различных значений.
+     * @param from   начало отрезка, включительно.
+     * @param to     конец отрезка, не включительно.
+     * @param <U>    тип-параметр значений дерева.
+     * @return сбалансированное дерево.
+     */
+    static <U extends Comparable<? super U>> ImmutableBinaryTree<U> balanced(final U[] sorted, final int from, final int to) {
+        if (from >= to) return EmptyTree.instance();
+
+        int mid = from + (to - from) / 2;
+        return NonEmptyTree.node(sorted[mid], balanced(sorted, from, mid), balanced(sorted, mid + 1, to));
+    }
+
+}
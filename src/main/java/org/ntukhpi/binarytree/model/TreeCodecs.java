@@ -0,0 +1,271 @@
+package org.ntukhpi.binarytree.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Стандартные двоичные представления значений: фиксированной длины для {@link ValueCodec}
+ * и разностные для {@link KeyCodec}.
+ * <br>Числа фиксированной длины записываются в порядке байтов буфера; {@link TreeFile} всегда использует big-endian.
+ * <br>Разностные представления используют varint: 7 бит на байт, старший бит - признак продолжения.
+ *
+ * @see TreeFactory#treeFile(java.nio.file.Path, ValueCodec)
+ * @see TreeSnapshot
+ */
+public final class TreeCodecs {
+
+    private static final ValueCodec<Integer> INTEGERS = new ValueCodec<Integer>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(final ByteBuffer buffer, final int offset, final Integer value) {
+            buffer.putInt(offset, value);
+        }
+
+        @Override
+        public Integer read(final ByteBuffer buffer, final int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    private static final ValueCodec<Long> LONGS = new ValueCodec<Long>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(final ByteBuffer buffer, final int offset, final Long value) {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long read(final ByteBuffer buffer, final int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    /**
+     * Первое число записывается в zigzag-представлении, каждое следующее - как разность с предыдущим минус 1.
+     */
+    private static final KeyCodec<Integer> INTEGER_KEYS = new KeyCodec<Integer>() {
+        @Override
+        public String name() {
+            return "int32";
+        }
+
+        @Override
+        public void write(final DataOutput out, final Integer previous, final Integer value) throws IOException {
+            if (previous == null) {
+                writeVarLong(out, zigzag(value));
+            } else if (value > previous) {
+                writeVarLong(out, (long) value - previous - 1);
+            } else {
+                throw new IllegalArgumentException("Keys must be strictly ascending: " + value + " after " + previous);
+            }
+        }
+
+        @Override
+        public Integer read(final DataInput in, final Integer previous) throws IOException {
+            if (previous == null) {
+                long value = unzigzag(readVarLong(in));
+                if (value != (int) value) throw new IOException("Key is out of int range: " + value);
+                return (int) value;
+            }
+            long delta = readVarLong(in);
+            if (delta < 0 || delta >= (long) Integer.MAX_VALUE - previous) {
+                throw new IOException("Key is out of int range: " + previous + " + " + Long.toUnsignedString(delta) + " + 1");
+            }
+            return (int) (previous + delta + 1);
+        }
+    };
+
+    private static final KeyCodec<Long> LONG_KEYS = new KeyCodec<Long>() {
+        @Override
+        public String name() {
+            return "int64";
+        }
+
+        @Override
+        public void write(final DataOutput out, final Long previous, final Long value) throws IOException {
+            if (previous == null) {
+                writeVarLong(out, zigzag(value));
+            } else if (value > previous) {
+                writeVarLong(out, value - previous - 1);
+            } else {
+                throw new IllegalArgumentException("Keys must be strictly ascending: " + value + " after " + previous);
+            }
+        }
+
+        @Override
+        public Long read(final DataInput in, final Long previous) throws IOException {
+            if (previous == null) return unzigzag(readVarLong(in));
+
+            long delta = readVarLong(in);
+            if (Long.compareUnsigned(delta, Long.MAX_VALUE - previous - 1) > 0) {
+                throw new IOException("Key is out of long range: " + previous + " + " + Long.toUnsignedString(delta) + " + 1");
+            }
+            return previous + delta + 1;
+        }
+    };
+
+    /**
+     * Строка записывается как длина общего с предыдущей строкой префикса в символах
+     * и остаток в UTF-8 с длиной в байтах. Префикс не разрывает суррогатную пару.
+     */
+    private static final KeyCodec<String> STRING_KEYS = new KeyCodec<String>() {
+        @Override
+        public String name() {
+            return "utf8";
+        }
+
+        @Override
+        public void write(final DataOutput out, final String previous, final String value) throws IOException {
+            int prefix = 0;
+            if (previous != null) {
+                int limit = Math.min(previous.length(), value.length());
+                while (prefix < limit && previous.charAt(prefix) == value.charAt(prefix)) {
+                    prefix++;
+                }
+                if (prefix > 0 && Character.isHighSurrogate(value.charAt(prefix - 1))) {
+                    prefix--;
+                }
+            }
+            byte[] suffix = value.substring(prefix).getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, prefix);
+            writeVarLong(out, suffix.length);
+            out.write(suffix);
+        }
+
+        @Override
+        public String read(final DataInput in, final String previous) throws IOException {
+            long prefix = readVarLong(in);
+            long length = readVarLong(in);
+            if (prefix < 0 || prefix > (previous == null ? 0 : previous.length())) {
+                throw new IOException("Shared prefix is longer than the previous key: " + prefix);
+            }
+            if (length < 0 || length > Integer.MAX_VALUE) throw new IOException("Key is too long: " + length);
+
+            byte[] suffix = new byte[(int) length];
+            in.readFully(suffix);
+            String tail = new String(suffix, StandardCharsets.UTF_8);
+            return prefix == 0 ? tail : previous.substring(0, (int) prefix) + tail;
+        }
+    };
+
+    private TreeCodecs() {
+    }
+
+    /**
+     * @return представление {@link Integer} в 4 байтах.
+     */
+    public static ValueCodec<Integer> integers() {
+        return INTEGERS;
+    }
+
+    /**
+     * @return представление {@link Long} в 8 байтах.
+     */
+    public static ValueCodec<Long> longs() {
+        return LONGS;
+    }
+
+    /**
+     * Представление строк в UTF-8: два байта длины и не более {@code maxBytes} байт текста.
+     * <br>Короткие строки дополняются до полной длины, поэтому {@code maxBytes} стоит выбирать по реальным данным.
+     *
+     * @param maxBytes максимальная длина строки в байтах UTF-8.
+     * @return представление строк фиксированной длины {@code maxBytes + 2}.
+     * @throws IllegalArgumentException если длина меньше 1 или больше 65535 байт.
+     */
+    public static ValueCodec<String> strings(final int maxBytes) {
+        if (maxBytes < 1 || maxBytes > 0xFFFF) {
+            throw new IllegalArgumentException("Max string length must be in [1, 65535] bytes: " + maxBytes);
+        }
+        return new ValueCodec<String>() {
+            @Override
+            public int width() {
+                return Short.BYTES + maxBytes;
+            }
+
+            @Override
+            public void write(final ByteBuffer buffer, final int offset, final String value) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > maxBytes) {
+                    throw new IllegalArgumentException("String takes " + bytes.length + " bytes, limit is " + maxBytes);
+                }
+                buffer.putShort(offset, (short) bytes.length);
+                ByteBuffer target = buffer.duplicate();
+                target.position(offset + Short.BYTES);
+                target.put(bytes);
+            }
+
+            @Override
+            public String read(final ByteBuffer buffer, final int offset) {
+                byte[] bytes = new byte[buffer.getShort(offset) & 0xFFFF];
+                ByteBuffer source = buffer.duplicate();
+                source.position(offset + Short.BYTES);
+                source.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * @return разностное представление возрастающих {@link Integer}: 1 байт на разность до 128.
+     */
+    public static KeyCodec<Integer> integerKeys() {
+        return INTEGER_KEYS;
+    }
+
+    /**
+     * @return разностное представление возрастающих {@link Long}: 1 байт на разность до 128.
+     */
+    public static KeyCodec<Long> longKeys() {
+        return LONG_KEYS;
+    }
+
+    /**
+     * @return представление возрастающих строк с общим префиксом.
+     */
+    public static KeyCodec<String> stringKeys() {
+        return STRING_KEYS;
+    }
+
+    /**
+     * Запись числа как беззнакового varint: от 1 до 10 байт.
+     */
+    static void writeVarLong(final DataOutput out, final long value) throws IOException {
+        long rest = value;
+        while ((rest & ~0x7FL) != 0) {
+            out.writeByte((int) (rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        out.writeByte((int) rest);
+    }
+
+    static long readVarLong(final DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint: more than 10 bytes");
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.ntukhpi.binarytree.model;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+/**
+ * Специализированные компараторы ключей для {@link ComparatorTree}.
+ * <br>Компараторы не хранят состояния и возвращаются в виде единственных экземпляров,
+ * поэтому деревья, построенные с одним и тем же компаратором, равны по {@link ComparatorTree#comparator()}.
+ *
+ * @see TreeFactory#comparatorTree(Comparator)
+ */
+public final class TreeComparators {
+
+    private static final Comparator<byte[]> UNSIGNED_BYTES = TreeComparators::compareUnsigned;
+
+    private static final Comparator<Long> UNSIGNED_LONGS = (left, right) -> Long.compareUnsigned(left, right);
+
+    private TreeComparators() {
+    }
+
+    /**
+     * Лексикографическое сравнение массивов байтов, в котором байты считаются беззнаковыми (0..255).
+     * <br>Такой порядок совпадает с порядком строк UTF-8 по кодовым точкам и с порядком ключей big-endian.
+     * Более короткий массив, являющийся префиксом более длинного, считается меньшим.
+     *
+     * @return компаратор массивов байтов.
+     */
+    public static Comparator<byte[]> unsignedBytes() {
+        return UNSIGNED_BYTES;
+    }
+
+    /**
+     * Сравнение значений {@code long} как беззнаковых 64-битных чисел.
+     *
+     * @return компаратор беззнаковых чисел.
+     * @see Long#compareUnsigned(long, long)
+     */
+    public static Comparator<Long> unsignedLongs() {
+        return UNSIGNED_LONGS;
+    }
+
+    /**
+     * Сравнение по 8 байтов за шаг: общий префикс пропускается словами {@code long},
+     * прочитанными через {@link ByteBuffer#getLong(int)} в порядке big-endian (начиная с JDK 9 - одна невыровненная
+     * загрузка слова), и только первое различающееся слово сравнивается беззнаково, остаток короче слова - побайтно.
+     */
+    static int compareUnsigned(final byte[] left, final byte[] right) {
+        if (left == right) return 0;
+
+        int length = Math.min(left.length, right.length);
+        int words = length & ~7;
+        ByteBuffer leftWords = ByteBuffer.wrap(left);
+        ByteBuffer rightWords = ByteBuffer.wrap(right);
+        for (int i = 0; i < words; i += Long.BYTES) {
+            long leftWord = leftWords.getLong(i);
+            long rightWord = rightWords.getLong(i);
+            if (leftWord != rightWord) {
+                return Long.compareUnsigned(leftWord, rightWord);
+            }
+        }
+        for (int i = words; i < length; i++) {
+            int comparison = (left[i] & 0xFF) - (right[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return left.length - right.length;
+    }
+
+}
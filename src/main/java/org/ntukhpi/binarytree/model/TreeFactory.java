@@ -1,11 +1,24 @@
 package org.ntukhpi.binarytree.model;
 
 
-import java.util.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.stream.Stream;
 
 /**
  * Фабрика обьектов класса {@link ImmutableBinaryTree} и подклассов.
  * <br>Предоставляет методы для создания новых бинарных деревьев.
+ * <br>Помимо несбалансированного {@link ImmutableBinaryTree} (и его компактного варианта {@link CompactTree}),
+ * создает самобалансирующиеся реализации
+ * ({@link RedBlackTree}, {@link AvlTree}), B+дерево с широкими узлами ({@link BPlusTree}),
+ * дерево с узлами вне кучи ({@link ArenaTree}) и в файле ({@link TreeFile}),
+ * примитивную специализацию {@link IntTree}, дерево с внешним компаратором {@link ComparatorTree}
+ * и отображение {@link ImmutableTreeMap}.
  */
 public final class TreeFactory {
 
@@ -23,6 +36,8 @@ public final class TreeFactory {
      * Метод инициализации дерева с указанными значениями.
      * <br>Значения добавляются в дерево в том порядке, в котором они переданы в метод.
      * <br>Сбалансированность полученного дерева не гарантируется.
+     * <br>Вставки выполняются в переходной версии дерева ({@link TransientTree}),
+     * поэтому каждый узел копируется не более одного раза.
      *
      * @param elements массив значений.
      * @param <U>      тип-параметр значений, которые будут хранится в дереве.
@@ -30,50 +45,457 @@ public final class TreeFactory {
      */
     @SafeVarargs
     public final <U extends Comparable<? super U>> ImmutableBinaryTree<U> immutableTree(final U... elements) {
-        ImmutableBinaryTree<U> tree = immutableTree();
+        TransientTree<U> tree = this.<U>immutableTree().asTransient();
         for (U elem : elements) {
-            tree = tree.insert(elem);
+            tree.insert(elem);
         }
-        return tree;
+        return (ImmutableBinaryTree<U>) tree.persistent();
     }
 
     /**
      * Метод инициализации сбалансированного дерева с указанными значениями.
-     * <br>Значения сортируются и добавляются в дерево через метод {@link TreeFactory#populateTree(List)}
+     * <br>Значения сортируются, повторы отбрасываются, после чего дерево собирается снизу вверх
+     * через метод {@link TreeBuilder#balanced(Comparable[], int, int)} за линейное время.
      * <br>Сбалансированность полученного дерева гарантируется.
+     * <br>Переданный массив не изменяется.
      *
      * @param elements массив значений.
      * @param <U>      тип-параметр значений, которые будут хранится в дереве.
      * @return новое сбалансированное дерево с переданными значениями в вершинах.
-     * @see TreeFactory#populateTree(List)
+     * @see TreeBuilder#balanced(Comparable[], int, int)
      */
     @SafeVarargs
+    @SuppressWarnings("varargs")
     public final <U extends Comparable<? super U>> ImmutableBinaryTree<U> balancedTree(final U... elements) {
-        List<U> asList = Arrays.asList(elements);
-        asList.sort(Comparator.naturalOrder());
-        return populateTree(asList);
+        U[] sorted = elements.clone();
+        Arrays.sort(sorted);
+
+        int distinct = 0;
+        for (U elem : sorted) {
+            if (distinct == 0 || sorted[distinct - 1].compareTo(elem) != 0) {
+                sorted[distinct++] = elem;
+            }
+        }
+        return TreeBuilder.balanced(sorted, 0, distinct);
+    }
+
+    /**
+     * Метод создания потокового построителя дерева из значений, поступающих в порядке возрастания.
+     *
+     * @param duplicates поведение при повторе значения.
+     * @param <U>        тип-параметр значений, которые будут хранится в дереве.
+     * @return новый построитель.
+     * @see TreeBuilder
+     */
+    public final <U extends Comparable<? super U>> TreeBuilder<U> treeBuilder(final DuplicatePolicy duplicates) {
+        return new TreeBuilder<>(duplicates);
+    }
+
+    /**
+     * Метод инициализации дерева из значений, отсортированных по возрастанию, за линейное время.
+     * <br>Повторы отбрасываются. Высота полученного дерева не превышает log2(n) + 2.
+     *
+     * @param sorted итератор значений в порядке возрастания.
+     * @param <U>    тип-параметр значений, которые будут хранится в дереве.
+     * @return новое дерево с переданными значениями в вершинах.
+     * @throws IllegalArgumentException если значения не отсортированы.
+     * @see TreeBuilder
+     */
+    public final <U extends Comparable<? super U>> ImmutableBinaryTree<U> sortedTree(final Iterator<? extends U> sorted) {
+        return this.<U>treeBuilder(DuplicatePolicy.MERGE).addAll(sorted).build();
+    }
+
+    /**
+     * Метод инициализации дерева из потока значений, отсортированных по возрастанию, за линейное время.
+     * <br>Повторы отбрасываются. Высота полученного дерева не превышает log2(n) + 2.
+     *
+     * @param sorted поток значений в порядке возрастания.
+     * @param <U>    тип-параметр значений, которые будут хранится в дереве.
+     * @return новое дерево с переданными значениями в вершинах.
+     * @throws IllegalArgumentException если значения не отсортированы.
+     * @see TreeBuilder
+     */
+    public final <U extends Comparable<? super U>> ImmutableBinaryTree<U> sortedTree(final Stream<? extends U> sorted) {
+        TreeBuilder<U> builder = treeBuilder(DuplicatePolicy.MERGE);
+        sorted.sequential().forEachOrdered(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Метод инициализации пустого несбалансированного дерева с компактным представлением узлов.
+     *
+     * @param <U> тип-параметр значений, которые будут хранится в дереве.
+     * @return новое пустое дерево.
+     * @see CompactTree
+     */
+    public final <U extends Comparable<? super U>> CompactTree<U> compactTree() {
+        return CompactTree.instance();
+    }
+
+    /**
+     * Метод инициализации несбалансированного дерева с указанными значениями и компактным представлением узлов.
+     * <br>Поведение и форма дерева такие же, как у {@link #immutableTree(Comparable[])},
+     * но все узлы - экземпляры одного final-класса, что делает спуск по дереву мономорфным.
+     *
+     * @param elements массив значений.
+     * @param <U>      тип-параметр значений, которые будут хранится в дереве.
+     * @return новое дерево с переданными значениями в вершинах.
+     * @see CompactTree
+     */
+    @SafeVarargs
+    public final <U extends Comparable<? super U>> CompactTree<U> compactTree(final U... elements) {
+        CompactTree<U> tree = compactTree();
+        for (U elem : elements) {
+            tree = tree.insert(elem);
+        }
+        return tree;
+    }
+
+    /**
+     * Метод инициализации пустого красно-черного дерева.
+     *
+     * @param <U> тип-параметр значений, которые будут хранится в дереве.
+     * @return новое пустое самобалансирующееся дерево.
+     * @see RedBlackTree
+     */
+    public final <U extends Comparable<? super U>> RedBlackTree<U> redBlackTree() {
+        return EmptyRedBlackTree.instance();
+    }
+
+    /**
+     * Метод инициализации красно-черного дерева с указанными значениями.
+     * <br>Значения добавляются в дерево в том порядке, в котором они переданы в метод,
+     * но высота полученного дерева не превышает 2*log2(n + 1) при любом порядке значений.
+     *
+     * @param elements массив значений.
+     * @param <U>      тип-параметр значений, которые будут хранится в дереве.
+     * @return новое самобалансирующееся дерево с переданными значениями в вершинах.
+     * @see RedBlackTree
+     */
+    @SafeVarargs
+    public final <U extends Comparable<? super U>> RedBlackTree<U> redBlackTree(final U... elements) {
+        RedBlackTree<U> tree = redBlackTree();
+        for (U elem : elements) {
+            tree = tree.insert(elem);
+        }
+        return tree;
+    }
+
+    /**
+     * Метод инициализации пустого АВЛ-дерева.
+     *
+     * @param <U> тип-параметр значений, которые будут хранится в дереве.
+     * @return новое пустое самобалансирующееся дерево.
+     * @see AvlTree
+     */
+    public final <U extends Comparable<? super U>> AvlTree<U> avlTree() {
+        return EmptyAvlTree.instance();
+    }
+
+    /**
+     * Метод инициализации АВЛ-дерева с указанными значениями.
+     * <br>Значения добавляются в дерево в том порядке, в котором они переданы в метод.
+     * <br>Каждый узел полученного дерева хранит свою высоту, а разница высот поддеревьев любого узла не превышает 1.
+     *
+     * @param elements массив значений.
+     * @param <U>      тип-параметр значений, которые будут хранится в дереве.
+     * @return новое самобалансирующееся дерево с переданными значениями в вершинах.
+     * @see AvlTree
+     */
+    @SafeVarargs
+    public final <U extends Comparable<? super U>> AvlTree<U> avlTree(final U... elements) {
+        AvlTree<U> tree = avlTree();
+        for (U elem : elements) {
+            tree = tree.insert(elem);
+        }
+        return tree;
+    }
+
+    /**
+     * Метод инициализации пустого дерева, узлы которого хранятся вне кучи.
+     * <br>Каждый вызов создает новое хранилище узлов {@link NodeArena};
+     * все версии, полученные из этого дерева, дописывают узлы в него же.
+     *
+     * @param <U> тип-параметр значений, которые будут хранится в дереве.
+     * @return новое пустое дерево.
+     * @see ArenaTree
+     */
+    public final <U extends Comparable<? super U>> ArenaTree<U> arenaTree() {
+        return new ArenaTree<>(new NodeArena<U>(), NodeArena.NIL);
     }
 
     /**
-     * Метод принимает отсортированный список значений,
-     * создает новое пустое дерево
-     * и рекурсивно добавляет в него среднее значение списка, потом среднее значение каждой из половин списка
-     * - в корень правого и левого поддеревьев и.т.п., пока не иссякнут значения в списке.
+     * Метод инициализации дерева с указанными значениями, узлы которого хранятся вне кучи.
+     * <br>Дерево балансируется по схеме АВЛ.
      *
-     * @param elements отсортированный список значений
+     * @param elements массив значений.
      * @param <U>      тип-параметр значений, которые будут хранится в дереве.
+     * @return новое самобалансирующееся дерево с переданными значениями в вершинах.
+     * @see ArenaTree
+     */
+    @SafeVarargs
+    public final <U extends Comparable<? super U>> ArenaTree<U> arenaTree(final U... elements) {
+        ArenaTree<U> tree = arenaTree();
+        for (U elem : elements) {
+            tree = tree.insert(elem);
+        }
+        return tree;
+    }
+
+    /**
+     * Метод открытия дерева, хранимого в файле; отсутствующий файл создается.
+     * <br>Открытие не читает узлы: последняя зафиксированная версия доступна сразу через {@link TreeFile#root()}.
+     *
+     * @param path  путь к файлу.
+     * @param codec двоичное представление значений; должно совпадать с тем, с которым создавался файл.
+     * @param <U>   тип-параметр значений дерева.
+     * @return открытый файл дерева.
+     * @throws IOException              если файл нельзя открыть или он не является файлом дерева.
+     * @throws IllegalArgumentException если файл создан с представлением значений другой длины.
+     * @see TreeFile
+     */
+    public final <U extends Comparable<? super U>> TreeFile<U> treeFile(final Path path, final ValueCodec<U> codec)
+            throws IOException {
+        return new TreeFile<>(PageStore.open(path, codec));
+    }
+
+    /**
+     * Метод инициализации пустого B+дерева с размером узла по умолчанию (64 элемента).
+     *
+     * @param <U> тип-параметр значений, которые будут хранится в дереве.
+     * @return новое пустое B+дерево.
+     * @see BPlusTree
+     */
+    public final <U extends Comparable<? super U>> BPlusTree<U> bPlusTree() {
+        return new BPlusTree<>(BPlusTree.DEFAULT_FANOUT);
+    }
+
+    /**
+     * Метод инициализации пустого B+дерева с указанным размером узла.
+     * <br>Для поиска в памяти подходят значения от 32 до 128: узел занимает несколько соседних кеш-линий.
+     * <br>Отдельное имя метода нужно, чтобы вызов с одним целым числом не путался с {@link #bPlusTree(Comparable[])}.
+     *
+     * @param fanout максимальное количество значений листа и потомков внутреннего узла.
+     * @param <U>    тип-параметр значений, которые будут хранится в дереве.
+     * @return новое пустое B+дерево.
+     * @throws IllegalArgumentException если размер узла меньше 4 или больше 1024.
+     * @see BPlusTree
+     */
+    public final <U extends Comparable<? super U>> BPlusTree<U> bPlusTreeWithFanout(final int fanout) {
+        return new BPlusTree<>(fanout);
+    }
+
+    /**
+     * Метод инициализации B+дерева с указанными значениями за O(n log n).
+     * <br>Значения сортируются, повторы отбрасываются, а дерево строится снизу вверх с равномерно заполненными узлами.
+     * <br>Переданный массив не изменяется.
+     *
+     * @param elements массив значений.
+     * @param <U>      тип-параметр значений, которые будут хранится в дереве.
+     * @return новое B+дерево с переданными значениями.
+     * @see BPlusTree
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final <U extends Comparable<? super U>> BPlusTree<U> bPlusTree(final U... elements) {
+        return (BPlusTree<U>) this.<U>bPlusTree().insertAll(Arrays.asList(elements));
+    }
+
+    /**
+     * Метод получения дерева в виде {@link NavigableSet} без копирования значений.
+     * <br>Множество доступно только для чтения и отражает ту версию дерева, которая передана в метод.
+     *
+     * @param tree дерево.
+     * @param <U>  тип-параметр значений дерева.
+     * @return множество, упорядоченное по возрастанию значений.
+     * @see TreeSetView
+     */
+    public final <U extends Comparable<? super U>> NavigableSet<U> navigableSet(final NavigableTree<U> tree) {
+        return new TreeSetView<>(tree, false);
+    }
+
+    /**
+     * Метод создания интернера деревьев, который делает структурно равные поддеревья одним объектом.
+     * <br>Деревья, полученные через один интернер, сравниваются за O(1) и разделяют память равных поддеревьев.
+     *
+     * @return новый интернер с пустой таблицей.
+     * @see TreeInterner
+     */
+    public final TreeInterner treeInterner() {
+        return new TreeInterner();
+    }
+
+    /**
+     * Метод создания истории версий дерева.
+     * <br>Переданное дерево становится версией с номером 0.
+     *
+     * @param initial   начальная версия дерева.
+     * @param retention максимальное количество хранимых версий.
+     * @param <U>       тип-параметр значений дерева.
+     * @return новая история версий.
+     * @throws IllegalArgumentException если количество хранимых версий меньше 1.
+     * @see TreeHistory
+     */
+    public final <U extends Comparable<? super U>> TreeHistory<U> treeHistory(final Tree<U> initial, final int retention) {
+        return new TreeHistory<>(initial, retention);
+    }
+
+    /**
+     * Метод создания потокобезопасного дескриптора дерева, который публикует новые версии без блокировок.
+     *
+     * @param initial начальная версия дерева.
+     * @param <U>     тип-параметр значений дерева.
+     * @return новый дескриптор.
+     * @see ConcurrentTree
+     */
+    public final <U extends Comparable<? super U>> ConcurrentTree<U> concurrentTree(final Tree<U> initial) {
+        return new ConcurrentTree<>(initial);
+    }
+
+    /**
+     * Метод создания множества, разделенного на независимые деревья по указанным точкам разбиения.
+     * <br>Без точек разбиения множество состоит из одного отрезка; отрезки можно перестроить
+     * по фактическому распределению значений вызовом {@link ShardedTree#resplit(int)}.
+     *
+     * @param splitPoints точки разбиения в порядке строгого возрастания.
+     * @param <U>         тип-параметр значений.
+     * @return новое пустое множество.
+     * @throws IllegalArgumentException если точки разбиения не возрастают.
+     * @see ShardedTree
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final <U extends Comparable<? super U>> ShardedTree<U> shardedTree(final U... splitPoints) {
+        return new ShardedTree<>(splitPoints);
+    }
+
+    /**
+     * Метод инициализации пустого дерева целых чисел.
+     *
+     * @return новое пустое дерево.
+     * @see IntTree
+     */
+    public final IntTree intTree() {
+        return EmptyIntTree.instance();
+    }
+
+    /**
+     * Метод инициализации дерева целых чисел из массива, отсортированного по возрастанию, за линейное время.
+     * <br>Повторы отбрасываются. Полученное дерево идеально сбалансировано.
+     * <br>Переданный массив не изменяется.
+     *
+     * @param sorted отсортированный массив значений.
      * @return новое сбалансированное дерево с переданными значениями в вершинах.
+     * @throws IllegalArgumentException если значения не отсортированы.
+     * @see IntTree
      */
-    private <U extends Comparable<? super U>> ImmutableBinaryTree<U> populateTree(List<U> elements) {
-        if (elements.isEmpty()) return immutableTree();
+    public final IntTree sortedIntTree(final int... sorted) {
+        int distinct = sorted.length == 0 ? 0 : 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] < sorted[i - 1]) {
+                throw new IllegalArgumentException("Values must be sorted in ascending order: "
+                        + sorted[i] + " after " + sorted[i - 1]);
+            }
+            if (sorted[i] != sorted[i - 1]) distinct++;
+        }
 
-        ImmutableBinaryTree<U> tree = immutableTree();
+        int[] values = sorted;
+        if (distinct != sorted.length) {
+            values = new int[distinct];
+            int size = 0;
+            for (int value : sorted) {
+                if (size == 0 || values[size - 1] != value) values[size++] = value;
+            }
+        }
+        return ImmutableIntTree.balanced(values, 0, values.length);
+    }
 
-        int mid = elements.size() / 2;
-        tree = tree.insert(elements.get(mid));
-        tree = tree.insertAll(populateTree(elements.subList(0, mid)));
-        tree = tree.insertAll(populateTree(elements.subList(mid + 1, elements.size())));
+    /**
+     * Метод инициализации дерева целых чисел с указанными значениями.
+     * <br>Дерево балансируется по схеме АВЛ, а значения хранятся без упаковки в {@link Integer}.
+     *
+     * @param elements массив значений.
+     * @return новое самобалансирующееся дерево с переданными значениями в вершинах.
+     * @see IntTree
+     */
+    public final IntTree intTree(final int... elements) {
+        ImmutableIntTree tree = EmptyIntTree.instance();
+        for (int elem : elements) {
+            tree = tree.insert(elem);
+        }
         return tree;
     }
 
+    /**
+     * Метод инициализации пустого дерева, упорядоченного указанным компаратором.
+     * <br>Значения не обязаны реализовывать {@link Comparable}: компаратор хранится один раз в корне дерева.
+     *
+     * @param comparator компаратор значений.
+     * @param <U>        тип-параметр значений, которые будут хранится в дереве.
+     * @return новое пустое самобалансирующееся дерево.
+     * @see ComparatorTree
+     * @see TreeComparators
+     */
+    public final <U> ComparatorTree<U> comparatorTree(final Comparator<? super U> comparator) {
+        return new ImmutableComparatorTree<>(comparator);
+    }
+
+    /**
+     * Метод инициализации дерева с указанными значениями, упорядоченного указанным компаратором.
+     * <br>Дерево балансируется по схеме АВЛ.
+     *
+     * @param comparator компаратор значений.
+     * @param elements   массив значений.
+     * @param <U>        тип-параметр значений, которые будут хранится в дереве.
+     * @return новое самобалансирующееся дерево с переданными значениями в вершинах.
+     * @see ComparatorTree
+     */
+    @SafeVarargs
+    public final <U> ComparatorTree<U> comparatorTree(final Comparator<? super U> comparator, final U... elements) {
+        ComparatorTree<U> tree = comparatorTree(comparator);
+        for (U elem : elements) {
+            tree = tree.insert(elem);
+        }
+        return tree;
+    }
+
+    /**
+     * Метод инициализации дерева ключей-массивов байтов в беззнаковом лексикографическом порядке.
+     * <br>Массивы хранятся в узлах без копирования, поэтому их нельзя изменять после добавления в дерево.
+     *
+     * @param keys массив ключей.
+     * @return новое самобалансирующееся дерево с переданными ключами в вершинах.
+     * @see TreeComparators#unsignedBytes()
+     */
+    public final ComparatorTree<byte[]> byteArrayTree(final byte[]... keys) {
+        return comparatorTree(TreeComparators.unsignedBytes(), keys);
+    }
+
+    /**
+     * Метод инициализации пустого отображения ключей в значения.
+     *
+     * @param <K> тип-параметр ключей.
+     * @param <V> тип-параметр значений.
+     * @return новое пустое отображение.
+     * @see ImmutableTreeMap
+     */
+    public final <K extends Comparable<? super K>, V> ImmutableTreeMap<K, V> immutableTreeMap() {
+        return BinaryTreeMap.instance();
+    }
+
+    /**
+     * Метод инициализации отображения с парами ключ-значение из указанного {@link Map}.
+     * <br>Дерево строится сбалансированным из пар, отсортированных по ключу, независимо от порядка итерации
+     * переданного отображения: за O(n log n), для уже упорядоченного (например, {@link java.util.SortedMap}) - за O(n).
+     *
+     * @param entries исходные пары.
+     * @param <K>     тип-параметр ключей.
+     * @param <V>     тип-параметр значений.
+     * @return новое отображение с переданными парами.
+     * @see ImmutableTreeMap
+     */
+    public final <K extends Comparable<? super K>, V> ImmutableTreeMap<K, V> immutableTreeMap(final Map<K, V> entries) {
+        return BinaryTreeMap.balanced(entries);
+    }
+
 }
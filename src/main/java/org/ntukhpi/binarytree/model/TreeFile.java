@@ -0,0 +1,97 @@
+package org.ntukhpi.binarytree.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import static org.ntukhpi.binarytree.model.NodeStore.NIL;
+
+/**
+ * Персистентное дерево, хранимое в файле.
+ * <br>Узлы дерева - страницы файла, отображенного в память ({@link PageStore}), поэтому открытие файла
+ * не читает и не перестраивает дерево: {@link #root()} сразу возвращает последнюю зафиксированную версию,
+ * а страницы подгружаются операционной системой при обращении к ним.
+ * <br>Деревья, полученные из файла, - обычные персистентные АВЛ-деревья: изменения дописывают в файл
+ * новые страницы на пути от корня и разделяют остальные страницы с прежними версиями.
+ * Версия становится постоянной после {@link #commit(Tree)}; незафиксированные страницы
+ * отбрасываются при следующем открытии файла.
+ * <br>Файл только растет. Чтобы освободить место, занятое старыми версиями,
+ * достаточно зафиксировать текущую версию в новом файле.
+ *
+ * @param <T> тип-параметр значений дерева.
+ * @see TreeFactory#treeFile(java.nio.file.Path, ValueCodec)
+ */
+public final class TreeFile<T extends Comparable<? super T>> implements Closeable {
+
+    private final PageStore<T> store;
+
+    TreeFile(final PageStore<T> store) {
+        this.store = store;
+    }
+
+    /**
+     * @return последняя зафиксированная версия дерева; для нового файла - пустое дерево.
+     */
+    public NavigableTree<T> root() {
+        return new ArenaTree<>(store, store.committedRoot());
+    }
+
+    /**
+     * Фиксация версии дерева в файле.
+     * <br>Дерево, полученное из этого файла, фиксируется без копирования. Любое другое дерево
+     * копируется в файл в сбалансированном виде за O(n) с памятью O(log n).
+     *
+     * @param tree фиксируемая версия.
+     * @return зафиксированная версия дерева в файле.
+     * @throws IOException если запись не удалась.
+     */
+    public NavigableTree<T> commit(final Tree<T> tree) throws IOException {
+        ArenaTree<T> stored = own(tree)
+                ? (ArenaTree<T>) tree
+                : new ArenaTree<>(store, copy(tree.iterator(Traversal.IN_ORDER), tree.size()));
+        store.commit(stored.rootNode());
+        return stored;
+    }
+
+    private boolean own(final Tree<T> tree) {
+        return tree instanceof ArenaTree && ((ArenaTree<?>) tree).store() == store;
+    }
+
+    /**
+     * Запись {@code count} значений итератора в идеально сбалансированное поддерево.
+     */
+    private int copy(final Iterator<T> values, final int count) {
+        if (count == 0) return NIL;
+
+        int leftCount = (count - 1) / 2;
+        int left = copy(values, leftCount);
+        T value = values.next();
+        int right = copy(values, count - 1 - leftCount);
+        return store.allocate(value, left, right);
+    }
+
+    /**
+     * @return номер последней фиксации; 0 - файл еще не фиксировался.
+     */
+    public long version() {
+        return store.sequence();
+    }
+
+    /**
+     * @return количество страниц узлов в файле, включая страницы старых и незафиксированных версий.
+     */
+    public int pages() {
+        return store.allocated();
+    }
+
+    /**
+     * Закрытие файла. Незафиксированные изменения теряются.
+     *
+     * @throws IOException если файл не удалось закрыть.
+     */
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+}
@@ -0,0 +1,232 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * История версий персистентного дерева.
+ * <br>Каждая операция над деревом возвращает новый корень, а прежний остается неизменным,
+ * поэтому версия - это просто сохраненная ссылка на корень. История присваивает версиям
+ * монотонно возрастающие номера и хранит корни в кольцевом буфере, так что получение любой
+ * сохраненной версии ({@link #checkout(long)}) выполняется за O(1) без копирования узлов.
+ * <br>Количество хранимых версий ограничено: при переполнении вытесняется самая старая версия.
+ * Узлы, общие с оставшимися версиями, при этом не освобождаются - сборщик мусора удалит только
+ * узлы, уникальные для вытесненной версии.
+ * <br>{@link #footprint()} показывает, сколько узлов используется версиями совместно, а сколько принадлежит
+ * только одной версии.
+ * <br>Класс не потокобезопасен.
+ *
+ * @param <T> тип-параметр значений дерева.
+ * @see TreeFactory#treeHistory(Tree, int)
+ */
+public final class TreeHistory<T extends Comparable<? super T>> {
+
+    private final Tree<T>[] versions;
+
+    /**
+     * Номер самой старой сохраненной версии.
+     */
+    private long oldest;
+
+    /**
+     * Номер последней версии.
+     */
+    private long head;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TreeHistory(final Tree<T> initial, final int retention) {
+        if (retention < 1) {
+            throw new IllegalArgumentException("History must retain at least one version: " + retention);
+        }
+        versions = new Tree[retention];
+        versions[0] = initial;
+    }
+
+    /**
+     * Сохранение новой версии дерева.
+     * <br>Если сохраняется тот же корень, что и в последней версии, новая версия не создается.
+     *
+     * @param tree новый корень.
+     * @return номер версии, соответствующей переданному корню.
+     */
+    public long commit(final Tree<T> tree) {
+        if (tree == head()) return head;
+
+        head++;
+        if (head - oldest == versions.length) {
+            versions[slot(oldest)] = null;
+            oldest++;
+        }
+        versions[slot(head)] = tree;
+        return head;
+    }
+
+    /**
+     * Удаление всех версий, кроме последней. Номера версий не сбрасываются:
+     * следующая версия получит номер {@code headVersion() + 1}.
+     * <br>Удаленные корни больше не удерживаются историей и могут быть собраны сборщиком мусора.
+     */
+    public void truncate() {
+        for (long version = oldest; version < head; version++) {
+            versions[slot(version)] = null;
+        }
+        oldest = head;
+    }
+
+    /**
+     * Получение дерева указанной версии за константное время.
+     *
+     * @param version номер версии.
+     * @return контейнер, который может содержать дерево; пустой, если версия вытеснена или еще не создана.
+     */
+    public Optional<Tree<T>> checkout(final long version) {
+        if (version < oldest || version > head) return Optional.empty();
+        return Optional.of(versions[slot(version)]);
+    }
+
+    /**
+     * Получение последней версии дерева.
+     *
+     * @return корень последней версии.
+     */
+    public Tree<T> head() {
+        return versions[slot(head)];
+    }
+
+    /**
+     * @return номер последней версии.
+     */
+    public long headVersion() {
+        return head;
+    }
+
+    /**
+     * @return номер самой старой сохраненной версии.
+     */
+    public long oldestVersion() {
+        return oldest;
+    }
+
+    /**
+     * @return количество сохраненных версий.
+     */
+    public int size() {
+        return (int) (head - oldest + 1);
+    }
+
+    private int slot(final long version) {
+        return (int) (version % versions.length);
+    }
+
+    /**
+     * Подсчет узлов, занимаемых сохраненными версиями.
+     * <br>Узлы сравниваются по ссылке. Поддерево, уже признанное общим, повторно не обходится,
+     * поэтому подсчет стоит O(количество различных узлов), а не O(сумма размеров версий).
+     * <br>Узлы деревьев, навигация по которым создает новые объекты ({@link CompactTree}, {@link RangeTree},
+     * {@link BPlusTree}, чьи {@code left()} и {@code right()} возвращают новые представления диапазонов листьев),
+     * не могут быть отождествлены и учитываются как уникальные: для таких версий число различных узлов
+     * равно сумме их размеров, даже если внутренние узлы разделяются.
+     *
+     * @return отчет об использовании памяти.
+     */
+    public Footprint footprint() {
+        Map<Object, Boolean> shared = new IdentityHashMap<>();
+        long logical = 0;
+        int sharedNodes = 0;
+        Deque<NavigableTree<T>> stack = new ArrayDeque<>();
+        for (long version = oldest; version <= head; version++) {
+            Tree<T> tree = versions[slot(version)];
+            logical += tree.size();
+            if (!(tree instanceof NavigableTree)) continue;
+
+            stack.push((NavigableTree<T>) tree);
+            while (!stack.isEmpty()) {
+                NavigableTree<T> node = stack.pop();
+                if (node.isEmpty()) continue;
+
+                Boolean seen = shared.get(node);
+                if (seen == null) {
+                    shared.put(node, false);
+                } else if (!seen) {
+                    shared.put(node, true);
+                    sharedNodes++;
+                } else {
+                    continue;
+                }
+                stack.push(node.right());
+                stack.push(node.left());
+            }
+        }
+        return new Footprint(size(), logical, shared.size(), sharedNodes);
+    }
+
+    /**
+     * Отчет об узлах, занимаемых сохраненными версиями дерева.
+     */
+    public static final class Footprint {
+
+        private final int versions;
+
+        private final long logicalNodes;
+
+        private final int distinctNodes;
+
+        private final int sharedNodes;
+
+        Footprint(final int versions, final long logicalNodes, final int distinctNodes, final int sharedNodes) {
+            this.versions = versions;
+            this.logicalNodes = logicalNodes;
+            this.distinctNodes = distinctNodes;
+            this.sharedNodes = sharedNodes;
+        }
+
+        /**
+         * @return количество сохраненных версий.
+         */
+        public int getVersions() {
+            return versions;
+        }
+
+        /**
+         * @return сумма размеров версий - столько узлов заняли бы независимые копии.
+         */
+        public long getLogicalNodes() {
+            return logicalNodes;
+        }
+
+        /**
+         * @return количество различных узлов во всех версиях.
+         */
+        public int getDistinctNodes() {
+            return distinctNodes;
+        }
+
+        /**
+         * @return количество узлов, которые входят более чем в одну версию.
+         */
+        public int getSharedNodes() {
+            return sharedNodes;
+        }
+
+        /**
+         * @return количество узлов, которые входят только в одну версию.
+         */
+        public int getUniqueNodes() {
+            return distinctNodes - sharedNodes;
+        }
+
+        @Override
+        public String toString() {
+            return "Footprint{versions=" + versions +
+                    ", logicalNodes=" + logicalNodes +
+                    ", distinctNodes=" + distinctNodes +
+                    ", sharedNodes=" + sharedNodes +
+                    ", uniqueNodes=" + getUniqueNodes() +
+                    '}';
+        }
+    }
+
+}
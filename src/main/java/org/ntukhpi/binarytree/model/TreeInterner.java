@@ -0,0 +1,86 @@
+package org.ntukhpi.binarytree.model;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Интернер (hash-consing) для деревьев семейства {@link ImmutableBinaryTree}.
+ * <br>Интернер хранит по одному каноническому экземпляру каждого структурно различного поддерева.
+ * После интернирования равные поддеревья разных деревьев и версий - это один и тот же объект,
+ * поэтому {@link Object#equals(Object)} для них завершается на проверке ссылок за O(1),
+ * а одинаковые поддеревья занимают память один раз.
+ * <br>Узлы обрабатываются снизу вверх, так что при поиске канонического узла его потомки уже канонические,
+ * и сравнение с кандидатом из таблицы стоит O(1) благодаря кешированному структурному хешу.
+ * <br>Таблица хранит слабые ссылки: канонические поддеревья, на которые больше никто не ссылается,
+ * удаляются сборщиком мусора. Методы интернера синхронизированы.
+ *
+ * @see TreeFactory#treeInterner()
+ */
+public final class TreeInterner {
+
+    private final Map<ImmutableBinaryTree<?>, WeakReference<ImmutableBinaryTree<?>>> table = new WeakHashMap<>();
+
+    TreeInterner() {
+    }
+
+    /**
+     * Получение канонической версии дерева.
+     * <br>Деревья других семейств возвращаются без изменений.
+     *
+     * @param tree дерево.
+     * @param <U>  тип-параметр значений дерева.
+     * @return дерево, структурно равное исходному, все поддеревья которого канонические.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <U extends Comparable<? super U>> NavigableTree<U> intern(final NavigableTree<U> tree) {
+        if (!(tree instanceof NonEmptyTree)) return tree;
+
+        Map<ImmutableBinaryTree<U>, ImmutableBinaryTree<U>> resolved = new IdentityHashMap<>();
+        resolved.put(EmptyTree.<U>instance(), EmptyTree.<U>instance());
+        Deque<ImmutableBinaryTree<U>> stack = new ArrayDeque<>();
+        stack.push((ImmutableBinaryTree<U>) tree);
+        while (!stack.isEmpty()) {
+            ImmutableBinaryTree<U> node = stack.peek();
+            ImmutableBinaryTree<U> left = node.left();
+            ImmutableBinaryTree<U> right = node.right();
+            if (!resolved.containsKey(left)) {
+                stack.push(left);
+            } else if (!resolved.containsKey(right)) {
+                stack.push(right);
+            } else {
+                stack.pop();
+                ImmutableBinaryTree<U> canonicalLeft = resolved.get(left);
+                ImmutableBinaryTree<U> canonicalRight = resolved.get(right);
+                ImmutableBinaryTree<U> candidate = canonicalLeft == left && canonicalRight == right
+                        ? node
+                        : NonEmptyTree.node(node.value(), canonicalLeft, canonicalRight);
+                resolved.put(node, canonical(candidate));
+            }
+        }
+        return resolved.get(tree);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <U extends Comparable<? super U>> ImmutableBinaryTree<U> canonical(final ImmutableBinaryTree<U> candidate) {
+        WeakReference<ImmutableBinaryTree<?>> reference = table.get(candidate);
+        ImmutableBinaryTree<?> existing = reference == null ? null : reference.get();
+        if (existing != null) return (ImmutableBinaryTree<U>) existing;
+
+        table.put(candidate, new WeakReference<>(candidate));
+        return candidate;
+    }
+
+    /**
+     * Получение количества канонических поддеревьев, еще не удаленных сборщиком мусора.
+     *
+     * @return количество поддеревьев в таблице.
+     */
+    public synchronized int size() {
+        return table.size();
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Ленивый итератор по значениям дерева в указанном порядке обхода.
+ * <br>Вместо рекурсии использует явный стек узлов, глубина которого не превышает высоту дерева,
+ * поэтому обход не создает промежуточных списков и может быть прерван в любой момент.
+ * <br>Так как деревья в данном пакете иммутабельны, итератор не может быть инвалидирован изменениями.
+ *
+ * @see Traversal
+ */
+final class TreeIterator<T extends Comparable<? super T>> implements Iterator<T> {
+
+    private final Traversal order;
+
+    /**
+     * Узлы, ожидающие обработки. Пустые деревья в стек не попадают.
+     */
+    private final Deque<AbstractNavigableTree<T>> stack = new ArrayDeque<>();
+
+    TreeIterator(final AbstractNavigableTree<T> root, final Traversal order) {
+        this.order = order;
+        switch (order) {
+            case PRE_ORDER:
+            case POST_ORDER:
+                push(root);
+                break;
+            case IN_ORDER:
+                pushLeftSpine(root);
+                break;
+            default:
+                throw new UnsupportedOperationException("Such order of traversal is not supported: " + order);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !stack.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (stack.isEmpty()) throw new NoSuchElementException();
+
+        AbstractNavigableTree<T> node = stack.pop();
+        switch (order) {
+            case PRE_ORDER: //КОРЕНЬ -> ЛЕВЫЙ СЫН -> ПРАВЫЙ СЫН: левый сын должен оказаться на вершине стека
+                push(node.right());
+                push(node.left());
+                break;
+            case POST_ORDER: //КОРЕНЬ -> ПРАВЫЙ СЫН -> ЛЕВЫЙ СЫН
+                push(node.left());
+                push(node.right());
+                break;
+            default:
+                pushLeftSpine(node.right());
+        }
+        return node.value();
+    }
+
+    private void push(final AbstractNavigableTree<T> node) {
+        if (!node.isEmpty()) stack.push(node);
+    }
+
+    private void pushLeftSpine(final AbstractNavigableTree<T> root) {
+        AbstractNavigableTree<T> node = root;
+        while (!node.isEmpty()) {
+            stack.push(node);
+            node = node.left();
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.Arrays;
+
+/**
+ * Буфер пути от корня {@link ImmutableBinaryTree} до изменяемого узла.
+ * <br>Спуск записывает пройденные узлы и направления поворотов в массивы, которые растут по мере необходимости,
+ * а {@link #rebuild(ImmutableBinaryTree)} копирует путь снизу вверх в цикле.
+ * Поэтому глубина дерева не ограничена размером стека вызовов.
+ */
+final class TreePath<T extends Comparable<? super T>> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private NonEmptyTree<T>[] nodes;
+
+    private boolean[] wentLeft = new boolean[INITIAL_CAPACITY];
+
+    private int depth;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TreePath() {
+        nodes = new NonEmptyTree[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Запись очередного узла пути.
+     *
+     * @param node узел.
+     * @param left спуск продолжается в левое поддерево узла.
+     */
+    void push(final NonEmptyTree<T> node, final boolean left) {
+        if (depth == nodes.length) {
+            nodes = Arrays.copyOf(nodes, depth * 2);
+            wentLeft = Arrays.copyOf(wentLeft, depth * 2);
+        }
+        nodes[depth] = node;
+        wentLeft[depth] = left;
+        depth++;
+    }
+
+    /**
+     * Копирование пути с новым поддеревом на месте последнего пройденного.
+     *
+     * @param bottom новое поддерево.
+     * @return новый корень; исходный корень, если поддерево не изменилось.
+     */
+    ImmutableBinaryTree<T> rebuild(final ImmutableBinaryTree<T> bottom) {
+        ImmutableBinaryTree<T> tree = bottom;
+        for (int level = depth - 1; level >= 0; level--) {
+            NonEmptyTree<T> parent = nodes[level];
+            ImmutableBinaryTree<T> child = wentLeft[level] ? parent.left() : parent.right();
+            if (tree == child) return nodes[0];
+
+            tree = wentLeft[level]
+                    ? NonEmptyTree.node(parent.value(), tree, parent.right())
+                    : NonEmptyTree.node(parent.value(), parent.left(), tree);
+        }
+        return tree;
+    }
+
+}
@@ -0,0 +1,205 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.Spliterator;
+
+/**
+ * Адаптер {@link NavigableTree} к интерфейсу {@link NavigableSet}.
+ * <br>Адаптер не копирует значения: все операции чтения делегируются дереву,
+ * а подмножества ({@link #subSet}, {@link #headSet}, {@link #tailSet}) строятся
+ * поверх ленивых представлений {@link NavigableTree#subTree}.
+ * <br>Дерево неизменяемо, поэтому и множество доступно только для чтения:
+ * операции изменения бросают {@link UnsupportedOperationException}.
+ * <br>Множество в обратном порядке ({@link #descendingSet()}) - тот же адаптер с зеркальными операциями.
+ *
+ * @see TreeFactory#navigableSet(NavigableTree)
+ */
+final class TreeSetView<T extends Comparable<? super T>> extends AbstractSet<T> implements NavigableSet<T> {
+
+    private final NavigableTree<T> tree;
+
+    private final boolean descending;
+
+    TreeSetView(final NavigableTree<T> tree, final boolean descending) {
+        this.tree = tree;
+        this.descending = descending;
+    }
+
+    @Override
+    public int size() {
+        return tree.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tree.isEmpty();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(final Object o) {
+        return tree.contains((T) Objects.requireNonNull(o));
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return descending ? new DescendingIterator<>(tree) : tree.iterator(Traversal.IN_ORDER);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return descending ? tree.iterator(Traversal.IN_ORDER) : new DescendingIterator<>(tree);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return descending ? NavigableSet.super.spliterator() : tree.spliterator(Traversal.IN_ORDER);
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return descending ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public T first() {
+        return (descending ? tree.max() : tree.min()).orElseThrow(NoSuchElementException::new);
+    }
+
+    @Override
+    public T last() {
+        return (descending ? tree.min() : tree.max()).orElseThrow(NoSuchElementException::new);
+    }
+
+    @Override
+    public T lower(final T value) {
+        Objects.requireNonNull(value);
+        return orNull(descending ? tree.higher(value) : tree.lower(value));
+    }
+
+    @Override
+    public T floor(final T value) {
+        Objects.requireNonNull(value);
+        return orNull(descending ? tree.ceiling(value) : tree.floor(value));
+    }
+
+    @Override
+    public T ceiling(final T value) {
+        Objects.requireNonNull(value);
+        return orNull(descending ? tree.floor(value) : tree.ceiling(value));
+    }
+
+    @Override
+    public T higher(final T value) {
+        Objects.requireNonNull(value);
+        return orNull(descending ? tree.lower(value) : tree.higher(value));
+    }
+
+    @Override
+    public T pollFirst() {
+        throw new UnsupportedOperationException("Tree set view is read-only");
+    }
+
+    @Override
+    public T pollLast() {
+        throw new UnsupportedOperationException("Tree set view is read-only");
+    }
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return new TreeSetView<>(tree, !descending);
+    }
+
+    @Override
+    public NavigableSet<T> subSet(final T fromElement, final boolean fromInclusive,
+                                  final T toElement, final boolean toInclusive) {
+        Objects.requireNonNull(fromElement);
+        Objects.requireNonNull(toElement);
+        NavigableTree<T> range = descending
+                ? tree.subTree(toElement, toInclusive, fromElement, fromInclusive)
+                : tree.subTree(fromElement, fromInclusive, toElement, toInclusive);
+        return new TreeSetView<>(range, descending);
+    }
+
+    @Override
+    public NavigableSet<T> headSet(final T toElement, final boolean inclusive) {
+        Objects.requireNonNull(toElement);
+        NavigableTree<T> range = descending ? tree.tailTree(toElement, inclusive) : tree.headTree(toElement, inclusive);
+        return new TreeSetView<>(range, descending);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(final T fromElement, final boolean inclusive) {
+        Objects.requireNonNull(fromElement);
+        NavigableTree<T> range = descending ? tree.headTree(fromElement, inclusive) : tree.tailTree(fromElement, inclusive);
+        return new TreeSetView<>(range, descending);
+    }
+
+    @Override
+    public SortedSet<T> subSet(final T fromElement, final T toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> headSet(final T toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> tailSet(final T fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    private static <U> U orNull(final Optional<U> value) {
+        return value.orElse(null);
+    }
+
+    /**
+     * Ленивый итератор по значениям в порядке убывания: зеркальный внутренний обход
+     * со стеком правого края поддеревьев.
+     *
+     * @see TreeIterator
+     */
+    private static final class DescendingIterator<T extends Comparable<? super T>> implements Iterator<T> {
+
+        private final Deque<NavigableTree<T>> stack = new ArrayDeque<>();
+
+        DescendingIterator(final NavigableTree<T> root) {
+            pushRightSpine(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (stack.isEmpty()) throw new NoSuchElementException();
+
+            NavigableTree<T> node = stack.pop();
+            pushRightSpine(node.left());
+            return node.getRoot().orElseThrow(() ->
+                    new TreeNodeValueException("This node shouldn't have null value, tree structure: " + node));
+        }
+
+        private void pushRightSpine(final NavigableTree<T> subtree) {
+            NavigableTree<T> node = subtree;
+            while (!node.isEmpty()) {
+                stack.push(node);
+                node = node.right();
+            }
+        }
+    }
+
+}
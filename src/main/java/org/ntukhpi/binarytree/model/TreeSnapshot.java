@@ -0,0 +1,258 @@
+package org.ntukhpi.binarytree.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Компактный двоичный снимок дерева для сохранения и загрузки.
+ * <br>Формат (версия 1):
+ * <ul>
+ * <li>признак "BTSN" (4 байта), версия формата (1 байт), флаги (1 байт: бит 0 - снимок с формой);</li>
+ * <li>имя представления значений {@link KeyCodec#name()} в формате {@link java.io.DataOutput#writeUTF(String)};</li>
+ * <li>количество значений (varint);</li>
+ * <li>значения в порядке возрастания, каждое - относительно предыдущего через {@link KeyCodec};
+ * в снимке с формой перед поддеревом каждого узла записывается байт формы
+ * (бит 0 - есть левый потомок, бит 1 - есть правый), так что форма восстанавливается тем же проходом;</li>
+ * <li>CRC32 всех предыдущих байт (4 байта).</li>
+ * </ul>
+ * Запись и чтение потоковые: снимок без формы пишется внутренним обходом и читается в {@link TreeBuilder}
+ * за O(n) с постоянной дополнительной памятью; снимок с формой требует памяти O(высоты дерева).
+ * <br>Потоки буферизуются внутри методов и не закрываются; при чтении буфер может прочитать
+ * байты, следующие за снимком.
+ *
+ * @see TreeCodecs#integerKeys()
+ */
+public final class TreeSnapshot {
+
+    /**
+     * "BTSN" - признак снимка дерева.
+     */
+    private static final int MAGIC = 0x4254534E;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int SHAPE = 1;
+
+    private static final int HAS_LEFT = 1;
+
+    private static final int HAS_RIGHT = 2;
+
+    private TreeSnapshot() {
+    }
+
+    /**
+     * Запись снимка значений дерева без формы: при чтении дерево строится сбалансированным.
+     *
+     * @param tree  дерево.
+     * @param codec представление значений.
+     * @param out   поток, в который записывается снимок.
+     * @param <T>   тип-параметр значений дерева.
+     * @throws IOException если запись не удалась.
+     */
+    public static <T extends Comparable<? super T>> void write(final Tree<T> tree, final KeyCodec<T> codec,
+                                                               final OutputStream out) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(out), new CRC32());
+        DataOutputStream data = new DataOutputStream(checked);
+        writeHeader(data, codec, 0, tree.size());
+
+        T previous = null;
+        for (Iterator<T> values = tree.iterator(Traversal.IN_ORDER); values.hasNext(); ) {
+            T value = values.next();
+            codec.write(data, previous, value);
+            previous = value;
+        }
+        finish(data, checked);
+    }
+
+    /**
+     * Запись снимка дерева вместе с его формой: при чтении восстанавливается то же самое расположение узлов,
+     * в том числе несбалансированное.
+     *
+     * @param tree  дерево.
+     * @param codec представление значений.
+     * @param out   поток, в который записывается снимок.
+     * @param <T>   тип-параметр значений дерева.
+     * @throws IOException если запись не удалась.
+     */
+    public static <T extends Comparable<? super T>> void writeShaped(final NavigableTree<T> tree, final KeyCodec<T> codec,
+                                                                     final OutputStream out) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(out), new CRC32());
+        DataOutputStream data = new DataOutputStream(checked);
+        writeHeader(data, codec, SHAPE, tree.size());
+
+        /* Стек заменяет рекурсию: узел попадает в стек дважды - до левого поддерева и перед своим значением */
+        Deque<NavigableTree<T>> stack = new ArrayDeque<>();
+        Deque<Boolean> visited = new ArrayDeque<>();
+        if (!tree.isEmpty()) {
+            stack.push(tree);
+            visited.push(false);
+        }
+        T previous = null;
+        while (!stack.isEmpty()) {
+            NavigableTree<T> node = stack.pop();
+            if (!visited.pop()) {
+                NavigableTree<T> left = node.left();
+                data.writeByte((left.isEmpty() ? 0 : HAS_LEFT) | (node.right().isEmpty() ? 0 : HAS_RIGHT));
+                stack.push(node);
+                visited.push(true);
+                if (!left.isEmpty()) {
+                    stack.push(left);
+                    visited.push(false);
+                }
+            } else {
+                T value = node.getRoot().orElseThrow(IllegalStateException::new);
+                codec.write(data, previous, value);
+                previous = value;
+                NavigableTree<T> right = node.right();
+                if (!right.isEmpty()) {
+                    stack.push(right);
+                    visited.push(false);
+                }
+            }
+        }
+        finish(data, checked);
+    }
+
+    private static void writeHeader(final DataOutputStream data, final KeyCodec<?> codec,
+                                    final int flags, final int count) throws IOException {
+        data.writeInt(MAGIC);
+        data.writeByte(FORMAT_VERSION);
+        data.writeByte(flags);
+        data.writeUTF(codec.name());
+        TreeCodecs.writeVarLong(data, count);
+    }
+
+    private static void finish(final DataOutputStream data, final CheckedOutputStream checked) throws IOException {
+        data.writeInt((int) checked.getChecksum().getValue());
+        data.flush();
+    }
+
+    /**
+     * Чтение снимка.
+     * <br>Снимок без формы собирается построителем {@link TreeBuilder} за O(n) в дерево высотой
+     * не более log2(n) + 2; снимок с формой - в дерево той же формы, что и записанное.
+     *
+     * @param in    поток со снимком.
+     * @param codec представление значений, с которым записывался снимок.
+     * @param <T>   тип-параметр значений дерева.
+     * @return новое дерево со значениями снимка.
+     * @throws IOException              если чтение не удалось или снимок поврежден.
+     * @throws IllegalArgumentException если снимок записан с другим представлением значений.
+     */
+    public static <T extends Comparable<? super T>> ImmutableBinaryTree<T> read(final InputStream in,
+                                                                                final KeyCodec<T> codec) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(in), new CRC32());
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC) throw new IOException("Not a tree snapshot");
+        int version = data.readUnsignedByte();
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported snapshot format: " + version);
+        int flags = data.readUnsignedByte();
+        String name = data.readUTF();
+        if (!name.equals(codec.name())) {
+            throw new IllegalArgumentException("Snapshot keys are encoded as " + name + ", codec reads " + codec.name());
+        }
+        long count = TreeCodecs.readVarLong(data);
+        if (count < 0 || count > Integer.MAX_VALUE) throw new IOException("Corrupted snapshot: " + count + " keys");
+
+        ImmutableBinaryTree<T> tree = (flags & SHAPE) == 0
+                ? readSorted(data, codec, (int) count)
+                : readShaped(data, codec, (int) count);
+
+        int expected = (int) checked.getChecksum().getValue();
+        if (data.readInt() != expected) throw new IOException("Corrupted snapshot: checksum mismatch");
+        return tree;
+    }
+
+    private static <T extends Comparable<? super T>> ImmutableBinaryTree<T> readSorted(
+            final DataInputStream data, final KeyCodec<T> codec, final int count) throws IOException {
+        TreeBuilder<T> builder = new TreeBuilder<>(DuplicatePolicy.REJECT);
+        T previous = null;
+        for (int i = 0; i < count; i++) {
+            previous = codec.read(data, previous);
+            add(builder, previous);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Восстановление формы тем же порядком, которым она записана: байт формы узла,
+     * левое поддерево, значение узла, правое поддерево. Стек хранит узлы, ожидающие значения или правого поддерева.
+     */
+    private static <T extends Comparable<? super T>> ImmutableBinaryTree<T> readShaped(
+            final DataInputStream data, final KeyCodec<T> codec, final int count) throws IOException {
+        if (count == 0) return EmptyTree.instance();
+
+        Deque<Pending<T>> stack = new ArrayDeque<>();
+        stack.push(new Pending<>(readShape(data)));
+        ImmutableBinaryTree<T> completed = null;
+        T previous = null;
+        int read = 0;
+        while (!stack.isEmpty()) {
+            Pending<T> node = stack.peek();
+            if (node.value == null) {
+                if ((node.shape & HAS_LEFT) != 0 && completed == null) {
+                    stack.push(new Pending<>(readShape(data)));
+                    continue;
+                }
+                node.left = completed == null ? EmptyTree.<T>instance() : completed;
+                completed = null;
+                if (read++ == count) throw new IOException("Corrupted snapshot: shape has more than " + count + " nodes");
+                T value = codec.read(data, previous);
+                if (previous != null && value.compareTo(previous) <= 0) {
+                    throw new IOException("Corrupted snapshot: " + value + " after " + previous);
+                }
+                node.value = previous = value;
+                if ((node.shape & HAS_RIGHT) != 0) {
+                    stack.push(new Pending<>(readShape(data)));
+                    continue;
+                }
+            }
+            stack.pop();
+            completed = NonEmptyTree.node(node.value, node.left, completed == null ? EmptyTree.<T>instance() : completed);
+        }
+        if (read != count) throw new IOException("Corrupted snapshot: shape has " + read + " of " + count + " nodes");
+        return completed;
+    }
+
+    private static int readShape(final DataInputStream data) throws IOException {
+        int shape = data.readUnsignedByte();
+        if ((shape & ~(HAS_LEFT | HAS_RIGHT)) != 0) throw new IOException("Corrupted snapshot: shape byte " + shape);
+        return shape;
+    }
+
+    private static <T extends Comparable<? super T>> void add(final TreeBuilder<T> builder, final T value) throws IOException {
+        try {
+            builder.add(value);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupted snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Узел, ожидающий значения и правого поддерева.
+     */
+    private static final class Pending<T extends Comparable<? super T>> {
+
+        private final int shape;
+
+        private ImmutableBinaryTree<T> left;
+
+        private T value;
+
+        Pending(final int shape) {
+            this.shape = shape;
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.ntukhpi.binarytree.model;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * {@link Spliterator} по значениям дерева, который делится по структуре самого дерева.
+ * <br>Непройденная часть обхода описывается очередью отдельных значений ({@link #heads}),
+ * за которыми следует обход поддерева ({@link #tree}). Деление отдает левую часть этой последовательности
+ * (например, левое поддерево при внутреннем обходе) новому сплитератору, а правую оставляет себе,
+ * поэтому fork-join разделяет работу по готовым поддеревьям без копирования значений в список.
+ * <br>Размеры частей известны точно благодаря размерам поддеревьев, хранимым в узлах.
+ *
+ * @see Traversal
+ * @see TreeIterator
+ */
+final class TreeSpliterator<T extends Comparable<? super T>> implements Spliterator<T> {
+
+    private final Traversal order;
+
+    /**
+     * Значения, которые должны быть выданы до обхода {@link #tree}.
+     */
+    private final Deque<T> heads;
+
+    private AbstractNavigableTree<T> tree;
+
+    /**
+     * Итератор по {@link #tree}, создается при первом продвижении. После этого деление невозможно.
+     */
+    private Iterator<T> iterator;
+
+    /**
+     * Количество значений в {@link #tree}, которые еще не выданы.
+     */
+    private int remaining;
+
+    TreeSpliterator(final AbstractNavigableTree<T> root, final Traversal order) {
+        this(new ArrayDeque<>(), root, order);
+    }
+
+    private TreeSpliterator(final Deque<T> heads, final AbstractNavigableTree<T> root, final Traversal order) {
+        this.order = order;
+        this.heads = heads;
+        tree = root;
+        remaining = root.size();
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        if (!heads.isEmpty()) {
+            action.accept(heads.poll());
+            return true;
+        }
+        if (remaining == 0) return false;
+
+        if (iterator == null) {
+            iterator = tree.iterator(order);
+        }
+        remaining--;
+        action.accept(iterator.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+        while (!heads.isEmpty()) {
+            action.accept(heads.poll());
+        }
+        if (remaining == 0) return;
+
+        if (iterator == null) {
+            iterator = tree.iterator(order);
+        }
+        remaining = 0;
+        iterator.forEachRemaining(action);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (iterator != null || remaining < 2) return null;
+
+        AbstractNavigableTree<T> root = tree;
+        Deque<T> prefixHeads = new ArrayDeque<>(heads);
+        heads.clear();
+
+        TreeSpliterator<T> prefix;
+        switch (order) {
+            case PRE_ORDER: //[heads] КОРЕНЬ ЛЕВЫЙ | ПРАВЫЙ
+                prefixHeads.add(root.value());
+                prefix = new TreeSpliterator<>(prefixHeads, root.left(), order);
+                tree = root.right();
+                break;
+            case POST_ORDER: //[heads] КОРЕНЬ ПРАВЫЙ | ЛЕВЫЙ
+                prefixHeads.add(root.value());
+                prefix = new TreeSpliterator<>(prefixHeads, root.right(), order);
+                tree = root.left();
+                break;
+            case IN_ORDER: //[heads] ЛЕВЫЙ | КОРЕНЬ ПРАВЫЙ
+                prefix = new TreeSpliterator<>(prefixHeads, root.left(), order);
+                heads.add(root.value());
+                tree = root.right();
+                break;
+            default:
+                throw new UnsupportedOperationException("Such order of traversal is not supported: " + order);
+        }
+        remaining = tree.size();
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return (long) heads.size() + remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | SIZED | SUBSIZED | DISTINCT | NONNULL | IMMUTABLE;
+        if (order == Traversal.IN_ORDER) {
+            characteristics |= SORTED;
+        }
+        return characteristics;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        if (order == Traversal.IN_ORDER) return null; //естественный порядок значений
+
+        throw new IllegalStateException("Only in-order traversal is sorted, requested order: " + order);
+    }
+
+}
@@ -0,0 +1,40 @@
+package org.ntukhpi.binarytree.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Двоичное представление значений узлов фиксированной длины.
+ * <br>Используется там, где значения хранятся вне кучи в виде байтов, например в файле {@link TreeFile}.
+ * Фиксированная длина позволяет адресовать узел по номеру без таблицы смещений.
+ * <br>Запись и чтение выполняются по абсолютным смещениям и не меняют позицию буфера.
+ *
+ * @param <T> тип-параметр значений.
+ * @see TreeCodecs
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * @return количество байт, которое занимает любое значение.
+     */
+    int width();
+
+    /**
+     * Запись значения.
+     *
+     * @param buffer буфер.
+     * @param offset смещение первого байта значения.
+     * @param value  значение, отличное от null.
+     * @throws IllegalArgumentException если значение не помещается в {@link #width()} байт.
+     */
+    void write(ByteBuffer buffer, int offset, T value);
+
+    /**
+     * Чтение значения.
+     *
+     * @param buffer буфер.
+     * @param offset смещение первого байта значения.
+     * @return прочитанное значение.
+     */
+    T read(ByteBuffer buffer, int offset);
+
+}
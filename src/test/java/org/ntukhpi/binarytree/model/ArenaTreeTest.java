@@ -0,0 +1,73 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ArenaTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testSameShapeAsAvlTree() {
+        Random random = new Random(42);
+        ArenaTree<Integer> arenaTree = FACTORY.arenaTree();
+        AvlTree<Integer> avlTree = FACTORY.avlTree();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 40_000; i++) {
+            int value = random.nextInt(5_000);
+            if (random.nextInt(3) > 0) {
+                arenaTree = arenaTree.insert(value);
+                avlTree = avlTree.insert(value);
+                expected.add(value);
+            } else {
+                arenaTree = arenaTree.remove(value);
+                avlTree = avlTree.remove(value);
+                expected.remove(value);
+            }
+        }
+        assertEquals(avlTree.toString(), arenaTree.toString());
+        assertEquals(avlTree.height(), arenaTree.height());
+        assertEquals(expected.size(), arenaTree.size());
+        assertEquals(new ArrayList<>(expected), arenaTree.traverse(Traversal.IN_ORDER));
+        for (Traversal order : Traversal.values()) {
+            assertEquals(avlTree.traverse(order), arenaTree.traverse(order));
+            assertEquals(avlTree.traverse(order), arenaTree.stream(order).parallel().collect(Collectors.toList()));
+        }
+        assertEquals(expected.first(), arenaTree.min().orElse(null));
+        assertEquals(expected.last(), arenaTree.max().orElse(null));
+        assertEquals(expected.headSet(2_500).size(), arenaTree.rank(2_500));
+    }
+
+    @Test
+    public void testPersistence() {
+        ArenaTree<Integer> tree = FACTORY.arenaTree(5, 2, 7, 3, 1, 8, 6);
+        String structure = tree.toString();
+
+        ArenaTree<Integer> inserted = tree.insert(4);
+        ArenaTree<Integer> removed = tree.remove(5);
+
+        assertEquals(structure, tree.toString());
+        assertTrue(inserted.contains(4));
+        assertFalse(tree.contains(4));
+        assertFalse(removed.contains(5));
+        assertEquals(tree, FACTORY.arenaTree(5, 2, 7, 3, 1, 8, 6));
+        assertEquals(tree.hashCode(), FACTORY.arenaTree(5, 2, 7, 3, 1, 8, 6).hashCode());
+        assertNotEquals(tree, inserted);
+
+        assertSame(tree, tree.insert(7));
+        assertSame(tree, tree.remove(42));
+        assertSame(tree, tree.insert(null));
+        assertFalse(tree.contains(null));
+
+        assertEquals(tree.left().toString(), FACTORY.avlTree(5, 2, 7, 3, 1, 8, 6).left().toString());
+        assertTrue(tree.clear().isEmpty());
+        assertEquals(0, FACTORY.arenaTree().height());
+    }
+
+}
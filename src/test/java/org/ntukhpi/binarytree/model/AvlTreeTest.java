@@ -0,0 +1,201 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class AvlTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testSortedInput() {
+        AvlTree<Integer> tree = FACTORY.avlTree();
+        int size = 100_000;
+        for (int i = 0; i < size; i++) {
+            tree = tree.insert(i);
+        }
+        assertInvariants(tree);
+        assertEquals(17, tree.height()); // perfect tree for 2^17 - 1 keys
+        assertTrue(tree.contains(size - 1));
+
+        for (int i = size - 1; i >= 0; i -= 3) {
+            tree = tree.remove(i);
+        }
+        assertInvariants(tree);
+        assertFalse(tree.contains(size - 1));
+        assertTrue(tree.contains(size - 2));
+    }
+
+    @Test
+    public void testRandomUpdates() {
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        AvlTree<Integer> tree = FACTORY.avlTree();
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                expected.add(value);
+                tree = tree.insert(value);
+            } else {
+                expected.remove(value);
+                tree = tree.remove(value);
+            }
+            if (i % 1_000 == 0) assertInvariants(tree);
+        }
+        assertInvariants(tree);
+        assertEquals(new ArrayList<>(expected), tree.traverse(Traversal.IN_ORDER));
+    }
+
+    @Test
+    public void testStructure() {
+        assertEquals("((_ 1 _) 2 (_ 3 _))", FACTORY.avlTree(1, 2, 3).toString());
+        assertEquals("((_ 1 _) 2 (_ 3 _))", FACTORY.avlTree(3, 1, 2).toString());
+        assertEquals("((_ 1 _) 2 ((_ 3 _) 4 _))", FACTORY.avlTree(1, 2, 3, 4, 5).remove(5).toString());
+        assertEquals(2, FACTORY.avlTree(1, 2, 3).height());
+        assertEquals(0, FACTORY.avlTree().height());
+    }
+
+    @Test
+    public void testStructuralHash() {
+        AvlTree<Integer> first = FACTORY.avlTree();
+        AvlTree<Integer> second = FACTORY.avlTree();
+        for (int i = 0; i < 100_000; i++) {
+            first = first.insert(i);
+            second = second.insert(i);
+        }
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(0, FACTORY.avlTree().hashCode());
+
+        int hash = first.hashCode();
+        for (int i = 0; i < 1_000_000; i++) {
+            assertEquals(hash, first.hashCode());
+        }
+        assertNotEquals(first, first.remove(50_000));
+        assertEquals(first.remove(50_000), second.remove(50_000));
+    }
+
+    @Test
+    public void testPersistence() {
+        AvlTree<Integer> tree = FACTORY.avlTree(5, 2, 7, 3, 1, 8, 6);
+        String structure = tree.toString();
+
+        assertTrue(tree.insert(4).contains(4));
+        assertFalse(tree.remove(5).contains(5));
+        assertEquals(structure, tree.toString());
+
+        assertSame(tree, tree.insert(7));
+        assertSame(tree, tree.remove(42));
+        assertSame(tree, tree.insert(null));
+        assertSame(tree, tree.remove(null));
+        assertTrue(tree.clear().isEmpty());
+    }
+
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(7);
+        for (int size : new int[]{10, 1_000, 50_000}) {
+            TreeSet<Integer> firstValues = new TreeSet<>();
+            TreeSet<Integer> secondValues = new TreeSet<>();
+            AvlTree<Integer> first = FACTORY.avlTree();
+            AvlTree<Integer> second = FACTORY.avlTree();
+            for (int i = 0; i < size; i++) {
+                int value = random.nextInt(size * 2);
+                firstValues.add(value);
+                first = first.insert(value);
+            }
+            for (int i = 0; i < size / 10 + 1; i++) {
+                int value = random.nextInt(size * 2);
+                secondValues.add(value);
+                second = second.insert(value);
+            }
+
+            TreeSet<Integer> union = new TreeSet<>(firstValues);
+            union.addAll(secondValues);
+            TreeSet<Integer> intersection = new TreeSet<>(firstValues);
+            intersection.retainAll(secondValues);
+            TreeSet<Integer> difference = new TreeSet<>(firstValues);
+            difference.removeAll(secondValues);
+            TreeSet<Integer> reverseDifference = new TreeSet<>(secondValues);
+            reverseDifference.removeAll(firstValues);
+
+            assertSetOperation(union, first.union(second));
+            assertSetOperation(union, second.union(first));
+            assertSetOperation(intersection, first.intersection(second));
+            assertSetOperation(intersection, second.intersection(first));
+            assertSetOperation(difference, first.difference(second));
+            assertSetOperation(reverseDifference, second.difference(first));
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        Random random = new Random(3);
+        TreeSet<Integer> expected = new TreeSet<>();
+        AvlTree<Integer> tree = FACTORY.avlTree();
+        for (int round = 0; round < 50; round++) {
+            List<Integer> insertions = new ArrayList<>();
+            List<Integer> removals = new ArrayList<>();
+            for (int i = random.nextInt(400); i > 0; i--) {
+                insertions.add(random.nextInt(5_000));
+            }
+            for (int i = random.nextInt(400); i > 0; i--) {
+                removals.add(random.nextInt(5_000));
+            }
+            expected.removeAll(removals);
+            expected.addAll(insertions);
+            tree = tree.applyBatch(insertions, removals);
+
+            assertInvariants(tree);
+            assertEquals(new ArrayList<>(expected), tree.traverse(Traversal.IN_ORDER));
+        }
+        assertSame(tree, tree.insertAll(new ArrayList<>(expected)));
+        assertTrue(tree.removeAll(new ArrayList<>(expected)).isEmpty());
+    }
+
+    @Test
+    public void testJoin() {
+        AvlTree<Integer> low = FACTORY.avlTree(1, 2, 3);
+        AvlTree<Integer> high = FACTORY.avlTree();
+        for (int i = 10; i < 1_000; i++) {
+            high = high.insert(i);
+        }
+        AvlTree<Integer> joined = AvlNode.join(low, 5, high);
+        assertInvariants(joined);
+        assertEquals(low.size() + high.size() + 1, joined.size());
+        assertInvariants(AvlNode.join(high, 2_000, low.clear()));
+        assertInvariants(AvlNode.join(FACTORY.avlTree(), -1, low));
+    }
+
+    private static void assertSetOperation(TreeSet<Integer> expected, AvlTree<Integer> tree) {
+        assertInvariants(tree);
+        assertEquals(expected.size(), tree.size());
+        assertEquals(new ArrayList<>(expected), tree.traverse(Traversal.IN_ORDER));
+    }
+
+    private static <T extends Comparable<? super T>> void assertInvariants(AvlTree<T> tree) {
+        assertHeight(tree, null, null);
+    }
+
+    private static <T extends Comparable<? super T>> int assertHeight(AvlTree<T> tree, T low, T high) {
+        if (tree.isEmpty()) return 0;
+
+        T value = tree.value();
+        if (low != null) assertTrue(low.compareTo(value) < 0);
+        if (high != null) assertTrue(high.compareTo(value) > 0);
+
+        int left = assertHeight(tree.left(), low, value);
+        int right = assertHeight(tree.right(), value, high);
+        assertTrue(Math.abs(tree.balanceFactor()) <= 1);
+        assertEquals(Math.max(left, right) + 1, tree.height());
+        return tree.height();
+    }
+
+}
@@ -0,0 +1,131 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class BPlusTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testRandomOperations() {
+        checkRandomOperations(4);
+        checkRandomOperations(BPlusTree.DEFAULT_FANOUT);
+    }
+
+    private static void checkRandomOperations(final int fanout) {
+        BPlusTree<Integer> tree = FACTORY.bPlusTreeWithFanout(fanout);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            BPlusTree<Integer> next = random.nextInt(3) == 0 ? tree.remove(value) : tree.insert(value);
+            boolean changed = next.contains(value) ? expected.add(value) : expected.remove(value);
+            assertEquals(changed, next != tree);
+            tree = next;
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(new ArrayList<>(expected), tree.traverse(Traversal.IN_ORDER));
+
+        for (int probe = -1; probe <= 2_001; probe++) {
+            assertEquals(expected.contains(probe), tree.contains(probe));
+            assertEquals(expected.headSet(probe).size(), tree.rank(probe));
+            assertEquals(Optional.ofNullable(expected.floor(probe)), tree.floor(probe));
+            assertEquals(Optional.ofNullable(expected.ceiling(probe)), tree.ceiling(probe));
+            assertEquals(Optional.ofNullable(expected.lower(probe)), tree.lower(probe));
+            assertEquals(Optional.ofNullable(expected.higher(probe)), tree.higher(probe));
+        }
+        assertEquals(expected.subSet(100, true, 1_300, true).size(), tree.count(100, 1_300));
+        assertEquals(expected.first(), tree.min().get());
+        assertEquals(expected.last(), tree.max().get());
+    }
+
+    @Test
+    public void testPersistence() {
+        BPlusTree<Integer> tree = FACTORY.bPlusTreeWithFanout(4);
+        for (int i = 0; i < 100; i++) {
+            tree = tree.insert(i);
+        }
+        BPlusTree<Integer> removed = tree;
+        for (int i = 0; i < 100; i += 2) {
+            removed = removed.remove(i);
+        }
+        assertEquals(100, tree.size());
+        assertEquals(50, removed.size());
+        assertTrue(tree.contains(10));
+        assertFalse(removed.contains(10));
+        assertEquals(Integer.valueOf(1), removed.min().get());
+        assertTrue(tree.clear().isEmpty());
+    }
+
+    @Test
+    public void testBinaryView() {
+        BPlusTree<Integer> tree = FACTORY.bPlusTree(5, 1, 3, 2, 4, 6, 7, 3);
+        assertEquals(7, tree.size());
+        assertEquals(3, tree.height());
+        assertEquals(Integer.valueOf(4), tree.getRoot().get());
+        assertEquals(Arrays.asList(1, 2, 3), tree.left().traverse(Traversal.IN_ORDER));
+        assertEquals(Integer.valueOf(2), tree.left().getRoot().get());
+        assertEquals(Arrays.asList(4, 2, 1, 3, 6, 5, 7), tree.traverse(Traversal.PRE_ORDER));
+
+        NavigableTree<Integer> right = tree.right();
+        assertFalse(right.contains(3));
+        assertEquals(Optional.of(5), right.ceiling(1));
+        assertEquals(Optional.empty(), right.floor(4));
+        assertEquals(Arrays.asList(5, 6, 7, 8), right.insert(8).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), tree.traverse(Traversal.IN_ORDER));
+
+        assertEquals(Arrays.asList(3, 4, 5), tree.subTree(3, true, 5, true).stream(Traversal.IN_ORDER).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSetOperations() {
+        List<Integer> evens = new ArrayList<>();
+        List<Integer> thirds = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            if (i % 2 == 0) evens.add(i);
+            if (i % 3 == 0) thirds.add(i);
+        }
+        Collections.shuffle(evens, new Random(1));
+        Tree<Integer> a = FACTORY.<Integer>bPlusTreeWithFanout(8).insertAll(evens);
+        Tree<Integer> b = FACTORY.<Integer>bPlusTreeWithFanout(8).insertAll(thirds);
+
+        TreeSet<Integer> union = new TreeSet<>(evens);
+        union.addAll(thirds);
+        TreeSet<Integer> intersection = new TreeSet<>(evens);
+        intersection.retainAll(thirds);
+        TreeSet<Integer> difference = new TreeSet<>(evens);
+        difference.removeAll(thirds);
+
+        assertEquals(new ArrayList<>(union), a.union(b).traverse(Traversal.IN_ORDER));
+        assertEquals(new ArrayList<>(intersection), a.intersection(b).traverse(Traversal.IN_ORDER));
+        assertEquals(new ArrayList<>(difference), a.difference(b).traverse(Traversal.IN_ORDER));
+        assertEquals(new ArrayList<>(difference), a.difference(FACTORY.immutableTree(thirds.toArray(new Integer[0])))
+                .traverse(Traversal.IN_ORDER));
+
+        Tree<Integer> batch = a.applyBatch(Arrays.asList(1, 3), Arrays.asList(0, 2, 4));
+        assertEquals(Arrays.asList(1, 3, 6, 8), batch.stream(Traversal.IN_ORDER).limit(4).collect(Collectors.toList()));
+        assertEquals(a, FACTORY.bPlusTree(evens.toArray(new Integer[0])));
+        assertEquals(a.hashCode(), FACTORY.bPlusTree(evens.toArray(new Integer[0])).hashCode());
+
+        assertSame(a, a.applyBatch(evens.subList(0, 100), Arrays.asList(1, 3, 5, 7)));
+        assertSame(a, a.union(FACTORY.bPlusTree(evens.subList(0, 100).toArray(new Integer[0]))));
+        assertSame(a, a.difference(FACTORY.bPlusTree(1, 3, 5)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFanoutValidation() {
+        FACTORY.bPlusTreeWithFanout(2);
+    }
+
+}
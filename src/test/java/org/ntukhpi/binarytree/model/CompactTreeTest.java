@@ -0,0 +1,90 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompactTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testSameShapeAsImmutableTree() {
+        Random random = new Random(17);
+        Tree<Integer> expected = FACTORY.immutableTree();
+        CompactTree<Integer> tree = FACTORY.compactTree();
+        for (int i = 0; i < 5_000; i++) {
+            int value = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                expected = expected.remove(value);
+                tree = tree.remove(value);
+            } else {
+                expected = expected.insert(value);
+                tree = tree.insert(value);
+            }
+        }
+        assertEquals(expected.toString(), tree.toString());
+        assertEquals(expected.size(), tree.size());
+        assertEquals(((NavigableTree<Integer>) expected).height(), tree.height());
+        for (Traversal order : Traversal.values()) {
+            assertEquals(expected.traverse(order), tree.traverse(order));
+        }
+        assertEquals(expected.rank(250), tree.rank(250));
+        assertEquals(expected.select(42), tree.select(42));
+        assertEquals(expected.count(100, 300), tree.count(100, 300));
+    }
+
+    @Test
+    public void testOperations() {
+        CompactTree<Integer> tree = FACTORY.compactTree(5, 2, 7, 3, 1, 8, 6);
+
+        assertEquals("(((_ 1 _) 2 (_ 3 _)) 5 ((_ 6 _) 7 (_ 8 _)))", tree.toString());
+        assertTrue(tree.contains(6));
+        assertFalse(tree.contains(4));
+        assertFalse(tree.contains(null));
+        assertEquals(Optional.of(1), tree.min());
+        assertEquals(Optional.of(8), tree.max());
+        assertEquals(3, tree.height());
+        assertSame(tree, tree.insert(5));
+        assertSame(tree, tree.remove(4));
+        assertSame(tree, tree.insert(null));
+        assertEquals("(((_ 1 _) 2 _) 3 ((_ 6 _) 7 (_ 8 _)))", tree.remove(5).toString());
+        assertEquals(FACTORY.compactTree(5, 2, 7, 3, 1, 8, 6), tree);
+        assertTrue(tree.clear().isEmpty());
+        assertEquals(0, tree.clear().height());
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8), tree.union(FACTORY.avlTree(4)).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(1, 3, 5), tree.removeAll(Arrays.asList(2, 6, 7, 8)).traverse(Traversal.IN_ORDER));
+        assertEquals(tree.right(), tree.union(FACTORY.compactTree(4)).right());
+
+        assertSame(tree, tree.applyBatch(Arrays.asList(1, 5, 8), Arrays.asList(4, 9)));
+        assertSame(tree, tree.union(FACTORY.compactTree(2, 6)));
+        assertSame(tree, tree.difference(FACTORY.compactTree(4, 9)));
+    }
+
+    @Test
+    public void testDegenerate() {
+        CompactTree<Integer> tree = FACTORY.compactTree();
+        int size = 2_000;
+        for (int i = 0; i < size; i++) {
+            tree = tree.insert(i);
+        }
+        assertEquals(size, tree.height());
+        assertEquals(size - 1, tree.remove(0).height());
+        assertEquals(Optional.of(size - 1), tree.max());
+        assertEquals(size, tree.stream(Traversal.IN_ORDER).count());
+
+        Integer[] sorted = new Integer[10_000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        CompactTree<Integer> chain = FACTORY.compactTree(sorted);
+        assertEquals(chain, FACTORY.compactTree(sorted));
+        assertNotEquals(chain, chain.remove(0).insert(sorted.length));
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ComparatorTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testMatchesAvlTree() {
+        ComparatorTree<Integer> tree = FACTORY.comparatorTree(Comparator.<Integer>naturalOrder(), 5, 2, 7, 3, 1, 8, 6);
+        AvlTree<Integer> avl = FACTORY.avlTree(5, 2, 7, 3, 1, 8, 6);
+
+        assertEquals(avl.toString(), tree.toString());
+        for (Traversal order : Traversal.values()) {
+            assertEquals(avl.traverse(order), tree.traverse(order));
+            assertEquals(tree.traverse(order), tree.stream(order).collect(Collectors.toList()));
+        }
+        assertEquals(avl.height(), tree.height());
+        assertEquals(7, tree.size());
+        assertEquals(1, (int) tree.min().get());
+        assertEquals(8, (int) tree.max().get());
+        assertEquals(3, (int) tree.floor(4).get());
+        assertEquals(5, (int) tree.ceiling(4).get());
+        assertFalse(tree.floor(0).isPresent());
+        assertFalse(tree.ceiling(9).isPresent());
+
+        assertEquals(avl.remove(5).toString(), tree.remove(5).toString());
+        assertSame(tree, tree.remove(4));
+        assertSame(tree, tree.insert(3));
+        assertTrue(tree.clear().isEmpty());
+        assertSame(tree.comparator(), tree.clear().comparator());
+    }
+
+    @Test
+    public void testReverseOrder() {
+        ComparatorTree<String> tree = FACTORY.comparatorTree(Comparator.<String>reverseOrder(), "b", "d", "a", "c");
+
+        assertEquals(4, tree.size());
+        assertEquals("d", tree.min().get());
+        assertEquals("a", tree.max().get());
+        assertEquals("[d, c, b, a]", tree.traverse(Traversal.IN_ORDER).toString());
+    }
+
+    @Test
+    public void testUnsignedBytes() {
+        Comparator<byte[]> comparator = TreeComparators.unsignedBytes();
+        assertTrue(comparator.compare(new byte[]{1}, new byte[]{(byte) 0xFF}) < 0);
+        assertTrue(comparator.compare(new byte[]{1, 2}, new byte[]{1, 2, 0}) < 0);
+        assertEquals(0, comparator.compare(new byte[]{1, 2, 3}, new byte[]{1, 2, 3}));
+
+        Random random = new Random(42);
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            byte[] key = new byte[random.nextInt(20)];
+            random.nextBytes(key);
+            if (key.length > 10) key[3] = 0;
+            keys.add(key);
+        }
+        for (byte[] left : keys.subList(0, 200)) {
+            for (byte[] right : keys.subList(0, 200)) {
+                assertEquals(Integer.signum(naive(left, right)), Integer.signum(comparator.compare(left, right)));
+            }
+        }
+
+        ComparatorTree<byte[]> tree = FACTORY.byteArrayTree(keys.toArray(new byte[0][]));
+        List<byte[]> sorted = tree.traverse(Traversal.IN_ORDER);
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(naive(sorted.get(i - 1), sorted.get(i)) < 0);
+        }
+        for (byte[] key : keys) {
+            assertTrue(tree.contains(key.clone()));
+        }
+    }
+
+    @Test
+    public void testUnsignedLongs() {
+        ComparatorTree<Long> tree = FACTORY.comparatorTree(TreeComparators.unsignedLongs(), -1L, 0L, Long.MIN_VALUE, 1L);
+
+        assertEquals(0L, (long) tree.min().get());
+        assertEquals(-1L, (long) tree.max().get());
+        assertEquals(Long.MIN_VALUE, (long) tree.ceiling(Long.MAX_VALUE + 1).get());
+    }
+
+    @Test
+    public void testUpdates() {
+        Random random = new Random(42);
+        TreeSet<byte[]> expected = new TreeSet<>(TreeComparators.unsignedBytes());
+        ComparatorTree<byte[]> tree = FACTORY.byteArrayTree();
+        ComparatorTree<byte[]> copy = FACTORY.byteArrayTree();
+        for (int i = 0; i < 20_000; i++) {
+            byte[] key = ByteBuffer.allocate(4).putInt(random.nextInt(2_000) - 1_000).array();
+            if (random.nextBoolean()) {
+                expected.add(key);
+                tree = tree.insert(key);
+                copy = copy.insert(key.clone());
+            } else {
+                expected.remove(key);
+                tree = tree.remove(key);
+                copy = copy.remove(key.clone());
+            }
+        }
+        assertEquals(expected.size(), tree.size());
+        assertArrayEquals(expected.toArray(), tree.traverse(Traversal.IN_ORDER).toArray());
+        assertTrue(tree.height() <= 1.45 * Math.log(tree.size() + 2) / Math.log(2));
+        assertEquals(tree, copy);
+        assertEquals(tree.hashCode(), copy.hashCode());
+        assertNotEquals(tree, copy.remove(tree.min().get()));
+    }
+
+    private static int naive(final byte[] left, final byte[] right) {
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            int comparison = Integer.compare(left[i] & 0xFF, right[i] & 0xFF);
+            if (comparison != 0) return comparison;
+        }
+        return Integer.compare(left.length, right.length);
+    }
+
+}
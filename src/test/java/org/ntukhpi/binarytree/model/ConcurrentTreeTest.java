@@ -0,0 +1,80 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    private static final int THREADS = 8;
+
+    private static final int PER_THREAD = 1_000;
+
+    @Test
+    public void testSingleThread() {
+        ConcurrentTree<Integer> tree = FACTORY.concurrentTree(FACTORY.immutableTree(5, 2, 7));
+        Tree<Integer> snapshot = tree.snapshot();
+
+        assertTrue(tree.insert(3));
+        assertFalse(tree.insert(3));
+        assertTrue(tree.remove(5));
+        assertFalse(tree.remove(5));
+        assertTrue(tree.contains(3));
+        assertEquals(3, tree.size());
+        assertEquals(3, snapshot.size());
+        assertFalse(snapshot.contains(3));
+
+        Tree<Integer> committed = tree.batch().insert(1).insert(9).remove(2).commit();
+        assertSame(committed, tree.snapshot());
+        assertEquals(FACTORY.immutableTree(1, 3, 7, 9).traverse(Traversal.IN_ORDER), committed.traverse(Traversal.IN_ORDER));
+        assertEquals(0, tree.retries());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        ConcurrentTree<Integer> tree = FACTORY.concurrentTree(FACTORY.<Integer>avlTree());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * PER_THREAD;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PER_THREAD; i += 2) {
+                    assertTrue(tree.insert(offset + i));
+                }
+                ConcurrentTree<Integer>.Batch batch = tree.batch();
+                for (int i = 1; i < PER_THREAD; i += 2) {
+                    batch.insert(offset + i);
+                }
+                batch.commit();
+                for (int i = 0; i < PER_THREAD; i += 10) {
+                    assertTrue(tree.remove(offset + i));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Tree<Integer> result = tree.snapshot();
+        assertEquals(THREADS * (PER_THREAD - PER_THREAD / 10), result.size());
+        for (int value = 0; value < THREADS * PER_THREAD; value++) {
+            assertEquals(value % 10 != 0, result.contains(value));
+        }
+    }
+
+}
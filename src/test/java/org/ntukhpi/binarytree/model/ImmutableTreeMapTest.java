@@ -0,0 +1,134 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ImmutableTreeMapTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testShapeMatchesImmutableTree() {
+        ImmutableTreeMap<Integer, String> map = FACTORY.immutableTreeMap();
+        for (int key : new int[]{50, 30, 70, 20, 40, 60, 80, 35, 45}) {
+            map = map.put(key, "v" + key);
+        }
+        ImmutableBinaryTree<Integer> tree = FACTORY.immutableTree(50, 30, 70, 20, 40, 60, 80, 35, 45);
+
+        for (Traversal order : Traversal.values()) {
+            assertEquals(tree.traverse(order), map.keys(order));
+        }
+        assertEquals(tree.height(), map.height());
+        assertEquals(tree.remove(30).traverse(Traversal.PRE_ORDER), map.remove(30).keys(Traversal.PRE_ORDER));
+        assertEquals(tree.remove(50).traverse(Traversal.PRE_ORDER), map.remove(50).keys(Traversal.PRE_ORDER));
+
+        assertEquals("v40", map.get(40).get());
+        assertFalse(map.get(41).isPresent());
+        assertTrue(map.containsKey(45));
+        assertEquals(Integer.valueOf(20), map.min().get().getKey());
+        assertEquals("v80", map.max().get().getValue());
+        assertTrue(map.clear().isEmpty());
+    }
+
+    @Test
+    public void testBalancedFromMap() {
+        TreeMap<Integer, Integer> sorted = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            sorted.put(i, -i);
+        }
+        ImmutableTreeMap<Integer, Integer> map = FACTORY.immutableTreeMap(sorted);
+        assertEquals(20_000, map.size());
+        assertEquals(15, map.height());
+        assertEquals(new ArrayList<>(sorted.entrySet()), map.stream(Traversal.IN_ORDER).collect(Collectors.toList()));
+        assertEquals(Integer.valueOf(-12_345), map.get(12_345).get());
+        assertEquals(map, FACTORY.immutableTreeMap(sorted));
+        assertNotEquals(map, FACTORY.immutableTreeMap(sorted).put(0, 1));
+
+        Map<Integer, String> entries = new LinkedHashMap<>();
+        for (int key : new int[]{5, 1, 4, 2, 3}) {
+            entries.put(key, "v" + key);
+        }
+        assertEquals("(((_ 1=v1 _) 2=v2 _) 3=v3 ((_ 4=v4 _) 5=v5 _))", FACTORY.immutableTreeMap(entries).toString());
+    }
+
+    @Test
+    public void testDegenerateEquality() {
+        ImmutableTreeMap<Integer, Integer> chain = FACTORY.immutableTreeMap();
+        ImmutableTreeMap<Integer, Integer> copy = FACTORY.immutableTreeMap();
+        for (int i = 0; i < 20_000; i++) {
+            chain = chain.put(i, i);
+            copy = copy.put(i, i);
+        }
+        assertEquals(20_000, chain.height());
+        assertEquals(chain, copy);
+        assertNotEquals(chain, copy.put(19_999, 0));
+    }
+
+    @Test
+    public void testValueUpdateKeepsShape() {
+        ImmutableTreeMap<Integer, String> map = FACTORY.<Integer, String>immutableTreeMap()
+                .put(2, "b").put(1, "a").put(3, "c");
+        String value = map.get(1).get();
+
+        assertSame(map, map.put(1, value));
+        ImmutableTreeMap<Integer, String> updated = map.put(1, "A");
+        assertEquals(map.keys(Traversal.PRE_ORDER), updated.keys(Traversal.PRE_ORDER));
+        assertEquals("A", updated.get(1).get());
+        assertEquals("a", map.get(1).get());
+        assertEquals("((_ 1=A _) 2=b (_ 3=c _))", updated.toString());
+
+        Iterator<Map.Entry<Integer, String>> original = map.iterator(Traversal.IN_ORDER);
+        Iterator<Map.Entry<Integer, String>> changed = updated.iterator(Traversal.IN_ORDER);
+        assertNotSame(original.next(), changed.next());
+        assertNotSame(original.next(), changed.next());
+        assertSame(original.next(), changed.next());
+    }
+
+    @Test
+    public void testCompute() {
+        ImmutableTreeMap<String, Integer> counts = FACTORY.immutableTreeMap();
+        for (String word : "a b a c b a".split(" ")) {
+            counts = counts.compute(word, (key, count) -> count == null ? 1 : count + 1);
+        }
+        assertEquals(3, (int) counts.get("a").get());
+        assertEquals(2, (int) counts.get("b").get());
+        assertEquals(1, (int) counts.get("c").get());
+
+        ImmutableTreeMap<String, Integer> removed = counts.compute("b", (key, count) -> null);
+        assertFalse(removed.containsKey("b"));
+        assertSame(counts, counts.compute("z", (key, count) -> null));
+        assertSame(counts, counts.remove("z"));
+    }
+
+    @Test
+    public void testRandomUpdates() {
+        Random random = new Random(42);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        ImmutableTreeMap<Integer, Integer> map = FACTORY.immutableTreeMap();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) > 0) {
+                expected.put(key, i);
+                map = map.put(key, i);
+            } else {
+                expected.remove(key);
+                map = map.remove(key);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.keySet()), map.keys(Traversal.IN_ORDER));
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(expected.entrySet());
+        assertEquals(entries, map.stream(Traversal.IN_ORDER).collect(Collectors.toList()));
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class IntTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testTraversal() {
+        IntTree tree = FACTORY.intTree(5, 2, 7, 3, 1, 8, 6);
+        AvlTree<Integer> boxed = FACTORY.avlTree(5, 2, 7, 3, 1, 8, 6);
+
+        assertEquals(boxed.toString(), tree.toString());
+        for (Traversal order : Traversal.values()) {
+            assertArrayEquals(boxed.traverse(order).stream().mapToInt(Integer::intValue).toArray(), tree.traverse(order));
+            assertArrayEquals(tree.traverse(order), tree.stream(order).toArray());
+        }
+        assertEquals(1, tree.min().getAsInt());
+        assertEquals(8, tree.max().getAsInt());
+        assertEquals(7, tree.size());
+        assertEquals(3, tree.height());
+
+        PrimitiveIterator.OfInt iterator = tree.iterator(Traversal.IN_ORDER);
+        assertEquals(1, iterator.nextInt());
+        assertEquals(2, iterator.nextInt());
+        assertTrue(iterator.hasNext());
+    }
+
+    @Test
+    public void testUpdates() {
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        IntTree tree = FACTORY.intTree();
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                expected.add(value);
+                tree = tree.insert(value);
+            } else {
+                expected.remove(value);
+                tree = tree.remove(value);
+            }
+        }
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), tree.traverse(Traversal.IN_ORDER));
+        assertEquals(expected.size(), tree.size());
+        for (int value = -1_000; value < 1_000; value++) {
+            assertEquals(expected.contains(value), tree.contains(value));
+        }
+
+        IntTree sorted = FACTORY.intTree();
+        for (int i = 0; i < 100_000; i++) {
+            sorted = sorted.insert(i);
+        }
+        assertEquals(17, sorted.height());
+        assertSame(sorted, sorted.insert(42));
+        assertSame(sorted, sorted.remove(-42));
+    }
+
+    @Test
+    public void testEmpty() {
+        IntTree empty = FACTORY.intTree();
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.min().isPresent());
+        assertFalse(empty.max().isPresent());
+        assertFalse(empty.contains(0));
+        assertEquals(0, empty.traverse(Traversal.PRE_ORDER).length);
+        assertFalse(empty.iterator(Traversal.IN_ORDER).hasNext());
+        assertEquals("_", empty.toString());
+        assertTrue(FACTORY.intTree(1, 2, 3).clear().isEmpty());
+        assertEquals(FACTORY.intTree(1, 2, 3), FACTORY.intTree(3, 2, 1, 2));
+    }
+
+}
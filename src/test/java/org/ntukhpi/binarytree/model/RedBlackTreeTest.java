@@ -0,0 +1,158 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class RedBlackTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testSortedInput() {
+        RedBlackTree<Integer> tree = FACTORY.redBlackTree();
+        int size = 100_000;
+        for (int i = 0; i < size; i++) {
+            tree = tree.insert(i);
+        }
+        assertInvariants(tree);
+        assertTrue(tree.height() <= 2 * log2(size + 1));
+        assertEquals(Integer.valueOf(0), tree.min().orElse(null));
+        assertEquals(Integer.valueOf(size - 1), tree.max().orElse(null));
+        assertTrue(tree.contains(size / 2));
+        assertFalse(tree.contains(size));
+
+        for (int i = 0; i < size; i += 2) {
+            tree = tree.remove(i);
+        }
+        assertInvariants(tree);
+        assertFalse(tree.contains(0));
+        assertTrue(tree.contains(1));
+        assertEquals(size / 2, tree.traverse(Traversal.IN_ORDER).size());
+    }
+
+    @Test
+    public void testRandomUpdates() {
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        RedBlackTree<Integer> tree = FACTORY.redBlackTree();
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                expected.add(value);
+                tree = tree.insert(value);
+            } else {
+                expected.remove(value);
+                tree = tree.remove(value);
+            }
+            if (i % 1_000 == 0) assertInvariants(tree);
+        }
+        assertInvariants(tree);
+        assertEquals(new ArrayList<>(expected), tree.traverse(Traversal.IN_ORDER));
+    }
+
+    @Test
+    public void testPersistence() {
+        RedBlackTree<Integer> tree = FACTORY.redBlackTree(5, 2, 7, 3, 1, 8, 6);
+        String structure = tree.toString();
+
+        RedBlackTree<Integer> inserted = tree.insert(4);
+        RedBlackTree<Integer> removed = tree.remove(5);
+
+        assertEquals(structure, tree.toString());
+        assertTrue(inserted.contains(4));
+        assertFalse(tree.contains(4));
+        assertFalse(removed.contains(5));
+        assertTrue(tree.contains(5));
+
+        assertSame(tree, tree.insert(7));
+        assertSame(tree, tree.remove(42));
+        assertSame(tree, tree.insert(null));
+        assertSame(tree, tree.remove(null));
+        assertFalse(tree.contains(null));
+    }
+
+    @Test
+    public void testEmpty() {
+        RedBlackTree<Integer> empty = FACTORY.redBlackTree();
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.height());
+        assertFalse(empty.min().isPresent());
+        assertFalse(empty.getRoot().isPresent());
+        assertTrue(empty.traverse(Traversal.IN_ORDER).isEmpty());
+        assertSame(empty, empty.remove(1));
+        assertTrue(empty.insert(1).remove(1).isEmpty());
+        assertTrue(FACTORY.redBlackTree(1, 2, 3).clear().isEmpty());
+    }
+
+    @Test
+    public void testTraversal() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            values.add(i);
+        }
+        Collections.shuffle(values, new Random(7));
+        RedBlackTree<Integer> tree = FACTORY.redBlackTree(values.toArray(new Integer[0]));
+
+        Collections.sort(values);
+        assertEquals(values, tree.traverse(Traversal.IN_ORDER));
+        assertEquals(100, tree.traverse(Traversal.PRE_ORDER).size());
+        assertEquals(tree.getRoot().orElse(null), tree.traverse(Traversal.POST_ORDER).get(0));
+    }
+
+    @Test
+    public void testStructuralHash() {
+        RedBlackTree<Integer> first = FACTORY.redBlackTree();
+        RedBlackTree<Integer> second = FACTORY.redBlackTree();
+        for (int i = 0; i < 100_000; i++) {
+            first = first.insert(i);
+            second = second.insert(i);
+        }
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(0, FACTORY.redBlackTree().hashCode());
+
+        int hash = first.hashCode();
+        for (int i = 0; i < 1_000_000; i++) {
+            assertEquals(hash, first.hashCode());
+        }
+        assertNotEquals(first, first.remove(50_000));
+        assertEquals(first.remove(50_000), second.remove(50_000));
+    }
+
+    /**
+     * Проверка инвариантов: порядок поиска, черный корень, отсутствие правых красных связей
+     * и двух красных связей подряд, одинаковая черная высота всех путей.
+     */
+    private static <T extends Comparable<? super T>> void assertInvariants(RedBlackTree<T> tree) {
+        assertFalse(tree.isRed());
+        blackHeight(tree, null, null);
+    }
+
+    private static <T extends Comparable<? super T>> int blackHeight(RedBlackTree<T> tree, T low, T high) {
+        if (tree.isEmpty()) return 1;
+
+        T value = tree.value();
+        if (low != null) assertTrue(low.compareTo(value) < 0);
+        if (high != null) assertTrue(high.compareTo(value) > 0);
+        assertFalse(tree.right().isRed());
+        if (tree.isRed()) assertFalse(tree.left().isRed());
+
+        int left = blackHeight(tree.left(), low, value);
+        int right = blackHeight(tree.right(), value, high);
+        assertEquals(left, right);
+        return left + (tree.isRed() ? 0 : 1);
+    }
+
+    private static int log2(int value) {
+        return 32 - Integer.numberOfLeadingZeros(value);
+    }
+
+}
@@ -0,0 +1,176 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ShardedTreeTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testStitchedQueries() {
+        ShardedTree<Integer> tree = FACTORY.shardedTree(10, 20, 30);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int value = random.nextInt(40);
+            assertEquals(expected.add(value), tree.insert(value));
+        }
+        assertEquals(4, tree.shardCount());
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected.first(), tree.min().get());
+        assertEquals(expected.last(), tree.max().get());
+        assertEquals(new ArrayList<>(expected), tree.stream().collect(Collectors.toList()));
+
+        assertEquals(new ArrayList<>(expected.subSet(5, true, 25, false)), toList(tree.range(5, true, 25, false)));
+        assertEquals(new ArrayList<>(expected.subSet(10, false, 20, true)), toList(tree.range(10, false, 20, true)));
+        assertEquals(new ArrayList<>(expected.headSet(15, true)), toList(tree.range(null, false, 15, true)));
+        assertEquals(expected.subSet(8, true, 33, true).size(), tree.count(8, 33));
+        assertEquals(0, tree.count(33, 8));
+
+        int value = expected.first();
+        assertTrue(tree.remove(value));
+        assertFalse(tree.remove(value));
+        assertFalse(tree.contains(value));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnorderedSplitPoints() {
+        FACTORY.shardedTree(10, 5);
+    }
+
+    @Test
+    public void testResplit() {
+        ShardedTree<Integer> tree = FACTORY.shardedTree();
+        for (int i = 0; i < 1_000; i++) {
+            tree.insert((i * 37) % 1_000);
+        }
+        assertEquals(1, tree.shardCount());
+
+        tree.resplit(4);
+        assertEquals(4, tree.shardCount());
+        assertEquals(Arrays.asList(250, 500, 750), tree.splitPoints());
+        assertEquals(1_000, tree.size());
+        List<Integer> values = tree.stream().collect(Collectors.toList());
+        List<Integer> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        assertEquals(sorted, values);
+        assertTrue(tree.contains(250));
+        assertTrue(tree.contains(999));
+        assertEquals(51, tree.count(225, 275));
+
+        ShardedTree<Integer> small = FACTORY.shardedTree();
+        small.insert(1);
+        small.resplit(8);
+        assertEquals(1, small.shardCount());
+    }
+
+    @Test
+    public void testDegenerateResplit() {
+        ShardedTree<Integer> tree = FACTORY.shardedTree();
+        for (int i = 0; i < 20_000; i++) {
+            tree.insert(i);
+        }
+        tree.resplit(4);
+        assertEquals(Arrays.asList(5_000, 10_000, 15_000), tree.splitPoints());
+        assertEquals(20_000, tree.size());
+        assertEquals(5_000, tree.count(2_500, 7_499));
+    }
+
+    @Test
+    public void testFailedResplit() {
+        ShardedTree<Fragile> tree = FACTORY.shardedTree(new Fragile(50));
+        for (int i = 0; i < 100; i++) {
+            tree.insert(new Fragile(i));
+        }
+        Fragile.broken = true;
+        try {
+            tree.resplit(4);
+            fail("comparison failure was swallowed");
+        } catch (IllegalStateException expected) {
+            // ok
+        } finally {
+            Fragile.broken = false;
+        }
+        assertEquals(2, tree.shardCount());
+        assertEquals(100, tree.size());
+        assertTrue(tree.contains(new Fragile(75)));
+        assertTrue(tree.insert(new Fragile(100)));
+        assertTrue(tree.remove(new Fragile(0)));
+
+        tree.resplit(4);
+        assertEquals(4, tree.shardCount());
+        assertEquals(100, tree.size());
+    }
+
+    @Test
+    public void testConcurrentWritersWithResplit() throws Exception {
+        ShardedTree<Integer> tree = FACTORY.shardedTree(2_000, 4_000, 6_000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 2_000;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    assertTrue(tree.insert(offset + i));
+                }
+                return null;
+            }));
+        }
+        for (int i = 2; i <= 6; i++) {
+            tree.resplit(i);
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(8_000, tree.size());
+        Iterator<Integer> iterator = tree.iterator();
+        for (int value = 0; value < 8_000; value++) {
+            assertEquals(Integer.valueOf(value), iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    /**
+     * Значение, сравнение которого можно сломать, чтобы прервать перестройку отрезков.
+     */
+    private static final class Fragile implements Comparable<Fragile> {
+
+        private static volatile boolean broken;
+
+        private final int value;
+
+        Fragile(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(final Fragile other) {
+            if (broken) throw new IllegalStateException("Comparison is broken");
+            return Integer.compare(value, other.value);
+        }
+    }
+
+    private static List<Integer> toList(final Iterator<Integer> iterator) {
+        List<Integer> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+
+}
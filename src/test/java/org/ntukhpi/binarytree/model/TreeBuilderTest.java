@@ -0,0 +1,112 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TreeBuilderTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testStreamingBuild() {
+        for (int size = 0; size < 300; size++) {
+            List<Integer> values = IntStream.range(0, size).boxed().collect(Collectors.toList());
+            ImmutableBinaryTree<Integer> tree = FACTORY.sortedTree(values.iterator());
+
+            assertEquals(values, tree.traverse(Traversal.IN_ORDER));
+            assertEquals(size, tree.size());
+            assertTrue(tree.height() <= log2(size) + 2);
+            assertStructure(tree);
+        }
+
+        ImmutableBinaryTree<Integer> large = FACTORY.sortedTree(IntStream.range(0, 1_000_000).boxed());
+        assertEquals(1_000_000, large.size());
+        assertTrue(large.height() <= 22);
+        assertTrue(large.contains(999_999));
+        assertEquals(Integer.valueOf(500_000), large.select(500_000).orElse(null));
+    }
+
+    @Test
+    public void testDuplicates() {
+        ImmutableBinaryTree<Integer> merged = FACTORY.sortedTree(Stream.of(1, 1, 2, 3, 3, 3, 4));
+        assertEquals(Arrays.asList(1, 2, 3, 4), merged.traverse(Traversal.IN_ORDER));
+
+        TreeBuilder<Integer> strict = FACTORY.treeBuilder(DuplicatePolicy.REJECT);
+        strict.add(1).add(2);
+        try {
+            strict.add(2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Duplicate value: 2", e.getMessage());
+        }
+        assertEquals("((_ 1 _) 2 _)", strict.add(null).build().toString());
+        assertTrue(strict.build().isEmpty());
+
+        try {
+            FACTORY.sortedTree(Arrays.asList(1, 3, 2).iterator());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Values must be added in ascending order: 2 after 3", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBalancedTree() {
+        Integer[] values = {5, 4, 3, 2, 1, 6, 7, 8, 9, 5, 1};
+        ImmutableBinaryTree<Integer> tree = FACTORY.balancedTree(values);
+
+        assertEquals("((((_ 1 _) 2 _) 3 (_ 4 _)) 5 (((_ 6 _) 7 _) 8 (_ 9 _)))", tree.toString());
+        assertEquals(Integer.valueOf(5), values[0]); //исходный массив не сортируется
+        assertStructure(tree);
+        assertTrue(FACTORY.balancedTree().isEmpty());
+    }
+
+    @Test
+    public void testSortedIntTree() {
+        IntTree tree = FACTORY.sortedIntTree(1, 2, 2, 3, 4, 5, 6, 7, 7);
+        assertEquals(FACTORY.avlTree(4, 2, 6, 1, 3, 5, 7).toString(), tree.toString());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6, 7}, tree.traverse(Traversal.IN_ORDER));
+
+        int[] large = IntStream.range(0, 1 << 20).toArray();
+        assertEquals(21, FACTORY.sortedIntTree(large).height());
+        assertTrue(FACTORY.sortedIntTree().isEmpty());
+
+        try {
+            FACTORY.sortedIntTree(2, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Values must be sorted in ascending order: 1 after 2", e.getMessage());
+        }
+    }
+
+    /**
+     * Проверка соответствия класса узла набору его потомков.
+     */
+    private static void assertStructure(ImmutableBinaryTree<Integer> tree) {
+        if (tree.isEmpty()) return;
+
+        if (tree instanceof DualBranch) {
+            assertFalse(tree.left().isEmpty());
+            assertFalse(tree.right().isEmpty());
+        } else if (tree instanceof SingleBranch) {
+            assertFalse(((SingleBranch) tree).getChild().isEmpty());
+        } else {
+            assertTrue(tree instanceof Leaf);
+        }
+        assertEquals(tree.left().size() + tree.right().size() + 1, tree.size());
+        assertStructure(tree.left());
+        assertStructure(tree.right());
+    }
+
+    private static int log2(int value) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(value, 1));
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class TreeFileTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReopen() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("tree.bin");
+        TreeSet<Integer> expected = new TreeSet<>();
+        String structure;
+        try (TreeFile<Integer> file = FACTORY.treeFile(path, TreeCodecs.integers())) {
+            assertTrue(file.root().isEmpty());
+            assertEquals(0, file.version());
+
+            Tree<Integer> tree = file.root();
+            Random random = new Random(3);
+            for (int i = 0; i < 50_000; i++) {
+                int value = random.nextInt(20_000);
+                tree = tree.insert(value);
+                expected.add(value);
+            }
+            structure = file.commit(tree).toString();
+            assertEquals(1, file.version());
+
+            file.root().insert(-1).insert(-2);
+        }
+
+        try (TreeFile<Integer> file = FACTORY.treeFile(path, TreeCodecs.integers())) {
+            NavigableTree<Integer> root = file.root();
+            assertEquals(1, file.version());
+            assertEquals(structure, root.toString());
+            assertEquals(new ArrayList<>(expected), root.traverse(Traversal.IN_ORDER));
+            assertFalse(root.contains(-1));
+            assertEquals(expected.headSet(10_000).size(), root.rank(10_000));
+
+            NavigableTree<Integer> removed = file.commit(root.remove(expected.first()));
+            assertEquals(2, file.version());
+            assertSame(removed, file.commit(removed));
+            assertEquals(expected.size() - 1, file.root().size());
+            assertEquals(expected.size(), root.size());
+        }
+    }
+
+    @Test
+    public void testCommitForeignTree() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("strings.bin");
+        ImmutableBinaryTree<String> source = FACTORY.immutableTree("m", "c", "x", "a", "e", "ё");
+        try (TreeFile<String> file = FACTORY.treeFile(path, TreeCodecs.strings(8))) {
+            NavigableTree<String> committed = file.commit(source);
+            assertEquals(source.traverse(Traversal.IN_ORDER), committed.traverse(Traversal.IN_ORDER));
+            assertEquals(3, committed.height());
+            assertEquals(6, file.pages());
+        }
+        try (TreeFile<String> file = FACTORY.treeFile(path, TreeCodecs.strings(8))) {
+            assertEquals(Arrays.asList("a", "c", "e", "m", "x", "ё"), file.root().traverse(Traversal.IN_ORDER));
+            assertTrue(file.root().clear().isEmpty());
+        }
+    }
+
+    @Test
+    public void testTornHeaderKeepsPreviousVersion() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("torn.bin");
+        try (TreeFile<Long> file = FACTORY.treeFile(path, TreeCodecs.longs())) {
+            file.commit(file.root().insert(1L));
+            file.commit(file.root().insert(2L));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), 20);
+        }
+        try (TreeFile<Long> file = FACTORY.treeFile(path, TreeCodecs.longs())) {
+            assertEquals(1, file.version());
+            List<Long> values = file.root().traverse(Traversal.IN_ORDER);
+            assertEquals(Arrays.asList(1L), values);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCodecMismatch() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("mismatch.bin");
+        FACTORY.treeFile(path, TreeCodecs.integers()).close();
+        FACTORY.treeFile(path, TreeCodecs.longs()).close();
+    }
+
+    @Test
+    public void testNotATreeFile() throws IOException {
+        byte[] text = "not a tree".getBytes("UTF-8");
+        byte[] page = new byte[8192];
+        Arrays.fill(page, (byte) 'x');
+        for (byte[] content : Arrays.asList(text, page)) {
+            Path path = folder.getRoot().toPath().resolve("text.txt");
+            Files.write(path, content);
+            try {
+                FACTORY.treeFile(path, TreeCodecs.integers()).close();
+                fail("foreign file was opened as a tree file");
+            } catch (IOException expected) {
+                // ok
+            }
+            assertEquals(content.length, Files.size(path));
+            assertArrayEquals(content, Files.readAllBytes(path));
+        }
+    }
+
+}
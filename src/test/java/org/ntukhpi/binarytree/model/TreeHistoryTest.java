@@ -0,0 +1,81 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TreeHistoryTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testCheckout() {
+        Tree<Integer> initial = FACTORY.immutableTree(50, 30, 70);
+        TreeHistory<Integer> history = FACTORY.treeHistory(initial, 10);
+
+        Tree<Integer> inserted = initial.insert(20);
+        assertEquals(1, history.commit(inserted));
+        assertEquals(1, history.commit(inserted));
+        assertEquals(2, history.commit(inserted.remove(70)));
+
+        assertSame(initial, history.checkout(0).get());
+        assertSame(inserted, history.checkout(1).get());
+        assertEquals(Arrays.asList(20, 30, 50), history.head().traverse(Traversal.IN_ORDER));
+        assertFalse(history.checkout(3).isPresent());
+        assertFalse(history.checkout(-1).isPresent());
+        assertEquals(3, history.size());
+    }
+
+    @Test
+    public void testRetention() {
+        Tree<Integer> tree = FACTORY.immutableTree();
+        TreeHistory<Integer> history = FACTORY.treeHistory(tree, 3);
+        for (int i = 1; i <= 5; i++) {
+            tree = tree.insert(i);
+            assertEquals(i, history.commit(tree));
+        }
+
+        assertEquals(3, history.size());
+        assertEquals(3, history.oldestVersion());
+        assertEquals(5, history.headVersion());
+        assertFalse(history.checkout(2).isPresent());
+        assertEquals(3, history.checkout(3).get().size());
+        assertSame(tree, history.head());
+
+        history.truncate();
+        assertEquals(1, history.size());
+        assertEquals(5, history.oldestVersion());
+        assertFalse(history.checkout(4).isPresent());
+        assertSame(tree, history.head());
+        assertEquals(6, history.commit(tree.clear()));
+        assertEquals(2, history.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRetention() {
+        FACTORY.treeHistory(FACTORY.<Integer>immutableTree(), 0);
+    }
+
+    @Test
+    public void testFootprint() {
+        Tree<Integer> tree = FACTORY.immutableTree(50, 30, 70, 20, 40, 60, 80);
+        TreeHistory<Integer> history = FACTORY.treeHistory(tree, 4);
+        history.commit(tree.insert(65));
+
+        TreeHistory.Footprint footprint = history.footprint();
+        assertEquals(2, footprint.getVersions());
+        assertEquals(15, footprint.getLogicalNodes());
+        //вставка 65 копирует путь 50 -> 70 -> 60 и добавляет новый лист
+        assertEquals(11, footprint.getDistinctNodes());
+        assertEquals(4, footprint.getSharedNodes());
+        assertEquals(7, footprint.getUniqueNodes());
+
+        TreeHistory<Integer> copies = FACTORY.treeHistory(tree, 4);
+        copies.commit(FACTORY.immutableTree(50, 30, 70, 20, 40, 60, 80));
+        assertEquals(0, copies.footprint().getSharedNodes());
+        assertEquals(14, copies.footprint().getDistinctNodes());
+    }
+
+}
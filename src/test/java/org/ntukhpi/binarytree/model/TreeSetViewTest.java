@@ -0,0 +1,97 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TreeSetViewTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testMatchesTreeSet() {
+        Random random = new Random(11);
+        TreeSet<Integer> expected = new TreeSet<>();
+        AvlTree<Integer> tree = FACTORY.avlTree();
+        for (int i = 0; i < 500; i++) {
+            int value = random.nextInt(1_000);
+            expected.add(value);
+            tree = tree.insert(value);
+        }
+        NavigableSet<Integer> set = FACTORY.navigableSet(tree);
+
+        assertEquals(expected, set);
+        assertEquals(expected.hashCode(), set.hashCode());
+        assertEquals(expected.first(), set.first());
+        assertEquals(expected.last(), set.last());
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(1_100) - 50;
+            int to = from + random.nextInt(300);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+
+            assertEquals(expected.floor(from), set.floor(from));
+            assertEquals(expected.ceiling(from), set.ceiling(from));
+            assertEquals(expected.lower(from), set.lower(from));
+            assertEquals(expected.higher(from), set.higher(from));
+            assertView(expected.subSet(from, fromInclusive, to, toInclusive), set.subSet(from, fromInclusive, to, toInclusive));
+            assertView(expected.headSet(to, toInclusive), set.headSet(to, toInclusive));
+            assertView(expected.tailSet(from, fromInclusive), set.tailSet(from, fromInclusive));
+            assertView(expected.descendingSet().subSet(to, true, from, false), set.descendingSet().subSet(to, true, from, false));
+            assertView(expected.descendingSet().headSet(from, false), set.descendingSet().headSet(from, false));
+        }
+    }
+
+    @Test
+    public void testDescending() {
+        NavigableSet<Integer> set = FACTORY.navigableSet(FACTORY.redBlackTree(4, 1, 3, 5, 2));
+        NavigableSet<Integer> descending = set.descendingSet();
+
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), new ArrayList<>(descending));
+        assertEquals(Integer.valueOf(5), descending.first());
+        assertEquals(Integer.valueOf(2), descending.higher(3));
+        assertEquals(Integer.valueOf(4), descending.lower(3));
+        assertEquals(Arrays.asList(4, 3), new ArrayList<>(descending.subSet(4, true, 2, false)));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), new ArrayList<>(descending.descendingSet()));
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(6));
+
+        Spliterator<Integer> spliterator = FACTORY.navigableSet(FACTORY.avlTree(4, 1, 3, 5, 2)).descendingSet().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT));
+        assertEquals(Collections.reverseOrder(), spliterator.getComparator());
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            values.add(i);
+        }
+        NavigableSet<Integer> large = FACTORY.navigableSet(FACTORY.avlTree(values.toArray(new Integer[0])));
+        Collections.reverse(values);
+        assertEquals(values, large.descendingSet().parallelStream().collect(Collectors.toList()));
+        assertEquals(Integer.valueOf(999), large.descendingSet().parallelStream().findFirst().get());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        FACTORY.navigableSet(FACTORY.immutableTree(1, 2, 3)).add(4);
+    }
+
+    private static void assertView(NavigableSet<Integer> expected, NavigableSet<Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertEquals(new ArrayList<>(expected.descendingSet()), new ArrayList<>(actual.descendingSet()));
+        if (!expected.isEmpty()) {
+            assertEquals(expected.first(), actual.first());
+            assertEquals(expected.last(), actual.last());
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package org.ntukhpi.binarytree.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class TreeSnapshotTest {
+
+    private static final TreeFactory FACTORY = new TreeFactory();
+
+    @Test
+    public void testSortedRoundTrip() throws IOException {
+        ImmutableBinaryTree<Integer> source = FACTORY.sortedTree(IntStream.range(0, 100_000).boxed());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TreeSnapshot.write(source, TreeCodecs.integerKeys(), out);
+        assertTrue("consecutive keys take one byte each", out.size() < 100_000 + 32);
+
+        ImmutableBinaryTree<Integer> restored = TreeSnapshot.read(new ByteArrayInputStream(out.toByteArray()), TreeCodecs.integerKeys());
+        assertEquals(source.traverse(Traversal.IN_ORDER), restored.traverse(Traversal.IN_ORDER));
+        assertTrue(restored.height() <= 19);
+
+        TreeSet<Integer> expected = new TreeSet<>(Arrays.asList(Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE));
+        Random random = new Random(5);
+        for (int i = 0; i < 1_000; i++) {
+            expected.add(random.nextInt());
+        }
+        AvlTree<Integer> avl = FACTORY.avlTree(expected.toArray(new Integer[0]));
+        assertEquals(new ArrayList<>(expected), roundTrip(avl, TreeCodecs.integerKeys()).traverse(Traversal.IN_ORDER));
+        assertTrue(roundTrip(FACTORY.<Integer>immutableTree(), TreeCodecs.integerKeys()).isEmpty());
+    }
+
+    @Test
+    public void testShapedRoundTrip() throws IOException {
+        ImmutableBinaryTree<Integer> source = FACTORY.immutableTree(50, 20, 80, 10, 30, 25, 90, 85);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TreeSnapshot.writeShaped(source, TreeCodecs.integerKeys(), out);
+        ImmutableBinaryTree<Integer> restored = TreeSnapshot.read(new ByteArrayInputStream(out.toByteArray()), TreeCodecs.integerKeys());
+        assertEquals(source, restored);
+        assertEquals(source.toString(), restored.toString());
+
+        Integer[] chain = IntStream.range(0, 10_000).boxed().toArray(Integer[]::new);
+        ImmutableBinaryTree<Integer> degenerate = FACTORY.immutableTree(chain);
+        out.reset();
+        TreeSnapshot.writeShaped(degenerate, TreeCodecs.integerKeys(), out);
+        restored = TreeSnapshot.read(new ByteArrayInputStream(out.toByteArray()), TreeCodecs.integerKeys());
+        assertEquals(10_000, restored.height());
+        assertEquals(degenerate.traverse(Traversal.PRE_ORDER), restored.traverse(Traversal.PRE_ORDER));
+    }
+
+    @Test
+    public void testKeyCodecs() throws IOException {
+        ImmutableBinaryTree<Long> longs = FACTORY.immutableTree(Long.MIN_VALUE, -5L, 0L, 7L, Long.MAX_VALUE);
+        assertEquals(longs.traverse(Traversal.IN_ORDER), roundTrip(longs, TreeCodecs.longKeys()).traverse(Traversal.IN_ORDER));
+
+        ImmutableBinaryTree<String> strings = FACTORY.immutableTree("tree", "treap", "trie", "", "дерево", "деревья", "🌲", "🌳");
+        assertEquals(strings.traverse(Traversal.IN_ORDER), roundTrip(strings, TreeCodecs.stringKeys()).traverse(Traversal.IN_ORDER));
+    }
+
+    @Test
+    public void testCorruption() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TreeSnapshot.write(FACTORY.immutableTree(1, 2, 3, 500, 7_000), TreeCodecs.integerKeys(), out);
+        byte[] bytes = out.toByteArray();
+        bytes[bytes.length - 6] ^= 1;
+        try {
+            TreeSnapshot.read(new ByteArrayInputStream(bytes), TreeCodecs.integerKeys());
+            fail("corrupted snapshot was accepted");
+        } catch (IOException expected) {
+            // ok
+        }
+        try {
+            TreeSnapshot.read(new ByteArrayInputStream(out.toByteArray()), TreeCodecs.longKeys());
+            fail("snapshot was read with another codec");
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+    }
+
+    private static <T extends Comparable<? super T>> ImmutableBinaryTree<T> roundTrip(final Tree<T> tree,
+                                                                                     final KeyCodec<T> codec) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TreeSnapshot.write(tree, codec, out);
+        return TreeSnapshot.read(new ByteArrayInputStream(out.toByteArray()), codec);
+    }
+
+}
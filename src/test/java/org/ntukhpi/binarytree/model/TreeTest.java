@@ -2,8 +2,15 @@ package org.ntukhpi.binarytree.model;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import static org.junit.Assert.*;
 
@@ -192,4 +199,405 @@ public class TreeTest {
         assertEquals(5, FACTORY.immutableTree(84, 12, -14, -972, 44, 32, 45, 56, 374, 321, 132, 906).height());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSize() {
+        assertEquals(0, FACTORY.immutableTree().size());
+        assertEquals(7, FACTORY.immutableTree(5, 2, 7, 3, 1, 8, 6).size());
+        assertEquals(7, FACTORY.immutableTree(5, 2, 7, 3, 1, 8, 6, 5, 2).size());
+        assertEquals(6, FACTORY.immutableTree(5, 2, 7, 3, 1, 8, 6).remove(5).size());
+        assertEquals(7, FACTORY.immutableTree(5, 2, 7, 3, 1, 8, 6).remove(42).size());
+        assertEquals(9, FACTORY.balancedTree(5, 4, 3, 2, 1, 6, 7, 8, 9).size());
+
+        ImmutableBinaryTree<Integer> tree = FACTORY.immutableTree(10, 9, 8, 7, 12, 41);
+        while (!tree.isEmpty()) {
+            assertEquals(tree.traverse(Traversal.IN_ORDER).size(), tree.size());
+            assertEquals(tree.left().size() + tree.right().size() + 1, tree.size());
+            tree = tree.cut();
+        }
+
+        assertEquals(0, FACTORY.redBlackTree(1).remove(1).size());
+        assertEquals(3, FACTORY.redBlackTree(3, 1, 2, 1).size());
+        assertEquals(2, FACTORY.avlTree(3, 1, 2).remove(3).size());
+    }
+
+    @Test
+    public void testOrderStatistics() {
+        Integer[] values = {84, 12, -14, -972, 44, 32, 45, 56, 374, 321, 132, 906};
+        for (Tree<Integer> tree : Arrays.asList(FACTORY.immutableTree(values),
+                FACTORY.balancedTree(values.clone()), FACTORY.redBlackTree(values), FACTORY.avlTree(values))) {
+            List<Integer> inOrder = tree.traverse(Traversal.IN_ORDER);
+            for (int i = 0; i < inOrder.size(); i++) {
+                assertEquals(inOrder.get(i), tree.select(i).orElse(null));
+                assertEquals(i, tree.rank(inOrder.get(i)));
+            }
+            assertFalse(tree.select(-1).isPresent());
+            assertFalse(tree.select(values.length).isPresent());
+
+            assertEquals(0, tree.rank(-1000));
+            assertEquals(1, tree.rank(-100));
+            assertEquals(values.length, tree.rank(1000));
+            assertEquals(0, tree.rank(null));
+
+            assertEquals(4, tree.count(32, 56));
+            assertEquals(4, tree.count(31, 57));
+            assertEquals(1, tree.count(44, 44));
+            assertEquals(0, tree.count(46, 55));
+            assertEquals(0, tree.count(56, 32));
+            assertEquals(values.length, tree.count(Integer.MIN_VALUE, Integer.MAX_VALUE));
+            assertEquals(0, tree.count(null, 100));
+        }
+
+        Tree<Integer> empty = FACTORY.immutableTree();
+        assertFalse(empty.select(0).isPresent());
+        assertEquals(0, empty.rank(1));
+        assertEquals(0, empty.count(0, 10));
+    }
+
+    @Test
+    public void testIterators() {
+        Integer[] values = {5, 2, 7, 3, 1, 8, 6};
+        for (Tree<Integer> tree : Arrays.asList(FACTORY.immutableTree(values),
+                FACTORY.redBlackTree(values), FACTORY.avlTree(values))) {
+            for (Traversal order : Traversal.values()) {
+                List<Integer> iterated = new ArrayList<>();
+                tree.iterator(order).forEachRemaining(iterated::add);
+                assertEquals(tree.traverse(order), iterated);
+                assertEquals(iterated, StreamSupport.stream(tree.spliterator(order), false)
+                        .collect(Collectors.toList()));
+            }
+            Iterator<Integer> iterator = tree.iterator(Traversal.IN_ORDER);
+            assertEquals(Integer.valueOf(1), iterator.next());
+            assertEquals(Integer.valueOf(2), iterator.next());
+            assertTrue(iterator.hasNext());
+
+            Spliterator<Integer> spliterator = tree.spliterator(Traversal.IN_ORDER);
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL));
+            assertEquals(values.length, spliterator.getExactSizeIfKnown());
+            assertEquals(Optional.of(6), StreamSupport.stream(spliterator, false).filter(v -> v > 5).findFirst());
+        }
+
+        Iterator<Integer> empty = FACTORY.<Integer>immutableTree().iterator(Traversal.PRE_ORDER);
+        assertFalse(empty.hasNext());
+        try {
+            empty.next();
+            fail();
+        } catch (NoSuchElementException e) {
+            assertFalse(empty.hasNext());
+        }
+    }
+
+    @Test
+    public void testDegenerateTraversal() {
+        ImmutableBinaryTree<Integer> tree = FACTORY.immutableTree();
+        for (int i = 0; i < 500; i++) {
+            tree = tree.insert(i);
+        }
+        int expected = 0;
+        for (Iterator<Integer> iterator = tree.iterator(Traversal.IN_ORDER); iterator.hasNext(); expected++) {
+            assertEquals(Integer.valueOf(expected), iterator.next());
+        }
+        assertEquals(500, expected);
+    }
+
+    @Test
+    public void testParallelStream() {
+        RedBlackTree<Integer> tree = FACTORY.redBlackTree();
+        for (int i = 0; i < 100_000; i++) {
+            tree = tree.insert(i);
+        }
+        assertEquals(99_999L * 100_000 / 2, tree.stream(Traversal.IN_ORDER).parallel().mapToLong(Integer::longValue).sum());
+
+        for (Traversal order : Traversal.values()) {
+            assertEquals(tree.traverse(order), tree.stream(order).parallel().collect(Collectors.toList()));
+        }
+        assertEquals(Optional.of(50_000), tree.stream(Traversal.IN_ORDER).parallel().filter(v -> v >= 50_000).findFirst());
+
+        Spliterator<Integer> suffix = tree.spliterator(Traversal.IN_ORDER);
+        Spliterator<Integer> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(tree.left().size(), prefix.estimateSize());
+        assertEquals(tree.right().size() + 1, suffix.estimateSize());
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+        assertNull(suffix.getComparator());
+        Integer root = tree.getRoot().orElse(null);
+        suffix.tryAdvance(value -> assertEquals(root, value));
+        assertNotNull(suffix.trySplit());
+        assertTrue(suffix.tryAdvance(value -> assertTrue(value > root)));
+        assertTrue(suffix.tryAdvance(value -> assertTrue(value > root)));
+        assertNull(suffix.trySplit());
+
+        ImmutableBinaryTree<Integer> unbalanced = FACTORY.immutableTree(5, 2, 7, 3, 1, 8, 6);
+        for (Traversal order : Traversal.values()) {
+            assertEquals(unbalanced.traverse(order), unbalanced.stream(order).parallel().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testSetOperations() {
+        ImmutableBinaryTree<Integer> first = FACTORY.immutableTree(5, 2, 8, 1, 3, 7, 9);
+        ImmutableBinaryTree<Integer> second = FACTORY.immutableTree(4, 2, 9, 6, 10);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), first.union(second).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(2, 9), first.intersection(second).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(1, 3, 5, 7, 8), first.difference(second).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(4, 6, 10), second.difference(first).traverse(Traversal.IN_ORDER));
+
+        // nodes of the first operand keep their places, untouched subtrees are shared
+        ImmutableBinaryTree<Integer> union = first.union(FACTORY.immutableTree(4));
+        assertEquals("(((_ 1 _) 2 (_ 3 (_ 4 _))) 5 ((_ 7 _) 8 (_ 9 _)))", union.toString());
+        assertSame(first.right(), union.right());
+        assertSame(first, first.union(first.left()));
+        assertSame(first, first.intersection(first));
+        assertSame(first, first.difference(second.clear()));
+        assertTrue(first.difference(first).isEmpty());
+
+        // operands of other families are converted, the result keeps the family of the receiver
+        Tree<Integer> mixed = FACTORY.redBlackTree(3, 4, 11).union(first);
+        assertTrue(mixed instanceof RedBlackTree);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 7, 8, 9, 11), mixed.traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(3), FACTORY.redBlackTree(3, 4, 11).intersection(first).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(4, 11), FACTORY.arenaTree(3, 4, 11).difference(first).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 7, 8, 9, 11),
+                first.union(FACTORY.avlTree(3, 4, 11)).traverse(Traversal.IN_ORDER));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeInsertOutOfBounds() {
+        FACTORY.immutableTree(1, 2, 3).headTree(2, true).insert(3);
+    }
+
+    @Test
+    public void testRangeQueries() {
+        NavigableTree<Integer> tree = FACTORY.immutableTree(50, 20, 80, 10, 30, 70, 90, 25, 35);
+
+        assertEquals(Optional.of(30), tree.floor(30));
+        assertEquals(Optional.of(30), tree.floor(34));
+        assertEquals(Optional.of(25), tree.lower(30));
+        assertEquals(Optional.of(30), tree.ceiling(26));
+        assertEquals(Optional.of(35), tree.higher(30));
+        assertEquals(Optional.empty(), tree.lower(10));
+        assertEquals(Optional.empty(), tree.higher(90));
+        assertEquals(Optional.empty(), tree.floor(null));
+
+        NavigableTree<Integer> range = tree.subTree(25, false, 80, true);
+        assertEquals(Arrays.asList(30, 35, 50, 70, 80), range.traverse(Traversal.IN_ORDER));
+        assertEquals(5, range.size());
+        assertEquals(Optional.of(30), range.min());
+        assertEquals(Optional.of(80), range.max());
+        assertEquals(Optional.of(50), range.select(2));
+        assertFalse(range.contains(25));
+        assertTrue(range.contains(80));
+        assertEquals(Optional.of(80), range.floor(100));
+        assertEquals(Arrays.asList(10, 20, 25), tree.headTree(30, false).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(70, 80, 90), tree.tailTree(70, true).traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(35, 50), range.headTree(70, false).tailTree(35, true).traverse(Traversal.IN_ORDER));
+        assertTrue(tree.subTree(26, true, 29, true).isEmpty());
+        assertSame(tree, tree.subTree(null, false, null, false));
+
+        // the view is lazy: subtrees that lie entirely inside the range are not wrapped
+        assertSame(tree.right().right(), tree.tailTree(60, true).right());
+
+        Tree<Integer> updated = range.insert(60).remove(35).remove(10);
+        assertEquals(Arrays.asList(30, 50, 60, 70, 80), updated.traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(30, 35, 50, 70, 80), range.traverse(Traversal.IN_ORDER));
+        assertTrue(range.clear().isEmpty());
+        assertEquals(5, range.stream(Traversal.PRE_ORDER).parallel().count());
+    }
+
+    @Test
+    public void testRangeBatchAndUnion() {
+        List<NavigableTree<Integer>> trees = Arrays.asList(
+                FACTORY.immutableTree(5, 2, 8, 1, 3, 7, 9),
+                FACTORY.compactTree(5, 2, 8, 1, 3, 7, 9),
+                FACTORY.avlTree(5, 2, 8, 1, 3, 7, 9),
+                FACTORY.redBlackTree(5, 2, 8, 1, 3, 7, 9),
+                FACTORY.bPlusTree(5, 2, 8, 1, 3, 7, 9));
+        for (NavigableTree<Integer> tree : trees) {
+            NavigableTree<Integer> range = tree.subTree(2, true, 7, true);
+            assertEquals(Arrays.asList(2, 3, 5, 7, 100), range.union(FACTORY.immutableTree(100)).traverse(Traversal.IN_ORDER));
+            assertEquals(Arrays.asList(2, 3, 4, 5, 7), range.union(FACTORY.avlTree(4, 5)).traverse(Traversal.IN_ORDER));
+
+            Tree<Integer> batch = range.applyBatch(Arrays.asList(4, 6), Arrays.asList(3, 9));
+            assertEquals(Arrays.asList(2, 4, 5, 6, 7), batch.traverse(Traversal.IN_ORDER));
+            assertEquals(Arrays.asList(2, 3, 4, 5, 7), range.insertAll(Arrays.asList(4, null)).traverse(Traversal.IN_ORDER));
+            assertSame(range, range.removeAll(Arrays.asList(1, 9)));
+            try {
+                range.insertAll(Arrays.asList(4, 100));
+                fail("value outside of the view was inserted");
+            } catch (IllegalArgumentException expected) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        ImmutableBinaryTree<Integer> tree = FACTORY.immutableTree(50, 20, 80, 10, 30, 70, 90);
+
+        ImmutableBinaryTree<Integer> inserted = tree.insertAll(Arrays.asList(35, 5, 25, null, 5, 15));
+        assertEquals("((((_ 5 _) 10 (_ 15 _)) 20 ((_ 25 _) 30 (_ 35 _))) 50 ((_ 70 _) 80 (_ 90 _)))", inserted.toString());
+        assertSame(tree.right(), inserted.right());
+
+        ImmutableBinaryTree<Integer> removed = inserted.removeAll(Arrays.asList(20, 25, 42));
+        assertEquals(Arrays.asList(5, 10, 15, 30, 35, 50, 70, 80, 90), removed.traverse(Traversal.IN_ORDER));
+        assertSame(inserted.right(), removed.right());
+        assertSame(tree, tree.removeAll(Arrays.asList(1, 42, 100)));
+        assertSame(tree, tree.insertAll(Arrays.asList(10, 90)));
+
+        ImmutableBinaryTree<Integer> applied = tree.applyBatch(Arrays.asList(60, 20), Arrays.asList(20, 50, 90));
+        assertEquals(Arrays.asList(10, 20, 30, 60, 70, 80), applied.traverse(Traversal.IN_ORDER));
+        assertEquals(Arrays.asList(1, 2, 3), FACTORY.<Integer>immutableTree().insertAll(Arrays.asList(3, 1, 2)).traverse(Traversal.IN_ORDER));
+
+        Tree<Integer> redBlack = FACTORY.redBlackTree(1, 2, 3).applyBatch(Arrays.asList(4, 5), Arrays.asList(1));
+        assertEquals(Arrays.asList(2, 3, 4, 5), redBlack.traverse(Traversal.IN_ORDER));
+    }
+
+    @Test
+    public void testDegenerateBatch() {
+        int size = 10_000;
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        List<Integer> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(size + i);
+        }
+        checkDegenerateBatch(FACTORY.immutableTree(sorted), batch);
+        checkDegenerateBatch(FACTORY.compactTree(sorted), batch);
+    }
+
+    private static void checkDegenerateBatch(final NavigableTree<Integer> tree, final List<Integer> batch) {
+        int size = tree.size();
+        assertEquals(size, tree.height());
+
+        Tree<Integer> inserted = tree.insertAll(batch);
+        assertEquals(size + batch.size(), inserted.size());
+        assertTrue(inserted.contains(size + batch.size() - 1));
+        assertEquals(size, inserted.removeAll(batch).size());
+        assertSame(tree, tree.removeAll(batch));
+
+        Tree<Integer> union = tree.union(inserted);
+        assertEquals(inserted.traverse(Traversal.IN_ORDER), union.traverse(Traversal.IN_ORDER));
+        Tree<Integer> difference = inserted.difference(tree);
+        assertEquals(batch, difference.traverse(Traversal.IN_ORDER));
+        assertEquals(size, inserted.intersection(tree).size());
+    }
+
+    @Test
+    public void testTransient() {
+        ImmutableBinaryTree<Integer> original = FACTORY.immutableTree(50, 20, 80, 10, 30, 70, 90);
+        String structure = original.toString();
+
+        java.util.Random random = new java.util.Random(5);
+        Tree<Integer> expected = original;
+        TransientTree<Integer> tree = original.asTransient();
+        for (int i = 0; i < 3_000; i++) {
+            int value = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                expected = expected.remove(value);
+                assertSame(tree, tree.remove(value));
+            } else {
+                expected = expected.insert(value);
+                assertSame(tree, tree.insert(value));
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertTrue(tree.contains(expected.min().orElse(-1)));
+        assertFalse(tree.contains(null));
+
+        Tree<Integer> frozen = tree.persistent();
+        assertEquals(expected.toString(), frozen.toString());
+        assertEquals(expected, frozen);
+        assertEquals(structure, original.toString());
+
+        // untouched subtrees of the original tree are shared with the result
+        TransientTree<Integer> small = original.asTransient().insert(5).remove(10);
+        NavigableTree<Integer> result = (NavigableTree<Integer>) small.persistent();
+        assertSame(original.right(), result.right());
+        assertSame(original.left().right(), result.left().right());
+
+        try {
+            tree.insert(1);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Transient tree used after persistent() call", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTransientOwnership() throws Exception {
+        TransientTree<Integer> tree = FACTORY.redBlackTree(1, 2, 3).asTransient().insert(4);
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                tree.insert(5);
+            } catch (IllegalStateException e) {
+                failure[0] = e;
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertNotNull(failure[0]);
+        assertEquals(Arrays.asList(1, 2, 3, 4), tree.persistent().traverse(Traversal.IN_ORDER));
+    }
+
+    @Test
+    public void testDegenerateUpdates() {
+        int size = 10_000;
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        ImmutableBinaryTree<Integer> tree = FACTORY.immutableTree(sorted);
+        assertEquals(size, tree.height());
+
+        tree = tree.insert(size).remove(size / 2).remove(0).insert(-1);
+        assertEquals(size, tree.size());
+        assertTrue(tree.contains(size));
+        assertTrue(tree.contains(-1));
+        assertFalse(tree.contains(size / 2));
+        assertEquals(size - 1, tree.height());
+        assertEquals(Optional.of(size), tree.max());
+        assertEquals(size - 1, tree.insertAll(FACTORY.immutableTree(size + 1, -2)).right().size());
+        assertEquals(FACTORY.immutableTree(sorted), FACTORY.immutableTree(sorted));
+    }
+
+    @Test
+    public void testStructuralEquality() {
+        ImmutableBinaryTree<Integer> tree = FACTORY.immutableTree(50, 30, 70, 20, 40, 60, 80);
+        ImmutableBinaryTree<Integer> copy = FACTORY.immutableTree(50, 30, 70, 20, 40, 60, 80);
+        ImmutableBinaryTree<Integer> reshaped = FACTORY.immutableTree(30, 20, 50, 40, 70, 60, 80);
+
+        assertNotSame(tree, copy);
+        assertEquals(tree, copy);
+        assertEquals(tree.hashCode(), copy.hashCode());
+        assertNotEquals(tree, reshaped);
+        assertEquals(tree.traverse(Traversal.IN_ORDER), reshaped.traverse(Traversal.IN_ORDER));
+
+        ImmutableBinaryTree<Integer> updated = tree.insert(65);
+        assertNotEquals(tree, updated);
+        assertEquals(tree, updated.remove(65));
+        assertEquals(tree.hashCode(), updated.remove(65).hashCode());
+        assertSame(tree.left(), updated.left());
+    }
+
+    @Test
+    public void testInterner() {
+        TreeInterner interner = FACTORY.treeInterner();
+        NavigableTree<Integer> tree = interner.intern(FACTORY.immutableTree(50, 30, 70, 20, 40, 60, 80));
+        NavigableTree<Integer> copy = interner.intern(FACTORY.immutableTree(50, 30, 70, 20, 40, 60, 80));
+        assertSame(tree, copy);
+        assertEquals(7, interner.size());
+
+        NavigableTree<Integer> other = interner.intern(FACTORY.immutableTree(10, 30, 20, 40));
+        assertSame(tree.left(), other.right());
+        assertSame(tree, interner.intern(tree));
+
+        NavigableTree<Integer> updated = interner.intern((NavigableTree<Integer>) ((Tree<Integer>) tree).insert(65).remove(65));
+        assertSame(tree, updated);
+        assertTrue(interner.intern(FACTORY.<Integer>immutableTree()).isEmpty());
+    }
+
+}